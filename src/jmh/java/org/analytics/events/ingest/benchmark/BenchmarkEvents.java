@@ -0,0 +1,65 @@
+package org.analytics.events.ingest.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.analytics.events.ingest.config.IngestLimitsProperties;
+import org.analytics.events.ingest.dto.EventBatchDTO;
+import org.analytics.events.ingest.dto.EventRequestDTO;
+import org.analytics.events.ingest.model.EventType;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Representative payloads shared by the benchmarks: a mobile SDK batch where every event carries
+ * the same client info and a handful of data keys.
+ */
+final class BenchmarkEvents {
+
+    static final String USER_HASH = "e9c0494b2b14ca2b48258c05dd6c4c14";
+
+    static final IngestLimitsProperties UNBOUNDED_LIMITS = new IngestLimitsProperties(
+        Integer.MAX_VALUE, DataSize.ofMegabytes(256),
+        Integer.MAX_VALUE, DataSize.ofMegabytes(256), DataSize.ofMegabytes(256), DataSize.ofMegabytes(1));
+
+    private BenchmarkEvents() {
+    }
+
+    static EventRequestDTO.ClientInfoDTO clientInfo() {
+        return new EventRequestDTO.ClientInfoDTO(
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_4 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Mobile/15E148",
+            "203.0.113.42", "en-US", "America/New_York", "ios");
+    }
+
+    static Map<String, Object> data(int i) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("page", "/products/" + (i % 50));
+        data.put("referrer", "/home");
+        data.put("duration", 1200 + i);
+        data.put("scrollDepth", 0.75);
+        data.put("loggedIn", true);
+        return data;
+    }
+
+    static List<EventRequestDTO> batch(int size) {
+        EventType[] types = EventType.values();
+        List<EventRequestDTO> events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            events.add(new EventRequestDTO(types[i % types.length], USER_HASH, clientInfo(), data(i)));
+        }
+        return events;
+    }
+
+    /**
+     * @return the events of {@link #batch(int)} with their client info sent once for the batch
+     */
+    static EventBatchDTO sharedBatch(int size) {
+        EventType[] types = EventType.values();
+        List<EventRequestDTO> events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            events.add(new EventRequestDTO(types[i % types.length], USER_HASH, null, data(i)));
+        }
+        return new EventBatchDTO(clientInfo(), null, null, events);
+    }
+}
@@ -0,0 +1,81 @@
+package org.analytics.events.ingest.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.analytics.events.ingest.config.ClientProfileProperties;
+import org.analytics.events.ingest.config.EventLogProperties;
+import org.analytics.events.ingest.dto.EventRequestDTO;
+import org.analytics.events.ingest.mapper.ClientInfoInterner;
+import org.analytics.events.ingest.mapper.EventMapper;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.service.EventLog;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Throughput of mapping a batch with the event log off, sampled as configured by default, and
+ * logging every event. Runs with the application's own asynchronous Log4j2 configuration,
+ * writing to {@code target/benchmark-logs}, from several threads to expose contention.
+ *
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec -Djmh.includes=EventLoggingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = {
+    "-Dlog4j2.configurationFile=log4j2-spring.xml",
+    "-DLOG_FILE=target/benchmark-logs/event-ingestion-service.log" })
+public class EventLoggingBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({ "off", "sampled", "all" })
+    private String logging;
+
+    private final EventMapper mapper = new EventMapper(new ClientInfoInterner(new ClientProfileProperties(10_000, false),
+        new SimpleMeterRegistry()));
+    private final List<EventRequestDTO> batch = BenchmarkEvents.batch(BATCH_SIZE);
+    private EventLog eventLog;
+
+    @Setup
+    public void setUp() {
+        Configurator.setLevel(EventLog.class.getName(), logging.equals("off") ? Level.WARN : Level.DEBUG);
+        eventLog = new EventLog(logging.equals("all")
+            ? new EventLogProperties(1.0, Integer.MAX_VALUE)
+            : new EventLogProperties(0.01, 100));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void mapAndLogBatch(Blackhole blackhole) {
+        long start = System.nanoTime();
+        for (EventRequestDTO request : batch) {
+            BaseEvent event = mapper.toEvent(request);
+            eventLog.event(event);
+            blackhole.consume(event);
+        }
+        eventLog.batch("/ingest", true, BATCH_SIZE, 0, System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,59 @@
+package org.analytics.events.ingest.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.analytics.events.ingest.config.ClientProfileProperties;
+import org.analytics.events.ingest.dto.EventRequestDTO;
+import org.analytics.events.ingest.mapper.ClientInfoInterner;
+import org.analytics.events.ingest.mapper.EventMapper;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.ClientInfo;
+import org.analytics.events.ingest.model.EventType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost of turning a bound DTO into a {@link BaseEvent}, through the mapper and through the
+ * builder alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventMappingBenchmark {
+
+    private final EventMapper mapper = new EventMapper(new ClientInfoInterner(new ClientProfileProperties(10_000, false),
+        new SimpleMeterRegistry()));
+    private final EventRequestDTO request = new EventRequestDTO(
+        EventType.PAGE_VIEW, BenchmarkEvents.USER_HASH, BenchmarkEvents.clientInfo(), BenchmarkEvents.data(1));
+    private final ClientInfo clientInfo = new ClientInfo(
+        "Mozilla/5.0", "203.0.113.42", "en-US", "America/New_York", "ios");
+    private final Map<String, Object> data = BenchmarkEvents.data(1);
+
+    @Benchmark
+    public BaseEvent mapperToEvent() {
+        return mapper.toEvent(request);
+    }
+
+    @Benchmark
+    public BaseEvent builderBuild() {
+        return BaseEvent.builder()
+            .eventType(EventType.PAGE_VIEW)
+            .userHash(BenchmarkEvents.USER_HASH)
+            .clientInfo(clientInfo)
+            .data(data)
+            .build();
+    }
+}
@@ -0,0 +1,61 @@
+package org.analytics.events.ingest.benchmark;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.analytics.events.ingest.model.HashMapConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Per-event cost of the {@code data} column conversion in both directions.
+ *
+ * <p>The {@code legacy*} benchmarks reproduce the previous converter, which owned a private
+ * {@code ObjectMapper} per instance (one per persistence unit attribute, plus one per bulk writer)
+ * and built an anonymous {@code TypeReference} on every read, as a baseline for the shared
+ * reader/writer pair.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashMapConverterBenchmark {
+
+    private final HashMapConverter converter = new HashMapConverter();
+    private final ObjectMapper legacyMapper = new ObjectMapper();
+    private final Map<String, Object> data = BenchmarkEvents.data(1);
+    private final String json = converter.convertToDatabaseColumn(data);
+
+    @Benchmark
+    public String toDatabaseColumn() {
+        return converter.convertToDatabaseColumn(data);
+    }
+
+    @Benchmark
+    public Map<String, Object> toEntityAttribute() {
+        return converter.convertToEntityAttribute(json);
+    }
+
+    @Benchmark
+    public String legacyToDatabaseColumn() throws IOException {
+        return legacyMapper.writeValueAsString(data);
+    }
+
+    @Benchmark
+    public Map<String, Object> legacyToEntityAttribute() throws IOException {
+        return legacyMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+    }
+}
@@ -0,0 +1,187 @@
+package org.analytics.events.ingest.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Closed-loop load test against a running instance, used to compare request handling on platform
+ * and on virtual threads ({@code spring.threads.virtual.enabled}).
+ *
+ * <p>For each concurrency level, that many clients post {@code /ingest} batches back to back for
+ * the given duration. The run prints throughput, latency percentiles and the error rate per level
+ * and appends them to {@code <output>/load-test.csv} tagged with the label, so two runs started
+ * against the same heap size ({@code -Xmx}) and database can be compared side by side. The highest
+ * level that stays under 1% errors is reported as the maximum sustainable concurrency.</p>
+ *
+ * <p>Every client sends the same user hash and IP far faster than the per-client rate limits
+ * allow, so the instance under test has to run with {@code ingest.rate-limit.enabled=false};
+ * otherwise the run measures the rate limiter. Responses with status 429 are counted as errors
+ * and reported separately as a reminder.</p>
+ *
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.arguments=--ingest.rate-limit.enabled=false
+ * mvn -P benchmark test-compile exec:exec@load-test -Dload.label=virtual -Dload.concurrency=100,1000,4000
+ * </pre>
+ *
+ * Arguments: target URL, comma-separated concurrency levels, duration per level, label, output directory.
+ */
+public final class IngestLoadTest {
+
+    private static final int BATCH_SIZE = 10;
+    private static final double MAX_ERROR_RATE = 0.01;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpClient client;
+    private final HttpRequest request;
+
+    private IngestLoadTest(URI target, byte[] payload) {
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        this.request = HttpRequest.newBuilder(target)
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI target = URI.create(args.length > 0 ? args[0] : "http://localhost:8085/ingest");
+        int[] levels = Arrays.stream((args.length > 1 ? args[1] : "50,200,800,2000").split(","))
+            .map(String::trim)
+            .mapToInt(Integer::parseInt)
+            .toArray();
+        Duration duration = Duration.parse("PT" + (args.length > 2 ? args[2] : "30s"));
+        String label = args.length > 3 ? args[3] : "run";
+        Path output = Path.of(args.length > 4 ? args[4] : "target");
+
+        byte[] payload = new ObjectMapper().writeValueAsBytes(BenchmarkEvents.batch(BATCH_SIZE));
+        IngestLoadTest loadTest = new IngestLoadTest(target, payload);
+
+        loadTest.run(Math.min(levels[0], 10), Duration.ofSeconds(10));
+        System.out.printf("%-10s %10s %10s %10s %10s %10s %10s%n",
+            "clients", "req/s", "p50 ms", "p99 ms", "max ms", "peak", "errors");
+        int maxSustained = 0;
+        long rateLimited = 0;
+        for (int level : levels) {
+            Result result = loadTest.run(level, duration);
+            rateLimited += result.rateLimited();
+            System.out.printf("%-10d %10.0f %10.1f %10.1f %10.1f %10d %9.2f%%%n",
+                level, result.throughput(duration), result.percentile(0.50), result.percentile(0.99),
+                result.percentile(1.0), result.peakInFlight(), result.errorRate() * 100);
+            append(output, label, level, duration, result);
+            if (result.errorRate() < MAX_ERROR_RATE) {
+                maxSustained = level;
+            }
+        }
+        System.out.printf("[%s] highest concurrency under %.0f%% errors: %d%n", label, MAX_ERROR_RATE * 100, maxSustained);
+        if (rateLimited > 0) {
+            System.out.printf("[%s] %d requests were rate limited; run the instance with ingest.rate-limit.enabled=false%n",
+                label, rateLimited);
+        }
+    }
+
+    private Result run(int clients, Duration duration) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        LongAdder errors = new LongAdder();
+        LongAdder rateLimited = new LongAdder();
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                int index = i;
+                executor.execute(() -> {
+                    long[] recorded = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 202) {
+                                errors.increment();
+                            }
+                            if (response.statusCode() == 429) {
+                                rateLimited.increment();
+                            }
+                        } catch (IOException e) {
+                            errors.increment();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                        if (count == recorded.length) {
+                            recorded = Arrays.copyOf(recorded, count * 2);
+                        }
+                        recorded[count++] = System.nanoTime() - start;
+                    }
+                    latencies[index] = recorded;
+                    counts[index] = count;
+                });
+            }
+        }
+
+        long[] all = new long[Arrays.stream(counts).sum()];
+        int offset = 0;
+        for (int i = 0; i < clients; i++) {
+            if (latencies[i] != null) {
+                System.arraycopy(latencies[i], 0, all, offset, counts[i]);
+                offset += counts[i];
+            }
+        }
+        Arrays.sort(all);
+        return new Result(all, errors.sum(), rateLimited.sum(), peakInFlight.get());
+    }
+
+    private static void append(Path output, String label, int clients, Duration duration, Result result) throws IOException {
+        Files.createDirectories(output);
+        Path csv = output.resolve("load-test.csv");
+        String header = Files.exists(csv) ? "" : "label,clients,requests_per_second,p50_ms,p99_ms,max_ms,peak_in_flight,error_rate\n";
+        String row = String.format("%s,%d,%.0f,%.2f,%.2f,%.2f,%d,%.4f%n", label, clients, result.throughput(duration),
+            result.percentile(0.50), result.percentile(0.99), result.percentile(1.0), result.peakInFlight(), result.errorRate());
+        Files.writeString(csv, header + row, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @param latencies sorted request latencies in nanoseconds
+     * @param rateLimited responses with status 429, included in {@code errors}
+     */
+    private record Result(long[] latencies, long errors, long rateLimited, int peakInFlight) {
+
+        double throughput(Duration duration) {
+            return latencies.length / (duration.toNanos() / 1e9);
+        }
+
+        double percentile(double quantile) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(quantile * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1e6;
+        }
+
+        double errorRate() {
+            return latencies.length == 0 ? 1.0 : (double) errors / latencies.length;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.analytics.events.ingest.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.analytics.events.ingest.model.UuidV7;
+
+/**
+ * Insert throughput and primary key index size of random (v4) versus time-ordered (v7) UUID keys
+ * on PostgreSQL, at table sizes where the v4 index no longer fits in shared buffers.
+ *
+ * <p>Each key type gets its own table shaped like {@code events} (UUID primary key, timestamp and
+ * a jsonb payload). Rows are inserted in batches through the same driver setting as production
+ * ({@code reWriteBatchedInserts=true}); throughput is printed for every slice of the run, so the
+ * point where v4 falls off (index pages evicted, page splits all over the tree) is visible.
+ * Finally index and table sizes are reported.</p>
+ *
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec@uuid-insert -Duuid.url=jdbc:postgresql://localhost/bench -Duuid.rows=20000000
+ * </pre>
+ *
+ * Arguments: JDBC URL, user, password, rows per key type.
+ */
+public final class UuidInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int SLICES = 20;
+
+    public static void main(String[] args) throws SQLException {
+        String url = args.length > 0 ? args[0] : "jdbc:postgresql://localhost:5432/bench";
+        String user = args.length > 1 ? args[1] : "postgres";
+        String password = args.length > 2 ? args[2] : "postgres";
+        long rows = args.length > 3 ? Long.parseLong(args[3]) : 20_000_000L;
+        if (!url.contains("reWriteBatchedInserts")) {
+            url += (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true";
+        }
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            connection.setAutoCommit(false);
+            run(connection, "uuid_bench_v4", UUID::randomUUID, rows);
+            run(connection, "uuid_bench_v7", UuidV7::next, rows);
+        }
+    }
+
+    private static void run(Connection connection, String table, Supplier<UUID> ids, long rows) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("CREATE TABLE " + table
+                + " (event_id uuid PRIMARY KEY, timestamp timestamptz NOT NULL, data jsonb)");
+        }
+        connection.commit();
+
+        System.out.printf("%n%s: %,d rows%n%12s %14s%n", table, rows, "rows", "rows/s");
+        long sliceRows = Math.max(BATCH_SIZE, rows / SLICES);
+        long totalStart = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (event_id, timestamp, data) VALUES (?, now(), ?::jsonb)")) {
+            long inserted = 0;
+            long sliceStart = System.nanoTime();
+            while (inserted < rows) {
+                for (int i = 0; i < BATCH_SIZE && inserted < rows; i++, inserted++) {
+                    insert.setObject(1, ids.get());
+                    insert.setString(2, "{\"page\":\"/products/" + (inserted % 50) + "\"}");
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                connection.commit();
+                if (inserted % sliceRows == 0 || inserted == rows) {
+                    long now = System.nanoTime();
+                    System.out.printf("%,12d %,14.0f%n", inserted, sliceRows / ((now - sliceStart) / 1e9));
+                    sliceStart = now;
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - totalStart) / 1e9;
+
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM ANALYZE " + table);
+        } finally {
+            connection.setAutoCommit(false);
+        }
+        try (PreparedStatement sizes = connection.prepareStatement(
+                "SELECT pg_size_pretty(pg_relation_size(?::regclass)), pg_size_pretty(pg_relation_size(?::regclass))")) {
+            sizes.setString(1, table + "_pkey");
+            sizes.setString(2, table);
+            try (ResultSet result = sizes.executeQuery()) {
+                result.next();
+                System.out.printf("%s: %,.0f rows/s overall, primary key index %s, table %s%n",
+                    table, rows / seconds, result.getString(1), result.getString(2));
+            }
+        }
+        connection.commit();
+    }
+}
@@ -0,0 +1,53 @@
+package org.analytics.events.ingest.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.validation.ValidHashValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-event validation work: user hash format check and event type lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private final ValidHashValidator hashValidator = new ValidHashValidator();
+
+    public String validHash = BenchmarkEvents.USER_HASH;
+    public String invalidHash = "e9c0494b2b14ca2b48258c05dd6c4c1z";
+    public String lastEventTypeValue = EventType.AUTHENTICATION.getValue();
+
+    @Benchmark
+    public boolean validHash() {
+        return hashValidator.isValid(validHash, null);
+    }
+
+    @Benchmark
+    public boolean invalidHash() {
+        return hashValidator.isValid(invalidHash, null);
+    }
+
+    @Benchmark
+    public EventType eventTypeFromValue() {
+        return EventType.fromValue(lastEventTypeValue);
+    }
+
+    @Benchmark
+    public EventType eventTypeLookupUnknown() {
+        return EventType.lookup(invalidHash);
+    }
+}
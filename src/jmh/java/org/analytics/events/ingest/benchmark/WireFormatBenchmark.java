@@ -0,0 +1,82 @@
+package org.analytics.events.ingest.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.analytics.events.ingest.dto.EventBatchDTO;
+import org.analytics.events.ingest.service.EventStreamReader;
+import org.analytics.events.ingest.service.EventWireFormat;
+import org.analytics.events.ingest.service.IngestMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+
+/**
+ * Parse cost per event of a 100-event {@code /ingest} batch in each {@link EventWireFormat},
+ * going through the same {@link EventStreamReader} the controller uses (binding and validation
+ * included), sent either as a plain array or as an {@link EventBatchDTO} with the client info sent
+ * once. The encoded size per event is printed during setup so wire bytes can be compared next to
+ * the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({ "JSON", "CBOR", "SMILE" })
+    public EventWireFormat format;
+
+    @Param({ "false", "true" })
+    public boolean shared;
+
+    private EventStreamReader reader;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        ObjectMapper encoder = switch (format) {
+            case JSON -> objectMapper;
+            case CBOR -> objectMapper.copyWith(new CBORFactory());
+            case SMILE -> objectMapper.copyWith(new SmileFactory());
+        };
+        payload = encoder.writeValueAsBytes(shared
+            ? BenchmarkEvents.sharedBatch(BATCH_SIZE)
+            : BenchmarkEvents.batch(BATCH_SIZE));
+        reader = new EventStreamReader(objectMapper,
+            Validation.buildDefaultValidatorFactory().getValidator(), BenchmarkEvents.UNBOUNDED_LIMITS,
+            new IngestMetrics(new SimpleMeterRegistry()));
+        System.out.printf("%n%s%s: %d bytes per event%n", format, shared ? " (shared client info)" : "",
+            payload.length / BATCH_SIZE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int parseBatch(Blackhole blackhole) throws IOException {
+        return reader.read(new ByteArrayInputStream(payload), format, blackhole::consume);
+    }
+}
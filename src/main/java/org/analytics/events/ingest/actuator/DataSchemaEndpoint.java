@@ -0,0 +1,73 @@
+package org.analytics.events.ingest.actuator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.service.DataKeyPromoter;
+import org.analytics.events.ingest.service.DataSchemaTracker;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the schema of the {@code data} map inferred per event type, and the keys that qualify
+ * for a typed column, at {@code /manage/schema}. With {@code ingest.schema.promote-columns}, a
+ * {@code POST} with a {@code key} promotes one pending candidate; this rewrites the events table.
+ */
+@Component
+@Endpoint(id = "schema")
+public class DataSchemaEndpoint {
+
+    private final DataSchemaTracker tracker;
+    private final ObjectProvider<DataKeyPromoter> promoter;
+
+    public DataSchemaEndpoint(DataSchemaTracker tracker, ObjectProvider<DataKeyPromoter> promoter) {
+        this.tracker = tracker;
+        this.promoter = promoter;
+    }
+
+    @ReadOperation
+    public Map<String, Object> schema() {
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("eventTypes", tracker.schema());
+        schema.put("promotionCandidates", tracker.promotionCandidates());
+        DataKeyPromoter promoter = this.promoter.getIfAvailable();
+        if (promoter != null && promoter.isSupported()) {
+            schema.put("promotedColumns", promoter.promotedColumns());
+            schema.put("pendingPromotions", promoter.pending());
+        }
+        return schema;
+    }
+
+    /**
+     * @return the schema of one event type, or {@code null} (404) for an unknown type
+     */
+    @ReadOperation
+    public DataSchemaTracker.TypeSchema eventTypeSchema(@Selector String eventType) {
+        EventType type = EventType.lookup(eventType);
+        return type == null ? null : tracker.schema(type);
+    }
+
+    /**
+     * Promotes {@code key} to its generated column, holding an exclusive lock on the events table
+     * until every partition is rewritten.
+     *
+     * @return the outcome, with an {@code error} when promotion is off or {@code key} is not pending
+     */
+    @WriteOperation
+    public Map<String, Object> promote(String key) {
+        DataKeyPromoter promoter = this.promoter.getIfAvailable();
+        if (promoter == null || !promoter.isSupported()) {
+            return Map.of("key", key, "error", "Promotion requires ingest.schema.promote-columns on PostgreSQL");
+        }
+        try {
+            return Map.of("key", key, "column", promoter.promote(key));
+        } catch (IllegalArgumentException e) {
+            return Map.of("key", key, "error", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.analytics.events.ingest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Sharing of repeated {@code ClientInfo} values, in memory and optionally in the database.
+ *
+ * @param cacheSize distinct client profiles kept cached, in memory and for their database IDs; the
+ *        least used are evicted first
+ * @param normalize whether user agent, locale, timezone and platform are stored once in
+ *        {@code client_profiles} and referenced from {@code events} by {@code client_profile_id}
+ */
+@ConfigurationProperties(prefix = "ingest.client-profiles")
+public record ClientProfileProperties(
+    @DefaultValue("10000") int cacheSize,
+    @DefaultValue("false") boolean normalize
+) {}
@@ -0,0 +1,31 @@
+package org.analytics.events.ingest.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for dropping retried events before they reach the database.
+ *
+ * <p>Client-chosen event IDs are remembered in two rotating Bloom filter generations. Each
+ * generation holds up to {@code expectedEvents} IDs or {@code window} worth of traffic, so an ID
+ * is remembered for at least that long. Memory is about
+ * {@code 2 * expectedEvents * -ln(falsePositiveRate) / ln(2)^2} bits. A false positive drops a
+ * genuinely new event, so keep the rate low.</p>
+ *
+ * @param enabled whether duplicates are filtered in memory; the database ignores them either way
+ * @param expectedEvents number of IDs one generation is sized for
+ * @param falsePositiveRate target false positive probability of a full generation
+ * @param window maximum age of a generation before it is rotated out
+ * @param idRetention how long client-chosen IDs are kept in {@code event_ids} on PostgreSQL, and
+ *        therefore how late a retry can arrive and still be ignored by the database
+ */
+@ConfigurationProperties(prefix = "ingest.dedup")
+public record DedupProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("1000000") int expectedEvents,
+    @DefaultValue("0.001") double falsePositiveRate,
+    @DefaultValue("1h") Duration window,
+    @DefaultValue("7d") Duration idRetention
+) {}
@@ -0,0 +1,26 @@
+package org.analytics.events.ingest.config;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.analytics.events.ingest.model.EventType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Server-side enrichment of accepted events with device, browser, operating system and country.
+ * Everything is looked up locally; nothing leaves the process.
+ *
+ * @param enabled whether events are enriched at all
+ * @param skipTypes event types left as sent, for types nobody breaks down by client
+ * @param cacheSize distinct user agents whose parse results are cached
+ * @param geoipDatabase CSV file of {@code start_ip,end_ip,country_code} ranges, IPv4 or IPv6;
+ *        countries are left empty when unset
+ */
+@ConfigurationProperties(prefix = "ingest.enrichment")
+public record EnrichmentProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue Set<EventType> skipTypes,
+    @DefaultValue("50000") int cacheSize,
+    Path geoipDatabase
+) {}
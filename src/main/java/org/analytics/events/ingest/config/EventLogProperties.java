@@ -0,0 +1,18 @@
+package org.analytics.events.ingest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the per-event debug log. Batch summaries are always logged; individual events
+ * only when the {@code EventLog} logger is at DEBUG, sampled and then capped so that a traffic
+ * spike cannot turn into a logging spike.
+ *
+ * @param sampleRate fraction of events considered for logging, between 0 and 1
+ * @param maxPerSecond upper bound on logged events per second across all requests, 0 to disable
+ */
+@ConfigurationProperties(prefix = "ingest.event-log")
+public record EventLogProperties(
+    @DefaultValue("0.01") double sampleRate,
+    @DefaultValue("100") int maxPerSecond
+) {}
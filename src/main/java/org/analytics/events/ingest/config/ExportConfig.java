@@ -0,0 +1,26 @@
+package org.analytics.events.ingest.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+@Configuration
+@ConditionalOnProperty(name = "ingest.export.s3.bucket")
+public class ExportConfig {
+
+    @Bean(destroyMethod = "close")
+    public S3Client exportS3Client(ExportProperties properties) {
+        ExportProperties.S3 s3 = properties.s3();
+        S3ClientBuilder builder = S3Client.builder()
+            .region(Region.of(s3.region()))
+            .forcePathStyle(s3.pathStyle());
+        if (s3.endpoint() != null) {
+            builder.endpointOverride(s3.endpoint());
+        }
+        return builder.build();
+    }
+}
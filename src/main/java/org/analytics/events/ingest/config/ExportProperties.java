@@ -0,0 +1,59 @@
+package org.analytics.events.ingest.config;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Export of closed time windows of the {@code events} table to Parquet files, laid out as
+ * {@code date=YYYY-MM-DD/event_type=TYPE/} on local disk or under a prefix of an S3 bucket.
+ *
+ * <p>Windows are aligned to UTC multiples of {@code window}. Keep it a multiple of the partition
+ * interval ({@code ingest.partitions.interval}) so that each window reads whole partitions.</p>
+ *
+ * @param enabled whether this instance exports; enable it on one instance only
+ * @param window time span exported at once; every window produces one file per event type
+ * @param lag how long after its end a window is considered closed; events persisted later are not
+ *        exported, so it has to cover the longest spool or SQS backlog
+ * @param checkInterval how often closed windows are looked for
+ * @param directory where files are written, and kept when no S3 bucket is configured
+ * @param promotedKeys keys of the {@code data} map written to columns of their own, as text
+ * @param rowGroupSize target size of a Parquet row group
+ * @param s3 optional S3-compatible store the files are uploaded to
+ */
+@ConfigurationProperties(prefix = "ingest.export")
+public record ExportProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("1d") Duration window,
+    @DefaultValue("15m") Duration lag,
+    @DefaultValue("5m") Duration checkInterval,
+    @DefaultValue("export") Path directory,
+    @DefaultValue({ "page", "referrer", "duration" }) List<String> promotedKeys,
+    @DefaultValue("64MB") DataSize rowGroupSize,
+    S3 s3
+) {
+
+    /**
+     * @param bucket bucket the files are uploaded to; files stay local when unset
+     * @param prefix key prefix under which the date directories are created
+     * @param region region of the bucket
+     * @param endpoint optional endpoint override for S3-compatible stores such as MinIO
+     * @param pathStyle whether to address the bucket in the path rather than the host name
+     */
+    public record S3(
+        String bucket,
+        @DefaultValue("events") String prefix,
+        @DefaultValue("us-east-1") String region,
+        URI endpoint,
+        @DefaultValue("false") boolean pathStyle
+    ) {}
+
+    public boolean uploadsToS3() {
+        return s3 != null && s3.bucket() != null && !s3.bucket().isBlank();
+    }
+}
@@ -0,0 +1,25 @@
+package org.analytics.events.ingest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Request limits for the ingestion endpoints.
+ *
+ * @param maxBatchEvents maximum number of events in an array sent to {@code /ingest}
+ * @param maxBatchPayload maximum body size of a {@code /ingest} request
+ * @param maxBulkEvents maximum number of lines in an NDJSON request sent to {@code /ingest/bulk}
+ * @param maxBulkPayload maximum body size of a {@code /ingest/bulk} request as sent on the wire
+ * @param maxBulkDecompressed maximum size of a gzip-encoded {@code /ingest/bulk} body once inflated
+ * @param maxLineLength maximum size of a single NDJSON line
+ */
+@ConfigurationProperties(prefix = "ingest.limits")
+public record IngestLimitsProperties(
+    @DefaultValue("100") int maxBatchEvents,
+    @DefaultValue("50KB") DataSize maxBatchPayload,
+    @DefaultValue("10000") int maxBulkEvents,
+    @DefaultValue("2MB") DataSize maxBulkPayload,
+    @DefaultValue("16MB") DataSize maxBulkDecompressed,
+    @DefaultValue("16KB") DataSize maxLineLength
+) {}
@@ -0,0 +1,35 @@
+package org.analytics.events.ingest.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Range partitioning of the {@code events} table on PostgreSQL.
+ *
+ * @param interval time span covered by one partition
+ * @param premake number of future partitions kept ready ahead of the current one
+ * @param retention age after which a partition is removed as a whole; zero keeps everything
+ * @param retentionAction whether expired partitions are dropped or only detached for archiving
+ * @param checkInterval how often partitions are created and expired
+ */
+@ConfigurationProperties(prefix = "ingest.partitions")
+public record PartitionProperties(
+    @DefaultValue("daily") Interval interval,
+    @DefaultValue("7") int premake,
+    @DefaultValue("90d") Duration retention,
+    @DefaultValue("drop") RetentionAction retentionAction,
+    @DefaultValue("1h") Duration checkInterval
+) {
+
+    public enum Interval {
+        HOURLY,
+        DAILY
+    }
+
+    public enum RetentionAction {
+        DROP,
+        DETACH
+    }
+}
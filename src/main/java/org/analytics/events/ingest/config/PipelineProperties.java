@@ -0,0 +1,24 @@
+package org.analytics.events.ingest.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tuning knobs for the in-memory write-behind pipeline.
+ *
+ * @param queueCapacity maximum number of events buffered before new batches are rejected
+ * @param workers number of writer threads draining the queue
+ * @param batchSize maximum number of events written to the database in one micro-batch
+ * @param lingerTime how long a writer waits for a micro-batch to fill up before flushing it
+ * @param retryAfter hint returned to clients when the queue is full
+ */
+@ConfigurationProperties(prefix = "ingest.pipeline")
+public record PipelineProperties(
+    @DefaultValue("50000") int queueCapacity,
+    @DefaultValue("2") int workers,
+    @DefaultValue("500") int batchSize,
+    @DefaultValue("50ms") Duration lingerTime,
+    @DefaultValue("5s") Duration retryAfter
+) {}
@@ -0,0 +1,40 @@
+package org.analytics.events.ingest.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Per-client rate limits on ingested events and adaptive load shedding.
+ *
+ * <p>Rates are in events per second and are scaled down together, to no less than
+ * {@code minRateFactor}, once the pipeline is more than {@code shedQueueRatio} full or database
+ * writes get slower than {@code latencyTarget}.</p>
+ *
+ * @param enabled whether requests are rate limited at all
+ * @param userRate sustained events per second per {@code userHash}
+ * @param userBurst events a single {@code userHash} may send at once
+ * @param ipRate sustained events per second per client IP
+ * @param ipBurst events a single client IP may send at once
+ * @param globalRate sustained events per second across all clients; zero for no global limit
+ * @param globalBurst events accepted at once across all clients
+ * @param idleTimeout how long a refilled bucket is kept before it is evicted
+ * @param shedQueueRatio pipeline fill ratio above which rates are lowered
+ * @param latencyTarget database batch write latency above which rates are lowered
+ * @param minRateFactor lower bound of the adaptive factor applied to all rates
+ */
+@ConfigurationProperties(prefix = "ingest.rate-limit")
+public record RateLimitProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("50") double userRate,
+    @DefaultValue("500") int userBurst,
+    @DefaultValue("200") double ipRate,
+    @DefaultValue("2000") int ipBurst,
+    @DefaultValue("0") double globalRate,
+    @DefaultValue("20000") int globalBurst,
+    @DefaultValue("10m") Duration idleTimeout,
+    @DefaultValue("0.5") double shedQueueRatio,
+    @DefaultValue("250ms") Duration latencyTarget,
+    @DefaultValue("0.1") double minRateFactor
+) {}
@@ -0,0 +1,22 @@
+package org.analytics.events.ingest.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Per-minute event counts kept by the ingest path and flushed to the {@code event_rollups} table.
+ *
+ * @param enabled whether accepted events are counted at all
+ * @param flushInterval how often the counts gathered since the last flush are added to the table
+ * @param window how long minute buckets stay in memory to be served by {@code GET /rollups}
+ * @param maxPlatforms distinct client platforms counted separately; further ones count as {@code other}
+ */
+@ConfigurationProperties(prefix = "ingest.rollups")
+public record RollupProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("10s") Duration flushInterval,
+    @DefaultValue("2h") Duration window,
+    @DefaultValue("32") int maxPlatforms
+) {}
@@ -0,0 +1,35 @@
+package org.analytics.events.ingest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Inference of the keys and value types of the free-form {@code data} map per event type, and
+ * promotion of hot, consistently typed keys to typed columns of the {@code events} table.
+ *
+ * <p>A key becomes a candidate once at least {@code minSamples} sampled events of some type were
+ * seen, the key occurs in at least {@code minFrequency} of them, and at least
+ * {@code minTypeConsistency} of its values have the same JSON type. Promoted columns are generated from {@code data} by
+ * PostgreSQL, so the writers are unaffected. Adding one rewrites the table under an exclusive lock,
+ * so candidates are only reported, and an operator promotes them at {@code /manage/schema}.</p>
+ *
+ * @param enabled whether accepted events are sampled at all
+ * @param sampleRate fraction of accepted events inspected
+ * @param maxKeysPerType distinct keys tracked per event type; a new key replaces the least frequent one
+ * @param minSamples sampled events of a type needed before its keys are judged
+ * @param minFrequency share of sampled events that must contain the key
+ * @param minTypeConsistency share of the key's values that must have its dominant type
+ * @param promoteColumns whether operators may add candidates to the table as generated columns
+ * @param maxPromotedColumns upper bound on generated columns
+ */
+@ConfigurationProperties(prefix = "ingest.schema")
+public record SchemaProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("0.05") double sampleRate,
+    @DefaultValue("256") int maxKeysPerType,
+    @DefaultValue("1000") long minSamples,
+    @DefaultValue("0.5") double minFrequency,
+    @DefaultValue("0.99") double minTypeConsistency,
+    @DefaultValue("false") boolean promoteColumns,
+    @DefaultValue("16") int maxPromotedColumns
+) {}
@@ -0,0 +1,30 @@
+package org.analytics.events.ingest.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for {@code ingest.pipeline.mode=spool}, where accepted batches are appended to a local
+ * write-ahead log before being replayed into the database.
+ *
+ * @param directory directory holding the segment files and the replay checkpoint
+ * @param segmentSize size of each memory-mapped segment file; must exceed the largest encoded batch
+ * @param maxDiskUsage total segment size on disk above which new batches are rejected
+ * @param groupCommitWindow how long the flusher waits to collect appends before one fsync covers them all
+ * @param commitTimeout how long a request waits for its batch to become durable; the batch is
+ *        accepted once the wait is over, since it is in the spool already
+ * @param replayInterval pause between replay attempts when the log is drained or the database is failing
+ */
+@ConfigurationProperties(prefix = "ingest.spool")
+public record SpoolProperties(
+    @DefaultValue("spool") Path directory,
+    @DefaultValue("64MB") DataSize segmentSize,
+    @DefaultValue("4GB") DataSize maxDiskUsage,
+    @DefaultValue("2ms") Duration groupCommitWindow,
+    @DefaultValue("5s") Duration commitTimeout,
+    @DefaultValue("100ms") Duration replayInterval
+) {}
@@ -0,0 +1,24 @@
+package org.analytics.events.ingest.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.SqsClientBuilder;
+
+@Configuration
+@ConditionalOnProperty(name = "ingest.pipeline.mode", havingValue = "sqs")
+public class SqsConfig {
+
+    @Bean(destroyMethod = "close")
+    public SqsClient sqsClient(SqsProperties properties) {
+        SqsClientBuilder builder = SqsClient.builder()
+            .region(Region.of(properties.region()));
+        if (properties.endpoint() != null) {
+            builder.endpointOverride(properties.endpoint());
+        }
+        return builder.build();
+    }
+}
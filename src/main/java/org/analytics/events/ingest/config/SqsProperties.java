@@ -0,0 +1,30 @@
+package org.analytics.events.ingest.config;
+
+import java.net.URI;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for {@code ingest.pipeline.mode=sqs}, where accepted events are buffered in an SQS queue.
+ *
+ * @param queueUrl URL of the queue events are published to and consumed from
+ * @param region AWS region of the queue
+ * @param endpoint optional endpoint override, e.g. a local ElasticMQ instance
+ * @param maxRequestSize size limit of one {@code SendMessageBatch} call, summed over its entries
+ * @param consumerEnabled whether this node also consumes the queue into the database
+ * @param consumerThreads number of long-polling consumer threads
+ * @param waitTime long-poll wait time of each {@code ReceiveMessage} call
+ */
+@ConfigurationProperties(prefix = "ingest.sqs")
+public record SqsProperties(
+    String queueUrl,
+    @DefaultValue("us-east-1") String region,
+    URI endpoint,
+    @DefaultValue("256KB") DataSize maxRequestSize,
+    @DefaultValue("true") boolean consumerEnabled,
+    @DefaultValue("2") int consumerThreads,
+    @DefaultValue("20s") Duration waitTime
+) {}
@@ -0,0 +1,19 @@
+package org.analytics.events.ingest.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class ThreadingConfig {
+
+    /**
+     * Follows {@code spring.threads.virtual.enabled}, the switch that also moves request handling
+     * onto virtual threads, so both halves of the ingest path always run in the same mode.
+     */
+    @Bean
+    public WorkerThreads workerThreads(Environment environment) {
+        return new WorkerThreads(Threading.VIRTUAL.isActive(environment));
+    }
+}
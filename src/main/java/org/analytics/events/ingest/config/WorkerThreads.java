@@ -0,0 +1,37 @@
+package org.analytics.events.ingest.config;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the long-running threads of the ingestion pipelines: the database writers, the spool
+ * replayer and the SQS consumers.
+ *
+ * <p>With {@code spring.threads.virtual.enabled=true} these are virtual threads, as are the Tomcat
+ * request threads, so a slow database parks them instead of occupying a platform thread each.
+ * The locks on the hot path are {@link java.util.concurrent.locks.ReentrantLock}s and blocking
+ * queues, which unmount a waiting virtual thread from its carrier.</p>
+ */
+public final class WorkerThreads {
+
+    private final boolean virtual;
+
+    public WorkerThreads(boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    public static WorkerThreads platform() {
+        return new WorkerThreads(false);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * @return a factory naming its threads {@code prefix1}, {@code prefix2}, ...
+     */
+    public ThreadFactory factory(String prefix) {
+        Thread.Builder builder = virtual ? Thread.ofVirtual() : Thread.ofPlatform();
+        return builder.name(prefix, 1).factory();
+    }
+}
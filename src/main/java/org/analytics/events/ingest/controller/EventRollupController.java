@@ -0,0 +1,45 @@
+package org.analytics.events.ingest.controller;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.analytics.events.ingest.config.RollupProperties;
+import org.analytics.events.ingest.model.EventRollup;
+import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.service.EventRollups;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class EventRollupController {
+
+    private final EventRollups rollups;
+    private final RollupProperties properties;
+
+    public EventRollupController(EventRollups rollups, RollupProperties properties) {
+        this.rollups = rollups;
+        this.properties = properties;
+    }
+
+    /**
+     * Returns per-minute event counts by event type and platform, served from the memory of this
+     * instance without touching the database. Counts of the current minute are still growing.
+     *
+     * Only minutes within {@code ingest.rollups.window} are held in memory; older counts and
+     * the totals of all instances are in the event_rollups table.
+     *
+     * @param minutes how many minutes back to include, capped at the in-memory window.
+     * @param eventType only include this type, by name (PAGE_VIEW); all types if omitted.
+     * @return the counts ordered by minute, event type and platform.
+     */
+    @GetMapping("/rollups")
+    public ResponseEntity<List<EventRollup>> recentRollups(
+            @RequestParam(defaultValue = "60") int minutes,
+            @RequestParam(required = false) EventType eventType) {
+        Duration span = Duration.ofMinutes(Math.clamp(minutes, 1, properties.window().toMinutes()));
+        return ResponseEntity.ok(rollups.recent(Instant.now().minus(span), eventType));
+    }
+}
@@ -1,10 +1,16 @@
 package org.analytics.events.ingest.controller;
 
+import org.analytics.events.ingest.service.IngestionBackpressureException;
+import org.analytics.events.ingest.service.InvalidBatchException;
+import org.analytics.events.ingest.service.RateLimitExceededException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import java.util.HashMap;
@@ -34,4 +40,35 @@ public class GlobalExceptionHandler {
         }
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(IngestionBackpressureException.class)
+    public ResponseEntity<Map<String, String>> handleBackpressure(IngestionBackpressureException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))
+            .body(Map.of("error", ex.getMessage()));
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Map<String, String>> handleRateLimit(RateLimitExceededException ex) {
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+            .body(Map.of("error", ex.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidBatchException.class)
+    public ResponseEntity<String> handleInvalidBatch(InvalidBatchException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    @ExceptionHandler(JsonProcessingException.class)
+    public ResponseEntity<Map<String, String>> handleMalformedEvent(JsonProcessingException ex) {
+        if (ex instanceof InvalidFormatException formatException && !formatException.getPath().isEmpty()) {
+            String fieldName = formatException.getPath().get(formatException.getPath().size() - 1).getFieldName();
+            if (fieldName != null) {
+                return new ResponseEntity<>(Map.of(fieldName, "Invalid value"), HttpStatus.BAD_REQUEST);
+            }
+        }
+        return new ResponseEntity<>(Map.of("error", "Malformed event payload"), HttpStatus.BAD_REQUEST);
+    }
 }
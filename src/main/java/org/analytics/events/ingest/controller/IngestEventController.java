@@ -2,19 +2,72 @@ package org.analytics.events.ingest.controller;
 
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.analytics.events.ingest.config.IngestLimitsProperties;
+import org.analytics.events.ingest.dto.BulkIngestResponseDTO;
+import org.analytics.events.ingest.dto.EventBatchDTO;
 import org.analytics.events.ingest.dto.EventRequestDTO;
-import jakarta.validation.Valid;
+import org.analytics.events.ingest.enrichment.EventEnricher;
+import org.analytics.events.ingest.mapper.EventMapper;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.ClientInfo;
+import org.analytics.events.ingest.service.DataSchemaTracker;
+import org.analytics.events.ingest.service.EventDeduplicator;
+import org.analytics.events.ingest.service.EventLog;
+import org.analytics.events.ingest.service.EventRollups;
+import org.analytics.events.ingest.service.EventSink;
+import org.analytics.events.ingest.service.EventStreamReader;
+import org.analytics.events.ingest.service.EventWireFormat;
+import org.analytics.events.ingest.service.IngestMetrics;
+import org.analytics.events.ingest.service.IngestionPipeline;
+import org.analytics.events.ingest.service.InvalidBatchException;
+import org.analytics.events.ingest.service.NdjsonEventReader;
+import org.analytics.events.ingest.service.RateLimiter;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.validation.annotation.Validated;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @Validated
 public class IngestEventController {
 
+    private final EventMapper eventMapper;
+    private final EventStreamReader eventStreamReader;
+    private final NdjsonEventReader ndjsonEventReader;
+    private final IngestionPipeline ingestionPipeline;
+    private final EventDeduplicator deduplicator;
+    private final RateLimiter rateLimiter;
+    private final IngestMetrics metrics;
+    private final EventLog eventLog;
+    private final EventRollups rollups;
+    private final DataSchemaTracker schemaTracker;
+    private final EventEnricher enricher;
+    private final IngestLimitsProperties limits;
+
+    public IngestEventController(EventMapper eventMapper, EventStreamReader eventStreamReader,
+            NdjsonEventReader ndjsonEventReader, IngestionPipeline ingestionPipeline, EventDeduplicator deduplicator,
+            RateLimiter rateLimiter, IngestMetrics metrics, EventLog eventLog, EventRollups rollups,
+            DataSchemaTracker schemaTracker, EventEnricher enricher, IngestLimitsProperties limits) {
+        this.eventMapper = eventMapper;
+        this.eventStreamReader = eventStreamReader;
+        this.ndjsonEventReader = ndjsonEventReader;
+        this.ingestionPipeline = ingestionPipeline;
+        this.deduplicator = deduplicator;
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
+        this.eventLog = eventLog;
+        this.rollups = rollups;
+        this.schemaTracker = schemaTracker;
+        this.enricher = enricher;
+        this.limits = limits;
+    }
+
     /**
      * Ingests a batch of analytics events.
      *
@@ -25,36 +78,165 @@ public class IngestEventController {
      * - Batch Processing Efficiency: Leverages backend optimizations for batch operations.
      * - Resilience: Clients can queue events during network outages.
      *
-     * Batch size limit is around 100 events or a maximum payload size of 50KB.
-     * This provides a good balance and should be fine-tuned based on actual load testing.
+     * Batch size limit defaults to 100 events or a maximum payload size of 50KB.
+     * This provides a good balance and should be fine-tuned based on actual load testing
+     * through the {@code ingest.limits.*} properties.
+     *
+     * The body is an array of EventRequestDTO objects, or an {@link EventBatchDTO} sending the
+     * clientInfo, session and metadata the events share once, encoded as JSON or, selected by the
+     * Content-Type header, as CBOR or Smile for clients that want to save bytes and parse cost.
+     * It is parsed as a stream by
+     * {@link EventStreamReader}: each event is validated and mapped as soon as it has been read,
+     * and the limits are enforced while reading, so oversized payloads are rejected early.
+     *
+     * Events are handed to the {@link IngestionPipeline} and persisted asynchronously, so the
+     * request thread never waits on the database. A full pipeline answers with 503 and a
+     * Retry-After header.
+     *
+     * Every event counts against the rate limits of its userHash and of its client IP (taken from
+     * clientInfo.ipAddress, or the remote address); an exhausted limit answers with 429 and a
+     * Retry-After header. A remote address already over its limit is turned away before the body
+     * is read, and reading stops at the first event over a limit.
+     *
+     * Events are enriched with device, browser, operating system and country by the
+     * {@link EventEnricher} before they are handed on.
+     *
+     * Events carrying an eventId or idempotencyKey may be retried safely: retries of recently
+     * accepted events are counted as accepted but dropped by the {@link EventDeduplicator}.
      *
-     * @param eventRequests A list of valid EventRequestDTO objects.
-     * @param request The HttpServletRequest.
+     * @param request The HttpServletRequest carrying the array or batch body.
      * @return ResponseEntity indicating the success or failure of the ingestion.
+     * @throws IOException if the body cannot be read or is not valid JSON.
+     */
+    @PostMapping(value = "/ingest", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            EventWireFormat.SMILE_VALUE })
+    public ResponseEntity<String> saveEvents(HttpServletRequest request) throws IOException {
+        long maxPayloadSize = limits.maxBatchPayload().toBytes();
+        if (request.getContentLengthLong() > maxPayloadSize) {
+            throw InvalidBatchException.payloadTooLarge(maxPayloadSize);
+        }
+
+        rateLimiter.checkAddress(request.getRemoteAddr());
+        AcceptedEvents events = new AcceptedEvents("/ingest", request.getRemoteAddr());
+        int received;
+        try {
+            received = eventStreamReader.read(request.getInputStream(),
+                EventWireFormat.fromContentType(request.getContentType()), events);
+            metrics.recordBatchSize(received);
+            events.submit();
+        } catch (IOException | RuntimeException e) {
+            events.reject();
+            throw e;
+        }
+
+        return ResponseEntity.accepted().body("Events accepted: " + received);
+    }
+
+    /**
+     * Ingests a large batch of analytics events sent as newline-delimited JSON, one
+     * EventRequestDTO per line, optionally compressed with {@code Content-Encoding: gzip}.
+     *
+     * Meant for SDKs flushing an offline buffer on reconnect: a single request carries up to
+     * {@code ingest.limits.max-bulk-events} events instead of dozens of small /ingest calls.
+     * Invalid lines are rejected individually and reported with their line number; the
+     * remaining lines are still accepted. Rate limits apply as for /ingest.
+     *
+     * @param request The HttpServletRequest carrying the NDJSON body.
+     * @return 202 with per-line results if any event was accepted, 400 with the same results otherwise.
+     * @throws IOException if the body cannot be read or inflated.
      */
-    @PostMapping("/ingest")
-    public ResponseEntity<String> saveEvents(@RequestBody List<@Valid EventRequestDTO> eventRequests,
-             HttpServletRequest request) {
-        if (eventRequests.isEmpty()) {
-            return ResponseEntity.badRequest().body("Event list cannot be empty");
+    @PostMapping(value = "/ingest/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkIngestResponseDTO> saveBulkEvents(HttpServletRequest request) throws IOException {
+        long maxPayloadSize = limits.maxBulkPayload().toBytes();
+        if (request.getContentLengthLong() > maxPayloadSize) {
+            throw InvalidBatchException.payloadTooLarge(maxPayloadSize);
         }
 
-        final long MAX_PAYLOAD_SIZE = 50 * 1024; // 50KB
-        if (request.getContentLength() > MAX_PAYLOAD_SIZE) {
-            return ResponseEntity.badRequest().body("Payload size cannot exceed 50KB");
+        boolean gzipEncoded = "gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING));
+        rateLimiter.checkAddress(request.getRemoteAddr());
+        AcceptedEvents events = new AcceptedEvents("/ingest/bulk", request.getRemoteAddr());
+        BulkIngestResponseDTO result;
+        try {
+            result = ndjsonEventReader.read(request.getInputStream(), gzipEncoded, events);
+            metrics.recordBatchSize(result.accepted() + result.rejected());
+            if (result.accepted() == 0) {
+                events.reject();
+                return ResponseEntity.badRequest().body(result);
+            }
+            events.submit();
+        } catch (IOException | RuntimeException e) {
+            events.reject();
+            throw e;
         }
-        
-        if (eventRequests.size() > 100) {
-            return ResponseEntity.badRequest().body("Batch size cannot exceed 100 events");
+
+        return ResponseEntity.accepted().body(result);
+    }
+
+    /**
+     * Maps the events of one request, leaving out retries of events accepted earlier. Their IDs
+     * are only remembered once the pipeline took the batch. Retries still count against the
+     * rate limits, which are checked for every event and charged once the whole request has been
+     * read. Mapped events are counted as accepted or rejected by type, and the batch
+     * summary logged, once the fate of the batch is known.
+     */
+    private final class AcceptedEvents implements EventSink {
+
+        private final String endpoint;
+        private final String remoteAddress;
+        private final long start = System.nanoTime();
+        private final RateLimiter.Usage usage = new RateLimiter.Usage();
+        private final List<BaseEvent> events = new ArrayList<>();
+        private final List<UUID> clientEventIds = new ArrayList<>();
+        private final int[] mappedPerType = IngestMetrics.newTypeCounts();
+        private EventMapper.Shared shared = EventMapper.Shared.NONE;
+        private int deduplicated;
+
+        AcceptedEvents(String endpoint, String remoteAddress) {
+            this.endpoint = endpoint;
+            this.remoteAddress = remoteAddress;
+        }
+
+        @Override
+        public void shared(EventBatchDTO batch) {
+            shared = eventMapper.toShared(batch);
         }
 
-        // Simulate processing each event
-        for (EventRequestDTO eventRequest : eventRequests) {
-            // Here you would typically call a service to process each event
-            System.out.println("Processing event: " + eventRequest.eventType() + " for user: " + eventRequest.userHash());
-            // Example: eventService.processEvent(eventRequest, request);
+        @Override
+        public void accept(EventRequestDTO eventRequest) {
+            long start = System.nanoTime();
+            BaseEvent event = eventMapper.toEvent(eventRequest, shared);
+            metrics.recordMap(System.nanoTime() - start);
+            ClientInfo clientInfo = event.getClientInfo();
+            usage.add(eventRequest.userHash(),
+                clientInfo != null && clientInfo.ipAddress() != null ? clientInfo.ipAddress() : remoteAddress);
+            rateLimiter.check(usage);
+            if (eventRequest.hasClientEventId()) {
+                if (deduplicator.isDuplicate(event.getEventId())) {
+                    metrics.count(eventRequest.eventType(), IngestMetrics.Outcome.DEDUPLICATED);
+                    deduplicated++;
+                    return;
+                }
+                clientEventIds.add(event.getEventId());
+            }
+            event = enricher.enrich(event);
+            events.add(event);
+            mappedPerType[IngestMetrics.slot(eventRequest.eventType())]++;
+            eventLog.event(event);
         }
 
-        return ResponseEntity.ok("Events ingested successfully: " + eventRequests.size());
+        void submit() {
+            rateLimiter.acquire(usage);
+            ingestionPipeline.submit(events);
+            deduplicator.remember(clientEventIds);
+            rollups.record(events);
+            schemaTracker.record(events);
+            metrics.count(mappedPerType, IngestMetrics.Outcome.ACCEPTED);
+            eventLog.batch(endpoint, true, events.size(), deduplicated, System.nanoTime() - start);
+        }
+
+        void reject() {
+            metrics.count(mappedPerType, IngestMetrics.Outcome.REJECTED);
+            eventLog.batch(endpoint, false, events.size(), deduplicated, System.nanoTime() - start);
+        }
     }
 }
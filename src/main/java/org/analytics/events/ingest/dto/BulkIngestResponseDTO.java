@@ -0,0 +1,18 @@
+package org.analytics.events.ingest.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of an NDJSON bulk ingestion request. Every line that is not listed in
+ * {@code rejections} was accepted.
+ */
+public record BulkIngestResponseDTO(
+    int accepted,
+    int rejected,
+    List<LineRejection> rejections
+) {
+    public record LineRejection(
+        int line,
+        String error
+    ) {}
+}
@@ -0,0 +1,25 @@
+package org.analytics.events.ingest.dto;
+
+import java.util.List;
+
+import org.analytics.events.ingest.dto.EventRequestDTO.ClientInfoDTO;
+import org.analytics.events.ingest.dto.EventRequestDTO.MetadataDTO;
+import org.analytics.events.ingest.dto.EventRequestDTO.SessionInfoDTO;
+
+/**
+ * A batch of events sent as an object instead of an array, with the client info, session and
+ * metadata the events have in common sent once:
+ *
+ * <pre>
+ * {"clientInfo": {...}, "session": {...}, "metadata": {...}, "events": [{...}, {...}]}
+ * </pre>
+ *
+ * An event that sets one of the shared parts itself uses its own value instead. The shared parts
+ * must precede {@code events}, so that the body can still be read one event at a time.
+ */
+public record EventBatchDTO(
+    ClientInfoDTO clientInfo,
+    SessionInfoDTO session,
+    MetadataDTO metadata,
+    List<EventRequestDTO> events
+) {}
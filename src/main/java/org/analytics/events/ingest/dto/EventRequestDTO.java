@@ -1,14 +1,31 @@
 package org.analytics.events.ingest.dto;
 
+import java.time.Instant;
 import java.util.Map;
+import java.util.UUID;
 
 import org.analytics.events.ingest.model.EventType;
 import org.analytics.events.ingest.validation.ValidHash;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import jakarta.validation.constraints.NotBlank;
 
 
+/**
+ * One event as sent by a client. {@code eventId} and {@code idempotencyKey} are optional: a
+ * client that sets either one can safely retry a request, because an event with the same ID
+ * is stored only once.
+ *
+ * <p>{@code clientInfo}, {@code session} and {@code metadata} may be left out when they are sent
+ * once for the whole batch in an {@link EventBatchDTO}; set on an event, they replace the batch
+ * value for that event.</p>
+ *
+ * <p>Text fields are limited to the length of the column they are stored in, so that an event
+ * the database would refuse is rejected with the request instead of failing a write batch that
+ * holds the events of other requests.</p>
+ */
 public record EventRequestDTO(
     @NotNull(message = "Event type is required")
     EventType eventType,
@@ -17,16 +34,69 @@ public record EventRequestDTO(
     @ValidHash
     String userHash,
     
+    @Valid
     ClientInfoDTO clientInfo,
     
     @NotNull(message = "Event data is required")
-    Map<String, Object> data
+    Map<String, Object> data,
+
+    UUID eventId,
+
+    @Size(max = 128, message = "Idempotency key cannot exceed 128 characters")
+    String idempotencyKey,
+
+    @Valid
+    SessionInfoDTO session,
+
+    @Valid
+    MetadataDTO metadata
 ) {
+    /**
+     * Length of the {@code varchar} columns the text fields of the nested parts are stored in.
+     */
+    public static final int MAX_TEXT_LENGTH = 255;
+
+    public EventRequestDTO(EventType eventType, String userHash, ClientInfoDTO clientInfo, Map<String, Object> data) {
+        this(eventType, userHash, clientInfo, data, null, null);
+    }
+
+    public EventRequestDTO(EventType eventType, String userHash, ClientInfoDTO clientInfo, Map<String, Object> data,
+            UUID eventId, String idempotencyKey) {
+        this(eventType, userHash, clientInfo, data, eventId, idempotencyKey, null, null);
+    }
+
+    /**
+     * @return whether the client chose the event ID, so that a retried event can be recognized
+     */
+    public boolean hasClientEventId() {
+        return eventId != null || idempotencyKey != null;
+    }
+
     public record ClientInfoDTO(
+        @Size(max = MAX_TEXT_LENGTH, message = "User agent cannot exceed 255 characters")
         String userAgent,
+        @Size(max = MAX_TEXT_LENGTH, message = "IP address cannot exceed 255 characters")
         String ipAddress,
+        @Size(max = MAX_TEXT_LENGTH, message = "Locale cannot exceed 255 characters")
         String locale,
+        @Size(max = MAX_TEXT_LENGTH, message = "Timezone cannot exceed 255 characters")
         String timezone,
+        @Size(max = MAX_TEXT_LENGTH, message = "Platform cannot exceed 255 characters")
         String platform
     ) {}
+
+    public record SessionInfoDTO(
+        @Size(max = MAX_TEXT_LENGTH, message = "Session ID cannot exceed 255 characters")
+        String id,
+        Instant startTime
+    ) {}
+
+    public record MetadataDTO(
+        @Size(max = MAX_TEXT_LENGTH, message = "Version cannot exceed 255 characters")
+        String version,
+        @Size(max = MAX_TEXT_LENGTH, message = "Source cannot exceed 255 characters")
+        String source,
+        @Size(max = MAX_TEXT_LENGTH, message = "Environment cannot exceed 255 characters")
+        String environment
+    ) {}
 }
@@ -0,0 +1,92 @@
+package org.analytics.events.ingest.enrichment;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.analytics.events.ingest.config.EnrichmentProperties;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.ClientInfo;
+import org.analytics.events.ingest.model.Enrichment;
+import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.service.IngestMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Attaches an {@link Enrichment} to mapped events: device type, browser and operating system
+ * parsed from the user agent by {@link UserAgentParser}, and the country of the IP address from
+ * the local {@link GeoIpDatabase}.
+ *
+ * <p>Parsed user agents are cached in a Caffeine cache bounded by
+ * {@link EnrichmentProperties#cacheSize()}: user agents repeat heavily across clients, and the
+ * W-TinyLFU admission keeps the popular ones cached when a crawl or a burst of one-off user agents
+ * passes through. Countries are not cached; IP addresses repeat far less, and the range lookup is
+ * a binary search over primitive arrays. The hit rate is published as {@code cache.*} meters and
+ * the time spent as {@code ingest.stage.duration{stage=enrich}}.</p>
+ *
+ * <p>Events of a skipped type, events without client info and all events while disabled are
+ * returned unchanged.</p>
+ */
+@Component
+public class EventEnricher {
+
+    private static final Logger log = LoggerFactory.getLogger(EventEnricher.class);
+
+    private final boolean enabled;
+    private final Set<EventType> skipTypes;
+    private final UserAgentParser parser = new UserAgentParser();
+    private final GeoIpDatabase geoIp;
+    private final Cache<String, UserAgentParser.UserAgent> userAgents;
+    private final IngestMetrics metrics;
+
+    public EventEnricher(EnrichmentProperties properties, IngestMetrics metrics, MeterRegistry registry)
+            throws IOException {
+        this.enabled = properties.enabled();
+        this.skipTypes = properties.skipTypes().isEmpty()
+            ? EnumSet.noneOf(EventType.class)
+            : EnumSet.copyOf(properties.skipTypes());
+        this.metrics = metrics;
+        if (properties.enabled() && properties.geoipDatabase() != null) {
+            this.geoIp = GeoIpDatabase.load(properties.geoipDatabase());
+            log.info("Loaded {} address ranges from {}", geoIp.size(), properties.geoipDatabase());
+        } else {
+            this.geoIp = GeoIpDatabase.EMPTY;
+        }
+        this.userAgents = Caffeine.newBuilder()
+            .maximumSize(properties.cacheSize())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(registry, userAgents, "enrichment.user_agents");
+    }
+
+    /**
+     * @return {@code event} with its enrichment attached, or {@code event} itself if it is not enriched
+     */
+    public BaseEvent enrich(BaseEvent event) {
+        ClientInfo client = event.getClientInfo();
+        if (!enabled || client == null || skipTypes.contains(event.getEventType())
+                || (client.userAgent() == null && client.ipAddress() == null)) {
+            return event;
+        }
+        long start = System.nanoTime();
+        Enrichment enrichment = lookup(client);
+        metrics.recordEnrich(System.nanoTime() - start);
+        return event.withEnrichment(enrichment);
+    }
+
+    private Enrichment lookup(ClientInfo client) {
+        UserAgentParser.UserAgent userAgent = client.userAgent() == null
+            ? parser.parse(null)
+            : userAgents.get(client.userAgent(), parser::parse);
+        return new Enrichment(userAgent.deviceType(), userAgent.browser(), userAgent.browserVersion(),
+            userAgent.os(), userAgent.osVersion(), geoIp.country(client.ipAddress()));
+    }
+}
@@ -0,0 +1,158 @@
+package org.analytics.events.ingest.enrichment;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Country lookup by IP address against a local CSV of address ranges, one
+ * {@code start_ip,end_ip,country_code} range per line, as in the freely available "IP to country"
+ * lite databases. Blank lines, {@code #} comments and a header line are skipped; quotes around
+ * fields are ignored.
+ *
+ * <p>IPv4 and IPv6 ranges share one table: every address is widened to 128 bits, IPv4 as an
+ * IPv4-mapped IPv6 address, and the ranges are kept sorted in parallel {@code long} arrays, so a
+ * lookup is a binary search without allocating per range. Addresses are only ever parsed as
+ * literals; no name is resolved.</p>
+ */
+public final class GeoIpDatabase {
+
+    public static final GeoIpDatabase EMPTY = new GeoIpDatabase(new long[0], new long[0], new long[0], new long[0],
+        new String[0]);
+
+    private final long[] startHigh;
+    private final long[] startLow;
+    private final long[] endHigh;
+    private final long[] endLow;
+    private final String[] countries;
+
+    private GeoIpDatabase(long[] startHigh, long[] startLow, long[] endHigh, long[] endLow, String[] countries) {
+        this.startHigh = startHigh;
+        this.startLow = startLow;
+        this.endHigh = endHigh;
+        this.endLow = endLow;
+        this.countries = countries;
+    }
+
+    /**
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a line is not a valid range, with its line number
+     */
+    public static GeoIpDatabase load(Path file) throws IOException {
+        record Range(long startHigh, long startLow, long endHigh, long endLow, String country) {}
+        Range[] ranges = new Range[1024];
+        int count = 0;
+        Map<String, String> countryCodes = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.replace("\"", "").split(",");
+                byte[] start = fields.length >= 3 ? toBytes(fields[0].strip()) : null;
+                byte[] end = start != null ? toBytes(fields[1].strip()) : null;
+                if (end == null) {
+                    if (lineNumber == 1) {
+                        continue;
+                    }
+                    throw new IllegalArgumentException("Invalid range on line " + lineNumber + " of " + file);
+                }
+                ByteBuffer startBytes = ByteBuffer.wrap(start);
+                ByteBuffer endBytes = ByteBuffer.wrap(end);
+                String country = fields[2].strip().toUpperCase();
+                if (count == ranges.length) {
+                    ranges = Arrays.copyOf(ranges, count * 2);
+                }
+                ranges[count++] = new Range(startBytes.getLong(), startBytes.getLong(), endBytes.getLong(),
+                    endBytes.getLong(), countryCodes.computeIfAbsent(country, code -> code));
+            }
+        }
+        Arrays.sort(ranges, 0, count, (a, b) -> a.startHigh() != b.startHigh()
+            ? Long.compareUnsigned(a.startHigh(), b.startHigh())
+            : Long.compareUnsigned(a.startLow(), b.startLow()));
+        GeoIpDatabase database = new GeoIpDatabase(new long[count], new long[count], new long[count], new long[count],
+            new String[count]);
+        for (int i = 0; i < count; i++) {
+            database.startHigh[i] = ranges[i].startHigh();
+            database.startLow[i] = ranges[i].startLow();
+            database.endHigh[i] = ranges[i].endHigh();
+            database.endLow[i] = ranges[i].endLow();
+            database.countries[i] = ranges[i].country();
+        }
+        return database;
+    }
+
+    public int size() {
+        return countries.length;
+    }
+
+    /**
+     * @return the country code of the range containing {@code ipAddress}, or {@code null} if no
+     *         range does or it is not an IP address literal
+     */
+    public String country(String ipAddress) {
+        if (countries.length == 0 || ipAddress == null) {
+            return null;
+        }
+        byte[] address = toBytes(ipAddress);
+        if (address == null) {
+            return null;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(address);
+        long high = bytes.getLong();
+        long low = bytes.getLong();
+        int lo = 0;
+        int hi = countries.length - 1;
+        int candidate = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(startHigh[mid], startLow[mid], high, low) <= 0) {
+                candidate = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (candidate < 0 || compare(high, low, endHigh[candidate], endLow[candidate]) > 0) {
+            return null;
+        }
+        return countries[candidate];
+    }
+
+    private static int compare(long aHigh, long aLow, long bHigh, long bLow) {
+        return aHigh != bHigh ? Long.compareUnsigned(aHigh, bHigh) : Long.compareUnsigned(aLow, bLow);
+    }
+
+    /**
+     * @return the address as 16 bytes, IPv4 mapped into IPv6, or {@code null} if it is not a literal
+     */
+    private static byte[] toBytes(String literal) {
+        InetAddress address;
+        try {
+            address = InetAddress.ofLiteral(literal);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        byte[] raw = address.getAddress();
+        if (!(address instanceof Inet4Address)) {
+            return raw;
+        }
+        byte[] mapped = new byte[16];
+        mapped[10] = (byte) 0xff;
+        mapped[11] = (byte) 0xff;
+        System.arraycopy(raw, 0, mapped, 12, 4);
+        return mapped;
+    }
+}
@@ -0,0 +1,105 @@
+package org.analytics.events.ingest.enrichment;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Derives device type, browser and operating system from a {@code User-Agent} header with a
+ * short, ordered list of patterns covering the browsers, systems and crawlers that make up
+ * nearly all traffic. Anything else is reported as {@code Other}.
+ *
+ * <p>Only major browser versions are kept, and operating system versions up to the minor
+ * version, so the results stay low-cardinality. Parsing is a handful of regex scans; callers
+ * are expected to cache the results, since user agents repeat heavily.</p>
+ */
+public final class UserAgentParser {
+
+    public static final String OTHER = "Other";
+
+    public record UserAgent(String deviceType, String browser, String browserVersion, String os, String osVersion) {}
+
+    private record Rule(String name, Pattern pattern) {}
+
+    private static final Pattern BOT = Pattern.compile("bot|crawl|spider|slurp|headless", Pattern.CASE_INSENSITIVE);
+    private static final Pattern TABLET = Pattern.compile("iPad|Tablet|Kindle|Silk/|PlayBook");
+    private static final Pattern MOBILE = Pattern.compile("Mobi|iPhone|iPod|Android|Windows Phone");
+
+    // Order matters: Chromium derivatives also carry "Chrome/" and "Safari/"
+    private static final List<Rule> BROWSERS = List.of(
+        new Rule("Edge", Pattern.compile("Edg(?:e|A|iOS)?/(\\d+)")),
+        new Rule("Opera", Pattern.compile("(?:OPR|Opera)/(\\d+)")),
+        new Rule("Samsung Internet", Pattern.compile("SamsungBrowser/(\\d+)")),
+        new Rule("Firefox", Pattern.compile("(?:Firefox|FxiOS)/(\\d+)")),
+        new Rule("Chrome", Pattern.compile("(?:Chrome|CriOS)/(\\d+)")),
+        new Rule("Safari", Pattern.compile("Version/(\\d+)[.\\d]* (?:Mobile/\\S+ )?Safari/")),
+        new Rule("Googlebot", Pattern.compile("Googlebot/(\\d+)")),
+        new Rule("Bingbot", Pattern.compile("bingbot/(\\d+)")));
+
+    private static final List<Rule> SYSTEMS = List.of(
+        new Rule("Windows", Pattern.compile("Windows NT (\\d+\\.\\d+)")),
+        new Rule("iOS", Pattern.compile("(?:iPhone|CPU) OS (\\d+)_(\\d+)")),
+        new Rule("Android", Pattern.compile("Android (\\d+)(?:\\.(\\d+))?")),
+        new Rule("macOS", Pattern.compile("Mac OS X (\\d+)[_.](\\d+)")),
+        new Rule("ChromeOS", Pattern.compile("CrOS \\S+ (\\d+)\\.(\\d+)")),
+        new Rule("Linux", Pattern.compile("Linux()")));
+
+    public UserAgent parse(String userAgent) {
+        if (userAgent == null || userAgent.isBlank()) {
+            return new UserAgent(null, null, null, null, null);
+        }
+        String browser = OTHER;
+        String browserVersion = null;
+        for (Rule rule : BROWSERS) {
+            Matcher matcher = rule.pattern().matcher(userAgent);
+            if (matcher.find()) {
+                browser = rule.name();
+                browserVersion = matcher.group(1);
+                break;
+            }
+        }
+        String os = OTHER;
+        String osVersion = null;
+        for (Rule rule : SYSTEMS) {
+            Matcher matcher = rule.pattern().matcher(userAgent);
+            if (matcher.find()) {
+                os = rule.name();
+                osVersion = osVersion(os, matcher);
+                break;
+            }
+        }
+        return new UserAgent(deviceType(userAgent, os), browser, browserVersion, os, osVersion);
+    }
+
+    private static String deviceType(String userAgent, String os) {
+        if (BOT.matcher(userAgent).find()) {
+            return "bot";
+        }
+        if (TABLET.matcher(userAgent).find() || ("Android".equals(os) && !userAgent.contains("Mobile"))) {
+            return "tablet";
+        }
+        if (MOBILE.matcher(userAgent).find()) {
+            return "mobile";
+        }
+        return "desktop";
+    }
+
+    private static String osVersion(String os, Matcher matcher) {
+        if ("Windows".equals(os)) {
+            return switch (matcher.group(1)) {
+                case "10.0" -> "10";
+                case "6.3" -> "8.1";
+                case "6.2" -> "8";
+                case "6.1" -> "7";
+                default -> matcher.group(1);
+            };
+        }
+        if (matcher.groupCount() == 0 || matcher.group(1).isEmpty()) {
+            return null;
+        }
+        if (matcher.groupCount() == 1 || matcher.group(2) == null) {
+            return matcher.group(1);
+        }
+        return matcher.group(1) + '.' + matcher.group(2);
+    }
+}
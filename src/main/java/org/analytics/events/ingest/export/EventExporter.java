@@ -0,0 +1,244 @@
+package org.analytics.events.ingest.export;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.analytics.events.ingest.config.ExportProperties;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.repository.EventExportRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+/**
+ * Exports closed time windows of the {@code events} table to Parquet files for analysts, so that
+ * scans over months of events read compressed columns instead of rows with a {@code jsonb} column.
+ *
+ * <p>Starting at the watermark, each window that ended more than {@link ExportProperties#lag()}
+ * ago is read once, ordered by event type, and written as one file per type under
+ * {@code date=YYYY-MM-DD/event_type=TYPE/events-<window start>.parquet}. Files are written to a
+ * staging directory and then moved into place or uploaded to S3. The watermark only advances once
+ * all files of a window are published; a window interrupted by a crash is exported again and
+ * overwrites its files, which have deterministic names.</p>
+ *
+ * <p>A window is never exported twice, so events persisted after their window was exported are
+ * not in any file: for example, a spool or SQS backlog older than the lag. The next run counts the
+ * windows exported by the previous one again and reports the difference as
+ * {@code ingest.export.late.events}; events arriving later still go unnoticed. Keep the lag above
+ * the longest backlog the pipeline may hold.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "ingest.export.enabled", havingValue = "true")
+public class EventExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(EventExporter.class);
+
+    static final String EXPORTER = "parquet";
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter WINDOW_START = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+        .withZone(ZoneOffset.UTC);
+
+    private final EventExportRepository repository;
+    private final ExportProperties properties;
+    private final S3Client s3Client;
+    private final Path staging;
+    private final long windowSeconds;
+    private final Counter exportedEvents;
+    private final Counter exportedFiles;
+    private final Counter lateEvents;
+    private final AtomicReference<Instant> watermark = new AtomicReference<>();
+    private final List<ExportedWindow> lastExported = new ArrayList<>();
+
+    public EventExporter(EventExportRepository repository, ExportProperties properties,
+            ObjectProvider<S3Client> s3Client, MeterRegistry registry) {
+        if (properties.uploadsToS3() && s3Client.getIfAvailable() == null) {
+            throw new IllegalStateException("ingest.export.s3.bucket is set but no S3 client is configured");
+        }
+        this.repository = repository;
+        this.properties = properties;
+        this.s3Client = properties.uploadsToS3() ? s3Client.getObject() : null;
+        this.staging = properties.directory().resolve(".staging");
+        this.windowSeconds = properties.window().toSeconds();
+        this.exportedEvents = Counter.builder("ingest.export.events")
+            .description("Events written to Parquet files")
+            .register(registry);
+        this.exportedFiles = Counter.builder("ingest.export.files")
+            .description("Parquet files published")
+            .register(registry);
+        this.lateEvents = Counter.builder("ingest.export.late.events")
+            .description("Events persisted into a window after it was exported, missing from its files")
+            .register(registry);
+        Gauge.builder("ingest.export.lag", watermark,
+                w -> w.get() == null ? 0 : Duration.between(w.get(), Instant.now()).toSeconds())
+            .description("Age of the end of the last exported window")
+            .baseUnit("seconds")
+            .register(registry);
+    }
+
+    /**
+     * Exports every window that has closed since the last run.
+     */
+    @Scheduled(initialDelayString = "${ingest.export.check-interval:5m}",
+        fixedDelayString = "${ingest.export.check-interval:5m}")
+    public void exportClosedWindows() {
+        countLateEvents();
+        Instant next = repository.watermark(EXPORTER);
+        if (next == null) {
+            Instant oldest = repository.oldestEventTime();
+            if (oldest == null) {
+                return;
+            }
+            next = windowStart(oldest);
+        }
+        watermark.set(next);
+        Instant closedBefore = Instant.now().minus(properties.lag());
+        while (!next.plus(properties.window()).isAfter(closedBefore)) {
+            Instant end = next.plus(properties.window());
+            try {
+                lastExported.add(new ExportedWindow(next, end, exportWindow(next, end)));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Export of events from {} to {} failed, retrying with the next run", next, end, e);
+                return;
+            }
+            repository.advanceWatermark(EXPORTER, end);
+            watermark.set(end);
+            next = end;
+        }
+    }
+
+    /**
+     * Compares the windows exported by the previous run with what they hold now.
+     */
+    private void countLateEvents() {
+        try {
+            for (ExportedWindow window : lastExported) {
+                long late = repository.countWindow(window.from(), window.to()) - window.events();
+                if (late > 0) {
+                    lateEvents.increment(late);
+                    log.warn("{} events from {} to {} were persisted after their window was exported and are"
+                        + " missing from its files", late, window.from(), window.to());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not count events persisted after their window was exported", e);
+        }
+        lastExported.clear();
+    }
+
+    Instant windowStart(Instant time) {
+        long seconds = time.getEpochSecond();
+        return Instant.ofEpochSecond(seconds - Math.floorMod(seconds, windowSeconds));
+    }
+
+    /**
+     * @return the number of events exported
+     */
+    private long exportWindow(Instant from, Instant to) throws IOException {
+        Files.createDirectories(staging);
+        WindowFiles files = new WindowFiles(from);
+        try {
+            long events = repository.readWindow(from, to, files);
+            files.finish();
+            exportedEvents.increment(events);
+            log.info("Exported {} events from {} to {}", events, from, to);
+            return events;
+        } finally {
+            files.abort();
+        }
+    }
+
+    private record ExportedWindow(Instant from, Instant to, long events) {}
+
+    /**
+     * Receives the events of one window in event type order and keeps one file open at a time.
+     */
+    private final class WindowFiles implements Consumer<BaseEvent> {
+
+        private final Instant windowStart;
+        private EventType type;
+        private Path file;
+        private EventParquetWriter writer;
+
+        WindowFiles(Instant windowStart) {
+            this.windowStart = windowStart;
+        }
+
+        @Override
+        public void accept(BaseEvent event) {
+            try {
+                if (event.getEventType() != type) {
+                    finish();
+                    type = event.getEventType();
+                    file = staging.resolve(type.name() + ".parquet");
+                    writer = new EventParquetWriter(file, properties.promotedKeys(), properties.rowGroupSize().toBytes());
+                }
+                writer.write(event);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Closes and publishes the file being written, if any.
+         */
+        void finish() throws IOException {
+            if (writer == null) {
+                return;
+            }
+            writer.close();
+            writer = null;
+            publish(file, "date=" + DATE.format(windowStart) + "/event_type=" + type.name()
+                + "/events-" + WINDOW_START.format(windowStart) + ".parquet");
+            file = null;
+        }
+
+        void abort() throws IOException {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void publish(Path file, String key) throws IOException {
+        if (s3Client != null) {
+            ExportProperties.S3 s3 = properties.s3();
+            s3Client.putObject(PutObjectRequest.builder()
+                .bucket(s3.bucket())
+                .key(s3.prefix().isEmpty() ? key : s3.prefix() + "/" + key)
+                .contentType("application/vnd.apache.parquet")
+                .build(), RequestBody.fromFile(file));
+            Files.delete(file);
+        } else {
+            Path target = properties.directory().resolve(key);
+            Files.createDirectories(target.getParent());
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        exportedFiles.increment();
+    }
+}
@@ -0,0 +1,178 @@
+package org.analytics.events.ingest.export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.ClientInfo;
+import org.analytics.events.ingest.model.Enrichment;
+import org.analytics.events.ingest.model.EventDataJson;
+import org.analytics.events.ingest.model.Metadata;
+import org.analytics.events.ingest.model.SessionInfo;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.LocalOutputFile;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+
+/**
+ * Writes events to one Parquet file, one column per field of {@link BaseEvent} with the
+ * embeddables flattened as in the {@code events} table.
+ *
+ * <p>Low-cardinality columns such as the client platform, locale and timezone are dictionary
+ * encoded; the event ID and the remaining {@code data} JSON, which are nearly unique per row, are
+ * not. The promoted {@code data} keys get a {@code data_<key>} text column each and are left out
+ * of the {@code data} column.</p>
+ */
+final class EventParquetWriter implements AutoCloseable {
+
+    private static final Pattern UNSAFE_NAME_CHARS = Pattern.compile("[^A-Za-z0-9_]");
+
+    private final List<String> promotedKeys;
+    private final List<String> promotedColumns;
+    private final SimpleGroupFactory groups;
+    private final ParquetWriter<Group> writer;
+
+    EventParquetWriter(Path file, List<String> promotedKeys, long rowGroupSize) throws IOException {
+        this.promotedKeys = promotedKeys;
+        this.promotedColumns = promotedKeys.stream().map(EventParquetWriter::promotedColumn).toList();
+        MessageType schema = schema(promotedColumns);
+        this.groups = new SimpleGroupFactory(schema);
+        this.writer = ExampleParquetWriter.builder(new LocalOutputFile(file))
+            .withType(schema)
+            .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+            .withCompressionCodec(CompressionCodecName.SNAPPY)
+            .withRowGroupSize(rowGroupSize)
+            .withDictionaryEncoding(true)
+            .withDictionaryEncoding("event_id", false)
+            .withDictionaryEncoding("data", false)
+            .build();
+    }
+
+    static String promotedColumn(String key) {
+        return "data_" + UNSAFE_NAME_CHARS.matcher(key).replaceAll("_");
+    }
+
+    static MessageType schema(List<String> promotedColumns) {
+        LogicalTypeAnnotation text = LogicalTypeAnnotation.stringType();
+        LogicalTypeAnnotation instant = LogicalTypeAnnotation.timestampType(true, LogicalTypeAnnotation.TimeUnit.MICROS);
+        Types.MessageTypeBuilder builder = Types.buildMessage()
+            .required(PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY).length(16).as(LogicalTypeAnnotation.uuidType()).named("event_id")
+            .required(PrimitiveTypeName.BINARY).as(text).named("event_type")
+            .required(PrimitiveTypeName.INT64).as(instant).named("timestamp")
+            .optional(PrimitiveTypeName.BINARY).as(text).named("user_hash")
+            .optional(PrimitiveTypeName.BINARY).as(text).named("user_agent")
+            .optional(PrimitiveTypeName.BINARY).as(text).named("ip_address")
+            .optional(PrimitiveTypeName.BINARY).as(text).named("locale")
+            .optional(PrimitiveTypeName.BINARY).as(text).named("timezone")
+            .optional(PrimitiveTypeName.BINARY).as(text).named("platform")
+            .optional(PrimitiveTypeName.BINARY).as(text).named("session_id")
+            .optional(PrimitiveTypeName.INT64).as(instant).named("session_start_time")
+            .optional(PrimitiveTypeName.BINARY).as(text).named("version")
+            .optional(PrimitiveTypeName.BINARY).as(text).named("source")
+            .optional(PrimitiveTypeName.BINARY).as(text).named("environment")
+            .optional(PrimitiveTypeName.BINARY).as(text).named("device_type")
+            .optional(PrimitiveTypeName.BINARY).as(text).named("browser")
+            .optional(PrimitiveTypeName.BINARY).as(text).named("browser_version")
+            .optional(PrimitiveTypeName.BINARY).as(text).named("os")
+            .optional(PrimitiveTypeName.BINARY).as(text).named("os_version")
+            .optional(PrimitiveTypeName.BINARY).as(text).named("country");
+        for (String column : promotedColumns) {
+            builder.optional(PrimitiveTypeName.BINARY).as(text).named(column);
+        }
+        return builder
+            .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.jsonType()).named("data")
+            .named("event");
+    }
+
+    void write(BaseEvent event) throws IOException {
+        Group row = groups.newGroup();
+        row.append("event_id", uuid(event.getEventId()));
+        row.append("event_type", event.getEventType().name());
+        row.append("timestamp", micros(event.getTimestamp()));
+        appendIfPresent(row, "user_hash", event.getUserHash());
+        ClientInfo client = event.getClientInfo();
+        if (client != null) {
+            appendIfPresent(row, "user_agent", client.userAgent());
+            appendIfPresent(row, "ip_address", client.ipAddress());
+            appendIfPresent(row, "locale", client.locale());
+            appendIfPresent(row, "timezone", client.timezone());
+            appendIfPresent(row, "platform", client.platform());
+        }
+        SessionInfo session = event.getSession();
+        if (session != null) {
+            appendIfPresent(row, "session_id", session.id());
+            if (session.startTime() != null) {
+                row.append("session_start_time", micros(session.startTime()));
+            }
+        }
+        Metadata metadata = event.getMetadata();
+        if (metadata != null) {
+            appendIfPresent(row, "version", metadata.version());
+            appendIfPresent(row, "source", metadata.source());
+            appendIfPresent(row, "environment", metadata.environment());
+        }
+        Enrichment enrichment = event.getEnrichment();
+        if (enrichment != null) {
+            appendIfPresent(row, "device_type", enrichment.deviceType());
+            appendIfPresent(row, "browser", enrichment.browser());
+            appendIfPresent(row, "browser_version", enrichment.browserVersion());
+            appendIfPresent(row, "os", enrichment.os());
+            appendIfPresent(row, "os_version", enrichment.osVersion());
+            appendIfPresent(row, "country", enrichment.country());
+        }
+        Map<String, Object> data = event.getData();
+        if (data != null && !data.isEmpty()) {
+            Map<String, Object> remaining = data;
+            for (int i = 0; i < promotedKeys.size(); i++) {
+                Object value = data.get(promotedKeys.get(i));
+                if (value != null) {
+                    row.append(promotedColumns.get(i), value.toString());
+                    if (remaining == data) {
+                        remaining = new LinkedHashMap<>(data);
+                    }
+                    remaining.remove(promotedKeys.get(i));
+                }
+            }
+            if (!remaining.isEmpty()) {
+                row.append("data", EventDataJson.toJson(remaining));
+            }
+        }
+        writer.write(row);
+    }
+
+    private static void appendIfPresent(Group row, String column, String value) {
+        if (value != null) {
+            row.append(column, value);
+        }
+    }
+
+    private static Binary uuid(UUID id) {
+        ByteBuffer bytes = ByteBuffer.allocate(16);
+        bytes.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        return Binary.fromConstantByteArray(bytes.array());
+    }
+
+    private static long micros(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
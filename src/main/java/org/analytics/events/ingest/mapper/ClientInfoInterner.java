@@ -0,0 +1,68 @@
+package org.analytics.events.ingest.mapper;
+
+import java.util.Objects;
+
+import org.analytics.events.ingest.config.ClientProfileProperties;
+import org.analytics.events.ingest.model.ClientInfo;
+import org.analytics.events.ingest.model.ClientProfile;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Shares {@link ClientInfo} values between events. An SDK sends the same client info with
+ * every event, so after the first event of a client the mapper hands out the strings, and as long
+ * as the IP address stays the same the instance, it mapped first. The freshly parsed strings
+ * become garbage right away instead of being retained by queued batches.
+ *
+ * <p>The cache is keyed by {@link ClientProfile}, without the IP address: every client behind one
+ * app build and device setup shares a single entry, which remembers the client info it handed out
+ * last. It is a Caffeine cache bounded by {@link ClientProfileProperties#cacheSize()}, so a burst
+ * of one-off profiles does not push out the common ones. The hit rate is published as
+ * {@code cache.*} meters.</p>
+ */
+@Component
+public class ClientInfoInterner {
+
+    private final Cache<ClientProfile, Shared> profiles;
+
+    public ClientInfoInterner(ClientProfileProperties properties, MeterRegistry registry) {
+        this.profiles = Caffeine.newBuilder()
+            .maximumSize(properties.cacheSize())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(registry, profiles, "mapper.client_profiles");
+    }
+
+    public ClientInfo intern(String userAgent, String ipAddress, String locale, String timezone, String platform) {
+        Shared shared = profiles.get(new ClientProfile(userAgent, locale, timezone, platform), Shared::new);
+        ClientInfo last = shared.last;
+        if (last != null && Objects.equals(last.ipAddress(), ipAddress)) {
+            return last;
+        }
+        ClientProfile profile = shared.profile;
+        ClientInfo clientInfo = new ClientInfo(profile.userAgent(), ipAddress, profile.locale(), profile.timezone(),
+            profile.platform());
+        shared.last = clientInfo;
+        return clientInfo;
+    }
+
+    int size() {
+        profiles.cleanUp();
+        return (int) profiles.estimatedSize();
+    }
+
+    private static final class Shared {
+
+        final ClientProfile profile;
+        volatile ClientInfo last;
+
+        Shared(ClientProfile profile) {
+            this.profile = profile;
+        }
+    }
+}
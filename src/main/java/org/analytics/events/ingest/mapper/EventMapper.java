@@ -1,27 +1,78 @@
 package org.analytics.events.ingest.mapper;
 
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.analytics.events.ingest.dto.EventBatchDTO;
 import org.analytics.events.ingest.dto.EventRequestDTO;
 import org.analytics.events.ingest.model.BaseEvent;
 import org.analytics.events.ingest.model.ClientInfo;
+import org.analytics.events.ingest.model.Metadata;
+import org.analytics.events.ingest.model.SessionInfo;
 import org.springframework.stereotype.Component;
 
 @Component
 public class EventMapper {
-    
+
+    private final ClientInfoInterner clientInfoInterner;
+
+    public EventMapper(ClientInfoInterner clientInfoInterner) {
+        this.clientInfoInterner = clientInfoInterner;
+    }
+
+    /**
+     * Maps a validated request to an event. The DTO's {@code data} map is transferred to the
+     * event as-is; the DTO must not be used to modify it afterwards.
+     *
+     * <p>A client-supplied event ID is kept; otherwise an idempotency key is turned into a
+     * name-based UUID scoped to the user, so retries of the same event map to the same ID.</p>
+     */
     public BaseEvent toEvent(EventRequestDTO dto) {
-        return BaseEvent.builder()
+        return toEvent(dto, Shared.NONE);
+    }
+
+    /**
+     * Maps the shared parts of an {@link EventBatchDTO} once, for {@link #toEvent(EventRequestDTO, Shared)}.
+     */
+    public Shared toShared(EventBatchDTO batch) {
+        return new Shared(mapClientInfo(batch.clientInfo()), mapSession(batch.session()), mapMetadata(batch.metadata()));
+    }
+
+    /**
+     * Maps a validated request of a batch to an event. Parts the event does not set itself are
+     * taken from {@code shared}; every event of the batch references the same instances.
+     */
+    public BaseEvent toEvent(EventRequestDTO dto, Shared shared) {
+        BaseEvent.Builder builder = BaseEvent.builder();
+        UUID eventId = eventId(dto);
+        if (eventId != null) {
+            builder.eventId(eventId).clientEventId(true);
+        }
+        return builder
             .eventType(dto.eventType())
             .userHash(dto.userHash())
-            .clientInfo(mapClientInfo(dto.clientInfo()))
+            .clientInfo(dto.clientInfo() != null ? mapClientInfo(dto.clientInfo()) : shared.clientInfo())
+            .session(dto.session() != null ? mapSession(dto.session()) : shared.session())
+            .metadata(dto.metadata() != null ? mapMetadata(dto.metadata()) : shared.metadata())
             .data(dto.data())
             .build();
     }
     
+    private static UUID eventId(EventRequestDTO dto) {
+        if (dto.eventId() != null) {
+            return dto.eventId();
+        }
+        if (dto.idempotencyKey() != null) {
+            return UUID.nameUUIDFromBytes((dto.userHash() + ':' + dto.idempotencyKey()).getBytes(StandardCharsets.UTF_8));
+        }
+        return null;
+    }
+
     private ClientInfo mapClientInfo(EventRequestDTO.ClientInfoDTO dto) {
         if (dto == null) {
             return null;
         }
-        return new ClientInfo(
+        return clientInfoInterner.intern(
             dto.userAgent(),
             dto.ipAddress(),
             dto.locale(),
@@ -29,4 +80,27 @@ public class EventMapper {
             dto.platform()
         );
     }
+
+    private static SessionInfo mapSession(EventRequestDTO.SessionInfoDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        return new SessionInfo(dto.id(), dto.startTime());
+    }
+
+    private static Metadata mapMetadata(EventRequestDTO.MetadataDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        return new Metadata(dto.version(), dto.source(), dto.environment());
+    }
+
+    /**
+     * The mapped client info, session and metadata of a batch. All immutable, so they are
+     * safe to share between events.
+     */
+    public record Shared(ClientInfo clientInfo, SessionInfo session, Metadata metadata) {
+
+        public static final Shared NONE = new Shared(null, null, null);
+    }
 }
@@ -1,7 +1,9 @@
 package org.analytics.events.ingest.model;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -25,12 +27,20 @@ import java.util.UUID;
  *     .addData("referrer", "/login")
  *     .build();
  * </pre>
+ *
+ * <p>The event ID is assigned by the builder, never by the database: a time-ordered
+ * {@link UuidV7} unless the client supplied one. {@link Persistable} tells
+ * Spring Data that a freshly built event is new, so {@code save} issues a plain insert instead of
+ * a select followed by a merge, and Hibernate can batch the inserts.</p>
+ *
+ * <p>The {@code data} map is never copied. {@link Builder#data(Map)} takes ownership of the map it
+ * is given, the built event wraps it in an unmodifiable view once, and {@link #getData()} returns
+ * that view on every call.</p>
  */
 @Entity
 @Table(name = "events")
-public class BaseEvent {
+public class BaseEvent implements Persistable<UUID> {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
     @Column(name = "event_id")
     private UUID eventId;
 
@@ -53,32 +63,73 @@ public class BaseEvent {
     @Embedded
     private Metadata metadata;
 
+    @Embedded
+    private Enrichment enrichment;
+
     @Convert(converter = HashMapConverter.class)
     @Column(name = "data", columnDefinition = "jsonb") // Use jsonb for PostgreSQL
-    private Map<String, Object> data = new HashMap<>();
+    private Map<String, Object> data = Map.of();
+
+    @Transient
+    private boolean isNew = true;
+
+    @Transient
+    private boolean clientEventId;
 
     // Default constructor for JPA
     public BaseEvent() {
     }
 
     private BaseEvent(Builder builder) {
-        this.eventId = builder.eventId;
+        this.eventId = builder.eventId != null ? builder.eventId : UuidV7.next();
+        this.clientEventId = builder.eventId != null && builder.clientEventId;
         this.eventType = builder.eventType;
-        this.timestamp = builder.timestamp;
+        this.timestamp = builder.timestamp != null ? builder.timestamp : Instant.now();
         this.userHash = builder.userHash;
         this.clientInfo = builder.clientInfo;
         this.session = builder.session;
         this.metadata = builder.metadata;
-        this.data = new HashMap<>(builder.data);
+        this.enrichment = builder.enrichment;
+        this.data = builder.data == null ? Map.of() : Collections.unmodifiableMap(builder.data);
+    }
+
+    private BaseEvent(BaseEvent event, Enrichment enrichment) {
+        this.eventId = event.eventId;
+        this.clientEventId = event.clientEventId;
+        this.eventType = event.eventType;
+        this.timestamp = event.timestamp;
+        this.userHash = event.userHash;
+        this.clientInfo = event.clientInfo;
+        this.session = event.session;
+        this.metadata = event.metadata;
+        this.data = event.data;
+        this.enrichment = enrichment;
     }
 
     public static Builder builder() {
         return new Builder();
     }
 
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
     // Getters and Setters for JPA
+    @Override
+    public UUID getId() { return eventId; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
     public UUID getEventId() { return eventId; }
 
+    /**
+     * @return whether the event ID was chosen by the client, so that a retry carries the same ID
+     */
+    public boolean hasClientEventId() { return clientEventId; }
+
     public EventType getEventType() { return eventType; }
 
     public Instant getTimestamp() { return timestamp; }
@@ -91,17 +142,52 @@ public class BaseEvent {
 
     public Metadata getMetadata() { return metadata; }
 
-    public Map<String, Object> getData() { return new HashMap<>(data); }
+    public Enrichment getEnrichment() { return enrichment; }
+
+    /**
+     * @return this event with {@code enrichment} attached; everything else, the data map
+     *         included, is shared with this event rather than copied
+     */
+    public BaseEvent withEnrichment(Enrichment enrichment) {
+        return new BaseEvent(this, enrichment);
+    }
+
+    /**
+     * @return the event data as an unmodifiable map
+     */
+    public Map<String, Object> getData() { return data; }
 
     public static class Builder {
-        private UUID eventId = UUID.randomUUID();
+        private UUID eventId;
         private EventType eventType;
-        private Instant timestamp = Instant.now();
+        private Instant timestamp;
         private String userHash;
         private ClientInfo clientInfo;
         private SessionInfo session;
         private Metadata metadata;
-        private Map<String, Object> data = new HashMap<>();
+        private Enrichment enrichment;
+        private Map<String, Object> data;
+        private boolean dataOwned;
+        private boolean clientEventId;
+
+        public Builder eventId(UUID eventId) {
+            this.eventId = eventId;
+            return this;
+        }
+
+        /**
+         * Marks the ID given to {@link #eventId(UUID)} as chosen by the client rather than
+         * assigned by the server.
+         */
+        public Builder clientEventId(boolean clientEventId) {
+            this.clientEventId = clientEventId;
+            return this;
+        }
+
+        public Builder timestamp(Instant timestamp) {
+            this.timestamp = timestamp;
+            return this;
+        }
 
         public Builder eventType(EventType eventType) {
             this.eventType = eventType;
@@ -128,13 +214,27 @@ public class BaseEvent {
             return this;
         }
 
+        public Builder enrichment(Enrichment enrichment) {
+            this.enrichment = enrichment;
+            return this;
+        }
+
         public Builder addData(String key, Object value) {
+            if (!dataOwned) {
+                this.data = data == null ? new HashMap<>() : new HashMap<>(data);
+                this.dataOwned = true;
+            }
             this.data.put(key, value);
             return this;
         }
 
+        /**
+         * Hands the map over to the event without copying it. The caller must not modify the map
+         * afterwards; a later {@link #addData(String, Object)} copies it once before writing.
+         */
         public Builder data(Map<String, Object> data) {
-            this.data = new HashMap<>(data);
+            this.data = data;
+            this.dataOwned = false;
             return this;
         }
 
@@ -0,0 +1,27 @@
+package org.analytics.events.ingest.model;
+
+/**
+ * The part of a {@link ClientInfo} that clients of the same app build and device setup have in
+ * common: user agent, locale, timezone and platform, without the IP address. Client infos are
+ * cached by their profile, since with the IP address in the key every client would get an entry
+ * of its own.
+ */
+public record ClientProfile(
+    String userAgent,
+    String locale,
+    String timezone,
+    String platform
+) {
+
+    /**
+     * @return the profile of {@code clientInfo}, or {@code null} if it has none of the profile fields
+     */
+    public static ClientProfile of(ClientInfo clientInfo) {
+        if (clientInfo == null || (clientInfo.userAgent() == null && clientInfo.locale() == null
+                && clientInfo.timezone() == null && clientInfo.platform() == null)) {
+            return null;
+        }
+        return new ClientProfile(clientInfo.userAgent(), clientInfo.locale(), clientInfo.timezone(),
+            clientInfo.platform());
+    }
+}
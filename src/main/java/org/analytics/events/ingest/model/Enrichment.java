@@ -0,0 +1,17 @@
+package org.analytics.events.ingest.model;
+
+import jakarta.persistence.Embeddable;
+
+/**
+ * What the server derived from an event's {@link ClientInfo}: device, browser and operating
+ * system from the user agent, and the country of the IP address.
+ */
+@Embeddable
+public record Enrichment(
+    String deviceType,
+    String browser,
+    String browserVersion,
+    String os,
+    String osVersion,
+    String country
+) {}
@@ -0,0 +1,92 @@
+package org.analytics.events.ingest.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+
+import org.postgresql.util.PGobject;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * Shared JSON codec for the event {@code data} map.
+ *
+ * <p>Every persistence path (the JPA {@link HashMapConverter}, the JDBC batch writer and the COPY
+ * writer) goes through the same pre-built {@link ObjectReader}/{@link ObjectWriter} pair. Both
+ * are immutable and thread-safe, carry the resolved {@code Map<String, Object>} type, and reuse
+ * Jackson's recycled buffers, so no mapper, type reference or serializer lookup is created per
+ * event.</p>
+ */
+public final class EventDataJson {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+    private static final JsonMapper MAPPER = JsonMapper.builder().build();
+    private static final ObjectReader MAP_READER = MAPPER.readerFor(MAP_TYPE);
+    private static final ObjectWriter MAP_WRITER = MAPPER.writerFor(MAP_TYPE);
+    private static final ObjectWriter MAP_STREAM_WRITER = MAP_WRITER.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private static final String EMPTY_OBJECT = "{}";
+
+    private EventDataJson() {
+    }
+
+    public static String toJson(Map<String, Object> data) {
+        if (data == null || data.isEmpty()) {
+            return EMPTY_OBJECT;
+        }
+        try {
+            return MAP_WRITER.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Error converting Map to JSON", e);
+        }
+    }
+
+    /**
+     * Serializes the map directly into {@code out}, without an intermediate {@code String}.
+     * {@code out} is not closed.
+     */
+    public static void writeJson(Map<String, Object> data, Writer out) throws IOException {
+        if (data == null || data.isEmpty()) {
+            out.write(EMPTY_OBJECT);
+            return;
+        }
+        MAP_STREAM_WRITER.writeValue(out, data);
+    }
+
+    /**
+     * Wraps the serialized map in a {@code jsonb} typed {@link PGobject}, so the driver sends it
+     * with the column type and no {@code CAST} is needed in the statement.
+     */
+    public static PGobject toJsonb(Map<String, Object> data) {
+        PGobject jsonb = new PGobject();
+        jsonb.setType("jsonb");
+        try {
+            jsonb.setValue(toJson(data));
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return jsonb;
+    }
+
+    /**
+     * @return the parsed map, unmodifiable
+     */
+    public static Map<String, Object> fromJson(String json) {
+        if (json == null || json.isBlank()) {
+            return Map.of();
+        }
+        try {
+            Map<String, Object> data = MAP_READER.readValue(json);
+            return Collections.unmodifiableMap(data);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Error converting JSON to Map", e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.analytics.events.ingest.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Serializes built events for transport outside the JVM, such as queue messages or spool files.
+ * Unlike the request DTOs the encoding keeps the server-assigned event ID and timestamp, so an
+ * event decoded on the consumer side is persisted exactly as it was accepted, enrichment included.
+ */
+public final class EventMessageCodec {
+
+    private static final JsonMapper MAPPER = JsonMapper.builder()
+        .addModule(new JavaTimeModule())
+        .build();
+    private static final ObjectWriter BATCH_WRITER = MAPPER.writerFor(new TypeReference<List<EventMessage>>() {});
+    private static final ObjectWriter EVENT_WRITER = MAPPER.writerFor(EventMessage.class);
+    private static final ObjectReader BATCH_READER = MAPPER.readerFor(new TypeReference<List<EventMessage>>() {});
+
+    private EventMessageCodec() {
+    }
+
+    /**
+     * @return the event as a JSON object, suitable for embedding in a batch with {@link #joinBatch(List)}
+     */
+    public static String encode(BaseEvent event) {
+        try {
+            return EVENT_WRITER.writeValueAsString(EventMessage.of(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to encode event " + event.getEventId(), e);
+        }
+    }
+
+    /**
+     * Joins events previously passed through {@link #encode(BaseEvent)} into one batch document.
+     */
+    public static String joinBatch(List<String> encodedEvents) {
+        return "[" + String.join(",", encodedEvents) + "]";
+    }
+
+    public static byte[] encodeBatch(List<BaseEvent> events) {
+        List<EventMessage> messages = new ArrayList<>(events.size());
+        for (BaseEvent event : events) {
+            messages.add(EventMessage.of(event));
+        }
+        try {
+            return BATCH_WRITER.writeValueAsBytes(messages);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to encode event batch", e);
+        }
+    }
+
+    public static List<BaseEvent> decodeBatch(String batch) {
+        try {
+            return toEvents(BATCH_READER.readValue(batch));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to decode event batch", e);
+        }
+    }
+
+    public static List<BaseEvent> decodeBatch(byte[] batch, int offset, int length) {
+        try {
+            return toEvents(BATCH_READER.readValue(batch, offset, length));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to decode event batch", e);
+        }
+    }
+
+    private static List<BaseEvent> toEvents(List<EventMessage> messages) {
+        List<BaseEvent> events = new ArrayList<>(messages.size());
+        for (EventMessage message : messages) {
+            events.add(message.toEvent());
+        }
+        return events;
+    }
+
+    record EventMessage(
+        UUID eventId,
+        boolean clientEventId,
+        EventType eventType,
+        Instant timestamp,
+        String userHash,
+        ClientInfo clientInfo,
+        SessionInfo session,
+        Metadata metadata,
+        Enrichment enrichment,
+        Map<String, Object> data
+    ) {
+        static EventMessage of(BaseEvent event) {
+            return new EventMessage(event.getEventId(), event.hasClientEventId(), event.getEventType(), event.getTimestamp(),
+                event.getUserHash(), event.getClientInfo(), event.getSession(), event.getMetadata(), event.getEnrichment(),
+                event.getData());
+        }
+
+        BaseEvent toEvent() {
+            return BaseEvent.builder()
+                .eventId(eventId)
+                .clientEventId(clientEventId)
+                .eventType(eventType)
+                .timestamp(timestamp)
+                .userHash(userHash)
+                .clientInfo(clientInfo)
+                .session(session)
+                .metadata(metadata)
+                .enrichment(enrichment)
+                .data(data)
+                .build();
+        }
+    }
+}
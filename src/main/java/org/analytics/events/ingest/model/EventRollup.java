@@ -0,0 +1,13 @@
+package org.analytics.events.ingest.model;
+
+import java.time.Instant;
+
+/**
+ * Number of events of one type and client platform in the minute starting at {@code minute}.
+ */
+public record EventRollup(
+    Instant minute,
+    EventType eventType,
+    String platform,
+    long count
+) {}
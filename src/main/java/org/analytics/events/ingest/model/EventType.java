@@ -1,5 +1,8 @@
 package org.analytics.events.ingest.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+@JsonDeserialize(using = EventTypeDeserializer.class)
 public enum EventType {
     PAGE_VIEW("pageView"),
     USER_ACTION("userAction"),
@@ -23,11 +26,35 @@ public enum EventType {
     }
 
     public static EventType fromValue(String value) {
-        for (EventType type : EventType.values()) {
-            if (type.value.equals(value)) {
-                return type;
-            }
+        EventType type = lookup(value);
+        if (type == null || !type.value.equals(value)) {
+            throw new IllegalArgumentException("Unknown event type: " + value);
+        }
+        return type;
+    }
+
+    /**
+     * Resolves an event type from either its value ({@code pageView}) or its name
+     * ({@code PAGE_VIEW}) without allocating or throwing.
+     *
+     * @return the matching type, or {@code null} if there is none
+     */
+    public static EventType lookup(String value) {
+        if (value == null) {
+            return null;
         }
-        throw new IllegalArgumentException("Unknown event type: " + value);
+        return switch (value) {
+            case "pageView", "PAGE_VIEW" -> PAGE_VIEW;
+            case "userAction", "USER_ACTION" -> USER_ACTION;
+            case "error", "ERROR" -> ERROR;
+            case "formSubmit", "FORM_SUBMIT" -> FORM_SUBMIT;
+            case "apiCall", "API_CALL" -> API_CALL;
+            case "performance", "PERFORMANCE" -> PERFORMANCE;
+            case "featureUsage", "FEATURE_USAGE" -> FEATURE_USAGE;
+            case "userPreference", "USER_PREFERENCE" -> USER_PREFERENCE;
+            case "search", "SEARCH" -> SEARCH;
+            case "authentication", "AUTHENTICATION" -> AUTHENTICATION;
+            default -> null;
+        };
     }
-}
\ No newline at end of file
+}
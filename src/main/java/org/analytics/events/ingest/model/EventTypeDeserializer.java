@@ -0,0 +1,34 @@
+package org.analytics.events.ingest.model;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+/**
+ * Binds {@link EventType} from either its value ({@code pageView}) or its enum name
+ * ({@code PAGE_VIEW}) through {@link EventType#lookup(String)}, instead of Jackson's default
+ * enum handling. Only input matching neither form is reported as an error.
+ */
+public class EventTypeDeserializer extends StdScalarDeserializer<EventType> {
+
+    public EventTypeDeserializer() {
+        super(EventType.class);
+    }
+
+    @Override
+    public EventType deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.hasToken(JsonToken.VALUE_STRING)) {
+            return (EventType) context.handleUnexpectedToken(EventType.class, parser);
+        }
+        String text = parser.getText();
+        EventType type = EventType.lookup(text);
+        if (type == null) {
+            return (EventType) context.handleWeirdStringValue(EventType.class, text,
+                "not one of the event type values or names");
+        }
+        return type;
+    }
+}
@@ -1,46 +1,26 @@
 package org.analytics.events.ingest.model;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
 
-import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
  * JPA AttributeConverter for converting Map<String, Object> to/from JSON.
  * Used for storing flexible key-value data in PostgreSQL jsonb columns.
+ * Maps read from the database are unmodifiable, matching {@link BaseEvent#getData()}.
+ * Serialization is delegated to the shared {@link EventDataJson} codec.
  */
 @Converter
 public class HashMapConverter implements AttributeConverter<Map<String, Object>, String> {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
     @Override
     public String convertToDatabaseColumn(Map<String, Object> attribute) {
-        if (attribute == null || attribute.isEmpty()) {
-            return "{}";
-        }
-        try {
-            return objectMapper.writeValueAsString(attribute);
-        } catch (JsonProcessingException e) {
-            throw new IllegalArgumentException("Error converting Map to JSON", e);
-        }
+        return EventDataJson.toJson(attribute);
     }
 
     @Override
     public Map<String, Object> convertToEntityAttribute(String dbData) {
-        if (dbData == null || dbData.trim().isEmpty()) {
-            return new HashMap<>();
-        }
-        try {
-            return objectMapper.readValue(dbData, new TypeReference<Map<String, Object>>() {});
-        } catch (IOException e) {
-            throw new IllegalArgumentException("Error converting JSON to Map", e);
-        }
+        return EventDataJson.fromJson(dbData);
     }
 }
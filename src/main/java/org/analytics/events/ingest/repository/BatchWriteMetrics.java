@@ -0,0 +1,75 @@
+package org.analytics.events.ingest.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.analytics.events.ingest.model.BaseEvent;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records every batch written to the database: the write time and, measured from the oldest
+ * event's server timestamp, how long the batch waited in whatever buffered it. Both are stages
+ * of {@code ingest.stage.duration}; the batch size goes to {@code ingest.batch.size}.
+ *
+ * <p>Also keeps an exponentially weighted moving average of the write time that load shedding
+ * can read cheaply.</p>
+ */
+@Component
+public class BatchWriteMetrics {
+
+    private static final int SMOOTHING = 5;
+
+    private final Timer writeTimer;
+    private final Timer queueTimer;
+    private final DistributionSummary batchSize;
+    private final AtomicLong averageNanos = new AtomicLong();
+
+    public BatchWriteMetrics(MeterRegistry registry) {
+        this.writeTimer = Timer.builder("ingest.stage.duration")
+            .description("Time spent in each stage of the ingest path")
+            .tag("stage", "db_write")
+            .publishPercentileHistogram()
+            .register(registry);
+        this.queueTimer = Timer.builder("ingest.stage.duration")
+            .description("Time spent in each stage of the ingest path")
+            .tag("stage", "queue_wait")
+            .publishPercentileHistogram()
+            .register(registry);
+        this.batchSize = DistributionSummary.builder("ingest.batch.size")
+            .description("Events per batch")
+            .tag("source", "db_write")
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    /**
+     * Called right before a batch is written.
+     */
+    public void recordQueued(List<BaseEvent> events) {
+        batchSize.record(events.size());
+        Instant oldest = events.getFirst().getTimestamp();
+        long waitedMillis = System.currentTimeMillis() - oldest.toEpochMilli();
+        if (waitedMillis >= 0) {
+            queueTimer.record(waitedMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void recordWrite(long nanos) {
+        writeTimer.record(nanos, TimeUnit.NANOSECONDS);
+        averageNanos.getAndUpdate(average -> average == 0 ? nanos : average + (nanos - average) / SMOOTHING);
+    }
+
+    /**
+     * @return the moving average of recent batch write latencies, zero before the first write
+     */
+    public Duration average() {
+        return Duration.ofNanos(averageNanos.get());
+    }
+}
@@ -0,0 +1,150 @@
+package org.analytics.events.ingest.repository;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.analytics.events.ingest.config.ClientProfileProperties;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.ClientInfo;
+import org.analytics.events.ingest.model.ClientProfile;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * The {@code client_profiles} dimension table: each distinct combination of user agent, locale,
+ * timezone and platform stored once, keyed by a 64-bit hash of those fields. With it, the event
+ * writers store the profile ID in {@code events.client_profile_id} and leave the four text columns
+ * empty; the IP address stays on the event.
+ *
+ * <p>The ID is derived from the content, so every instance computes the same ID without a lookup.
+ * The IDs, keyed by {@link ClientProfile} rather than the whole client info so that clients that
+ * differ only by IP address share an entry, and the IDs already stored are remembered in Caffeine
+ * caches bounded by {@link ClientProfileProperties#cacheSize()}. A profile is thus hashed once
+ * while it stays cached, not once per event when its ID is checked and again when it is bound.</p>
+ */
+@Repository
+@DependsOn({ "entityManagerFactory", "partitionManager" })
+@ConditionalOnProperty(name = "ingest.client-profiles.normalize", havingValue = "true")
+public class ClientProfileRepository {
+
+    static final String NAME = "client_profiles";
+    static final String PROFILE_COLUMN = "client_profile_id";
+
+    private static final String DDL = "CREATE TABLE IF NOT EXISTS " + NAME + " ("
+        + "profile_id bigint NOT NULL PRIMARY KEY, "
+        + "user_agent varchar(255), "
+        + "locale varchar(255), "
+        + "timezone varchar(255), "
+        + "platform varchar(255))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertSql;
+    private final Cache<ClientProfile, Long> ids;
+    private final Cache<Long, Boolean> stored;
+
+    public ClientProfileRepository(JdbcTemplate jdbcTemplate, DataSource dataSource, ClientProfileProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ids = Caffeine.newBuilder()
+            .maximumSize(properties.cacheSize())
+            .build();
+        this.stored = Caffeine.newBuilder()
+            .maximumSize(properties.cacheSize())
+            .build();
+        this.insertSql = SqlDialect.detect(dataSource) == SqlDialect.POSTGRESQL
+            ? "INSERT INTO " + NAME + " (profile_id, user_agent, locale, timezone, platform) VALUES (?, ?, ?, ?, ?)"
+                + " ON CONFLICT DO NOTHING"
+            : "MERGE INTO " + NAME + " t USING (VALUES (?, ?, ?, ?, ?)) AS s (profile_id, user_agent, locale, timezone, platform)"
+                + " ON t.profile_id = s.profile_id"
+                + " WHEN NOT MATCHED THEN INSERT (profile_id, user_agent, locale, timezone, platform)"
+                + " VALUES (s.profile_id, s.user_agent, s.locale, s.timezone, s.platform)";
+    }
+
+    /**
+     * Creates the table and adds {@code client_profile_id} to {@code events}; a nullable column
+     * without default is a catalog-only change.
+     */
+    @PostConstruct
+    void initialize() {
+        jdbcTemplate.execute(DDL);
+        jdbcTemplate.execute("ALTER TABLE " + EventTable.NAME + " ADD COLUMN IF NOT EXISTS " + PROFILE_COLUMN + " bigint");
+    }
+
+    /**
+     * @return the profile of {@code clientInfo}, or {@code null} if it has none of the profile fields
+     */
+    public Long profileId(ClientInfo clientInfo) {
+        ClientProfile profile = ClientProfile.of(clientInfo);
+        return profile == null ? null : ids.get(profile, ClientProfileRepository::hash);
+    }
+
+    /**
+     * Stores the profiles of {@code events} not known to be stored yet. Runs in its own
+     * transaction, so a profile committed here stays even if the events are rolled back; an
+     * unreferenced profile is harmless, a missing one is not.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void ensureStored(List<BaseEvent> events) {
+        Map<Long, ClientProfile> missing = new LinkedHashMap<>();
+        for (BaseEvent event : events) {
+            ClientProfile profile = ClientProfile.of(event.getClientInfo());
+            if (profile == null) {
+                continue;
+            }
+            Long id = ids.get(profile, ClientProfileRepository::hash);
+            if (stored.getIfPresent(id) == null) {
+                missing.putIfAbsent(id, profile);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, ClientProfile>> rows = new ArrayList<>(missing.entrySet());
+        jdbcTemplate.batchUpdate(insertSql, rows, rows.size(), (ps, row) -> {
+            ClientProfile profile = row.getValue();
+            ps.setLong(1, row.getKey());
+            ps.setString(2, profile.userAgent());
+            ps.setString(3, profile.locale());
+            ps.setString(4, profile.timezone());
+            ps.setString(5, profile.platform());
+        });
+        for (Long id : missing.keySet()) {
+            stored.put(id, Boolean.TRUE);
+        }
+    }
+
+    static long hash(ClientProfile profile) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (String field : new String[] { profile.userAgent(), profile.locale(), profile.timezone(),
+                profile.platform() }) {
+            if (field == null) {
+                digest.update((byte) 1);
+            } else {
+                digest.update(field.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+        }
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+}
@@ -0,0 +1,249 @@
+package org.analytics.events.ingest.repository;
+
+import java.io.BufferedWriter;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.ClientInfo;
+import org.analytics.events.ingest.model.Enrichment;
+import org.analytics.events.ingest.model.EventDataJson;
+import org.analytics.events.ingest.model.Metadata;
+import org.analytics.events.ingest.model.SessionInfo;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Streams event batches into the {@code events} table with PostgreSQL's
+ * {@code COPY ... FROM STDIN (FORMAT csv)} protocol.
+ *
+ * <p>Rows are rendered straight from the {@link BaseEvent} objects onto the copy stream; the
+ * {@code data} map is serialized by {@link EventDataJson} directly into its CSV field instead of
+ * going through {@link org.analytics.events.ingest.model.HashMapConverter} and a {@code String}.</p>
+ *
+ * <p>COPY cannot skip conflicting rows, so each batch is copied into a session-local staging
+ * table first and moved over with {@code INSERT ... ON CONFLICT DO NOTHING}. The
+ * staging table empties itself on commit. Client-identified events already recorded in
+ * {@link EventIdRepository} are left out before copying.</p>
+ *
+ * <p>Enabled with {@code ingest.persistence.mode=copy}. On databases other than PostgreSQL
+ * (H2 in the {@code local} profile) it falls back to the {@link JdbcEventBatchWriter}.</p>
+ */
+@Primary
+@Repository
+@ConditionalOnProperty(name = "ingest.persistence.mode", havingValue = "copy")
+public class CopyEventBatchWriter implements EventBatchWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(CopyEventBatchWriter.class);
+
+    private static final String STAGING_TABLE = EventTable.NAME + "_staging";
+    private static final String CREATE_STAGING_SQL = "CREATE TEMPORARY TABLE IF NOT EXISTS " + STAGING_TABLE
+        + " (LIKE " + EventTable.NAME + " INCLUDING DEFAULTS) ON COMMIT DELETE ROWS";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final DataSource dataSource;
+    private final JdbcEventBatchWriter fallback;
+    private final boolean copySupported;
+    private final BatchWriteMetrics writeMetrics;
+    private final ClientProfileRepository profiles;
+    private final EventIdRepository eventIds;
+    private final String copySql;
+    private final String mergeStagingSql;
+
+    public CopyEventBatchWriter(DataSource dataSource, JdbcEventBatchWriter fallback, BatchWriteMetrics writeMetrics,
+            ObjectProvider<ClientProfileRepository> profiles, EventIdRepository eventIds) {
+        this.dataSource = dataSource;
+        this.eventIds = eventIds;
+        this.fallback = fallback;
+        this.writeMetrics = writeMetrics;
+        this.profiles = profiles.getIfAvailable();
+        String columns = String.join(", ", this.profiles == null ? EventTable.COLUMNS : EventTable.PROFILE_COLUMNS);
+        this.copySql = "COPY " + STAGING_TABLE + " (" + columns + ") FROM STDIN WITH (FORMAT csv)";
+        this.mergeStagingSql = "INSERT INTO " + EventTable.NAME + " (" + columns + ") SELECT " + columns
+            + " FROM " + STAGING_TABLE + " ON CONFLICT DO NOTHING";
+        this.copySupported = SqlDialect.detect(dataSource) == SqlDialect.POSTGRESQL;
+        if (!copySupported) {
+            log.info("COPY persistence mode requires PostgreSQL, falling back to batched inserts");
+        }
+    }
+
+    @Override
+    @Transactional
+    public void write(List<BaseEvent> events) {
+        if (!copySupported) {
+            fallback.write(events);
+            return;
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        writeMetrics.recordQueued(events);
+        long start = System.nanoTime();
+        List<BaseEvent> unseen = eventIds.claim(events);
+        if (unseen.isEmpty()) {
+            writeMetrics.recordWrite(System.nanoTime() - start);
+            return;
+        }
+        if (profiles != null) {
+            profiles.ensureStored(unseen);
+        }
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_SQL);
+            }
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new PGCopyOutputStream(pgConnection, copySql, COPY_BUFFER_SIZE), StandardCharsets.UTF_8),
+                    COPY_BUFFER_SIZE)) {
+                for (BaseEvent event : unseen) {
+                    writeRow(out, event);
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(mergeStagingSql);
+            }
+            writeMetrics.recordWrite(System.nanoTime() - start);
+        } catch (SQLException e) {
+            throw new IllegalStateException("COPY into " + EventTable.NAME + " failed", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("COPY into " + EventTable.NAME + " failed", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Renders one event as a CSV record in {@link EventTable#COLUMNS} order, or
+     * {@link EventTable#PROFILE_COLUMNS} order when client profiles are normalized. Unquoted empty
+     * fields are read as {@code NULL} by COPY, so every present value is quoted.
+     */
+    void writeRow(Writer out, BaseEvent event) throws IOException {
+        ClientInfo client = event.getClientInfo();
+        Long profileId = profiles == null ? null : profiles.profileId(client);
+        ClientInfo inline = profileId == null ? client : null;
+        SessionInfo session = event.getSession();
+        Metadata metadata = event.getMetadata();
+        Enrichment enrichment = event.getEnrichment();
+        writeUuid(out, event.getEventId());
+        writeText(out, event.getEventType().name());
+        writeInstant(out, event.getTimestamp());
+        writeText(out, event.getUserHash());
+        writeText(out, inline == null ? null : inline.userAgent());
+        writeText(out, client == null ? null : client.ipAddress());
+        writeText(out, inline == null ? null : inline.locale());
+        writeText(out, inline == null ? null : inline.timezone());
+        writeText(out, inline == null ? null : inline.platform());
+        writeText(out, session == null ? null : session.id());
+        writeInstant(out, session == null ? null : session.startTime());
+        writeText(out, metadata == null ? null : metadata.version());
+        writeText(out, metadata == null ? null : metadata.source());
+        writeText(out, metadata == null ? null : metadata.environment());
+        writeText(out, enrichment == null ? null : enrichment.deviceType());
+        writeText(out, enrichment == null ? null : enrichment.browser());
+        writeText(out, enrichment == null ? null : enrichment.browserVersion());
+        writeText(out, enrichment == null ? null : enrichment.os());
+        writeText(out, enrichment == null ? null : enrichment.osVersion());
+        writeText(out, enrichment == null ? null : enrichment.country());
+        writeJson(out, event.getData());
+        if (profiles != null) {
+            out.write(',');
+            if (profileId != null) {
+                out.write(profileId.toString());
+            }
+        }
+        out.write('\n');
+    }
+
+    private static void writeUuid(Writer out, UUID value) throws IOException {
+        out.write(value.toString());
+        out.write(',');
+    }
+
+    private static void writeInstant(Writer out, Instant value) throws IOException {
+        if (value != null) {
+            out.write(value.toString());
+        }
+        out.write(',');
+    }
+
+    private static void writeText(Writer out, String value) throws IOException {
+        if (value != null) {
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    out.write('"');
+                }
+                out.write(c);
+            }
+            out.write('"');
+        }
+        out.write(',');
+    }
+
+    private static void writeJson(Writer out, Map<String, Object> data) throws IOException {
+        out.write('"');
+        EventDataJson.writeJson(data, new CsvQuotingWriter(out));
+        out.write('"');
+    }
+
+    /**
+     * Doubles every quote character written through it, so Jackson output can be embedded in a
+     * quoted CSV field. Flushes are swallowed: Jackson flushes after every value, which would
+     * otherwise push each row to the server on its own.
+     */
+    private static final class CsvQuotingWriter extends FilterWriter {
+
+        CsvQuotingWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                write(buffer[i]);
+            }
+        }
+
+        @Override
+        public void write(String str, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                write(str.charAt(i));
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
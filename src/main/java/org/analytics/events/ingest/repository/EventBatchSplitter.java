@@ -0,0 +1,84 @@
+package org.analytics.events.ingest.repository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.analytics.events.ingest.model.BaseEvent;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Writes a batch through an {@link EventBatchWriter} and, if the database refuses it, writes it
+ * again in halves until the events it refuses are isolated. A batch holds the events of many
+ * requests, so one event the database cannot store must not cost the others.
+ *
+ * <p>An event counts as refused when it fails on its own and either other events of the batch
+ * were written, or the failure is a data error: an integrity violation or an SQL state of class
+ * {@code 22} or {@code 23}. When every event fails for another reason, the database is taken to
+ * be unavailable and the first failure is rethrown, so that callers able to retry do so.</p>
+ *
+ * <p>Isolating one event out of {@code n} costs about {@code 2 log2(n)} further writes.</p>
+ */
+public final class EventBatchSplitter {
+
+    private EventBatchSplitter() {
+    }
+
+    /**
+     * @return the events the database refused; empty if the whole batch was written
+     * @throws RuntimeException if no event could be written and the failure is not down to the events
+     */
+    public static List<BaseEvent> write(EventBatchWriter writer, List<BaseEvent> events) {
+        try {
+            writer.write(events);
+            return List.of();
+        } catch (RuntimeException e) {
+            List<BaseEvent> refused = new ArrayList<>();
+            boolean[] dataError = new boolean[1];
+            int written = split(writer, events, e, refused, dataError);
+            if (written == 0 && !dataError[0]) {
+                throw e;
+            }
+            return refused;
+        }
+    }
+
+    /**
+     * Writes the halves of a batch that failed with {@code failure}.
+     *
+     * @return the number of events written
+     */
+    private static int split(EventBatchWriter writer, List<BaseEvent> events, RuntimeException failure,
+            List<BaseEvent> refused, boolean[] dataError) {
+        if (events.size() == 1) {
+            refused.add(events.get(0));
+            dataError[0] |= isDataError(failure);
+            return 0;
+        }
+        int written = 0;
+        int middle = events.size() / 2;
+        for (List<BaseEvent> half : List.of(List.copyOf(events.subList(0, middle)),
+                List.copyOf(events.subList(middle, events.size())))) {
+            try {
+                writer.write(half);
+                written += half.size();
+            } catch (RuntimeException e) {
+                written += split(writer, half, e, refused, dataError);
+            }
+        }
+        return written;
+    }
+
+    static boolean isDataError(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && sql.getSQLState() != null
+                    && (sql.getSQLState().startsWith("22") || sql.getSQLState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
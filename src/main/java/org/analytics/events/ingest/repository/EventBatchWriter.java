@@ -0,0 +1,18 @@
+package org.analytics.events.ingest.repository;
+
+import java.util.List;
+
+import org.analytics.events.ingest.model.BaseEvent;
+
+/**
+ * Persists batches of events in bulk, bypassing the per-entity JPA lifecycle.
+ */
+public interface EventBatchWriter {
+
+    /**
+     * Writes all events of the batch to the {@code events} table.
+     *
+     * @param events the events to insert
+     */
+    void write(List<BaseEvent> events);
+}
@@ -0,0 +1,191 @@
+package org.analytics.events.ingest.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.analytics.events.ingest.config.ClientProfileProperties;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.ClientInfo;
+import org.analytics.events.ingest.model.Enrichment;
+import org.analytics.events.ingest.model.EventDataJson;
+import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.model.Metadata;
+import org.analytics.events.ingest.model.SessionInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Reads time windows of the {@code events} table for export, and keeps the export watermark: the
+ * end of the last window exported completely.
+ *
+ * <p>A window is selected by a range on {@code timestamp}, which the partitioned table answers
+ * from the partitions covering the window only. An index on {@code timestamp} serves the same
+ * ranges, and the oldest event, on an unpartitioned table. Rows are streamed with a cursor,
+ * ordered by event type so that the exporter needs one open file at a time. Normalized client profiles are joined
+ * back in, so exported rows look the same either way.</p>
+ */
+@Repository
+@DependsOn({ "entityManagerFactory", "partitionManager" })
+@ConditionalOnProperty(name = "ingest.export.enabled", havingValue = "true")
+public class EventExportRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(EventExportRepository.class);
+
+    static final String WATERMARK_TABLE = "event_export_watermarks";
+
+    private static final String WATERMARK_DDL = "CREATE TABLE IF NOT EXISTS " + WATERMARK_TABLE + " ("
+        + "exporter varchar(64) NOT NULL PRIMARY KEY, "
+        + "exported_until timestamp(6) with time zone NOT NULL)";
+    private static final String WINDOW_SQL = "SELECT " + String.join(", ", EventTable.COLUMNS)
+        + " FROM " + EventTable.NAME + " WHERE timestamp >= ? AND timestamp < ? ORDER BY event_type";
+    private static final List<String> PROFILE_FIELDS = List.of("user_agent", "locale", "timezone", "platform");
+    private static final String PROFILE_WINDOW_SQL = "SELECT " + String.join(", ", EventTable.COLUMNS.stream()
+            .map(column -> PROFILE_FIELDS.contains(column)
+                ? "COALESCE(e." + column + ", p." + column + ") AS " + column
+                : "e." + column)
+            .toList())
+        + " FROM " + EventTable.NAME + " e LEFT JOIN " + ClientProfileRepository.NAME + " p"
+        + " ON p.profile_id = e." + ClientProfileRepository.PROFILE_COLUMN
+        + " WHERE e.timestamp >= ? AND e.timestamp < ? ORDER BY e.event_type";
+    private static final String COUNT_SQL = "SELECT count(*) FROM " + EventTable.NAME
+        + " WHERE timestamp >= ? AND timestamp < ?";
+    private static final String TIMESTAMP_INDEX = EventTable.NAME + "_timestamp";
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+    private final String advanceSql;
+    private final String windowSql;
+
+    public EventExportRepository(DataSource dataSource, ClientProfileProperties clientProfiles) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.windowSql = clientProfiles.normalize() ? PROFILE_WINDOW_SQL : WINDOW_SQL;
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.postgres = SqlDialect.detect(dataSource) == SqlDialect.POSTGRESQL;
+        this.advanceSql = postgres
+            ? "INSERT INTO " + WATERMARK_TABLE + " (exporter, exported_until) VALUES (?, ?)"
+                + " ON CONFLICT (exporter) DO UPDATE SET exported_until = EXCLUDED.exported_until"
+            : "MERGE INTO " + WATERMARK_TABLE + " t USING (VALUES (?, ?)) AS s (exporter, exported_until)"
+                + " ON t.exporter = s.exporter"
+                + " WHEN MATCHED THEN UPDATE SET exported_until = s.exported_until"
+                + " WHEN NOT MATCHED THEN INSERT (exporter, exported_until) VALUES (s.exporter, s.exported_until)";
+    }
+
+    @PostConstruct
+    void initialize() {
+        jdbcTemplate.execute(WATERMARK_DDL);
+        createTimestampIndex();
+    }
+
+    /**
+     * Indexes {@code timestamp}. An unpartitioned PostgreSQL table is indexed concurrently, without
+     * blocking inserts. A partitioned table cannot be: building the index there blocks inserts into
+     * each existing partition while it is built, once, and partitions created later inherit it.
+     */
+    private void createTimestampIndex() {
+        String ddl = "CREATE INDEX IF NOT EXISTS " + TIMESTAMP_INDEX + " ON " + EventTable.NAME + " (timestamp)";
+        if (postgres) {
+            String kind = jdbcTemplate.query("SELECT relkind FROM pg_class WHERE relname = ? AND pg_table_is_visible(oid)",
+                rs -> rs.next() ? rs.getString(1) : null, EventTable.NAME);
+            if ("r".equals(kind)) {
+                ddl = ddl.replace("CREATE INDEX", "CREATE INDEX CONCURRENTLY");
+            }
+        }
+        log.info("Ensuring index {} on {} for exports", TIMESTAMP_INDEX, EventTable.NAME);
+        jdbcTemplate.execute(ddl);
+    }
+
+    /**
+     * @return the end of the last window {@code exporter} exported, or {@code null} if it never ran
+     */
+    public Instant watermark(String exporter) {
+        return jdbcTemplate.query("SELECT exported_until FROM " + WATERMARK_TABLE + " WHERE exporter = ?",
+            rs -> rs.next() ? rs.getObject(1, OffsetDateTime.class).toInstant() : null, exporter);
+    }
+
+    public void advanceWatermark(String exporter, Instant exportedUntil) {
+        jdbcTemplate.update(advanceSql, exporter, EventTable.toOffsetDateTime(exportedUntil));
+    }
+
+    /**
+     * @return the timestamp of the oldest stored event, or {@code null} if there is none
+     */
+    public Instant oldestEventTime() {
+        OffsetDateTime oldest = jdbcTemplate.queryForObject(
+            "SELECT min(timestamp) FROM " + EventTable.NAME, OffsetDateTime.class);
+        return oldest == null ? null : oldest.toInstant();
+    }
+
+    /**
+     * @return the number of events with a timestamp in {@code [from, to)}
+     */
+    public long countWindow(Instant from, Instant to) {
+        Long count = jdbcTemplate.queryForObject(COUNT_SQL, Long.class,
+            EventTable.toOffsetDateTime(from), EventTable.toOffsetDateTime(to));
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Streams the events with a timestamp in {@code [from, to)} to {@code sink}, grouped by event
+     * type. Runs in a read-only transaction, which the PostgreSQL driver needs to use a cursor
+     * instead of loading the whole window.
+     *
+     * @return the number of events read
+     */
+    @Transactional(readOnly = true)
+    public long readWindow(Instant from, Instant to, Consumer<BaseEvent> sink) {
+        long[] count = new long[1];
+        jdbcTemplate.query(windowSql, rs -> {
+            sink.accept(toEvent(rs));
+            count[0]++;
+        }, EventTable.toOffsetDateTime(from), EventTable.toOffsetDateTime(to));
+        return count[0];
+    }
+
+    private static BaseEvent toEvent(ResultSet rs) throws SQLException {
+        OffsetDateTime sessionStart = rs.getObject("start_time", OffsetDateTime.class);
+        String sessionId = rs.getString("id");
+        String version = rs.getString("version");
+        String source = rs.getString("source");
+        String environment = rs.getString("environment");
+        String deviceType = rs.getString("device_type");
+        String browser = rs.getString("browser");
+        String browserVersion = rs.getString("browser_version");
+        String os = rs.getString("os");
+        String osVersion = rs.getString("os_version");
+        String country = rs.getString("country");
+        return BaseEvent.builder()
+            .eventId(rs.getObject("event_id", UUID.class))
+            .eventType(EventType.valueOf(rs.getString("event_type")))
+            .timestamp(rs.getObject("timestamp", OffsetDateTime.class).toInstant())
+            .userHash(rs.getString("user_hash"))
+            .clientInfo(new ClientInfo(rs.getString("user_agent"), rs.getString("ip_address"), rs.getString("locale"),
+                rs.getString("timezone"), rs.getString("platform")))
+            .session(sessionId == null && sessionStart == null
+                ? null
+                : new SessionInfo(sessionId, sessionStart == null ? null : sessionStart.toInstant()))
+            .metadata(version == null && source == null && environment == null
+                ? null
+                : new Metadata(version, source, environment))
+            .enrichment(deviceType == null && browser == null && browserVersion == null && os == null
+                    && osVersion == null && country == null
+                ? null
+                : new Enrichment(deviceType, browser, browserVersion, os, osVersion, country))
+            .data(EventDataJson.fromJson(rs.getString("data")))
+            .build();
+    }
+}
@@ -0,0 +1,116 @@
+package org.analytics.events.ingest.repository;
+
+import java.sql.Array;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.analytics.events.ingest.config.DedupProperties;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * The {@code event_ids} table: every client-chosen event ID stored, keyed by the ID alone.
+ *
+ * <p>The partitioned {@code events} table is keyed by {@code (event_id, timestamp)}, and a client
+ * retry gets a new server timestamp, so the insert's {@code ON CONFLICT DO NOTHING} cannot catch
+ * it there. The batch writers therefore claim the IDs of client-identified events here first, in
+ * the same transaction, and only write the events whose ID was claimed. Server-assigned IDs are
+ * time-ordered UUIDs that only repeat on a spool or SQS replay, which keeps the timestamp and is
+ * caught by the primary key, so they are not recorded.</p>
+ *
+ * <p>Used on PostgreSQL only; elsewhere {@code events} is keyed by {@code event_id} already. IDs
+ * older than {@link DedupProperties#idRetention()} are deleted, which bounds how late a retry can
+ * arrive and still be recognized.</p>
+ */
+@Repository
+@DependsOn("partitionManager")
+public class EventIdRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(EventIdRepository.class);
+
+    static final String NAME = "event_ids";
+
+    private static final String DDL = "CREATE TABLE IF NOT EXISTS " + NAME + " ("
+        + "event_id uuid NOT NULL PRIMARY KEY, "
+        + "claimed_at timestamp(6) with time zone NOT NULL DEFAULT now())";
+    private static final String CLAIM_SQL = "INSERT INTO " + NAME + " (event_id) SELECT unnest(?)"
+        + " ON CONFLICT DO NOTHING RETURNING event_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean supported;
+    private final DedupProperties properties;
+
+    public EventIdRepository(JdbcTemplate jdbcTemplate, DataSource dataSource, DedupProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.supported = SqlDialect.detect(dataSource) == SqlDialect.POSTGRESQL;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    void initialize() {
+        if (supported) {
+            jdbcTemplate.execute(DDL);
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + NAME + "_claimed_at ON " + NAME + " (claimed_at)");
+        }
+    }
+
+    /**
+     * Claims the IDs of the client-identified events in {@code events}. Must run in the
+     * transaction that writes the events, so that a failed write releases its claims.
+     *
+     * @return {@code events} without the client-identified events whose ID was stored before,
+     *         and without repeats of an ID within the batch
+     */
+    public List<BaseEvent> claim(List<BaseEvent> events) {
+        if (!supported) {
+            return events;
+        }
+        List<UUID> ids = new ArrayList<>();
+        for (BaseEvent event : events) {
+            if (event.hasClientEventId()) {
+                ids.add(event.getEventId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return events;
+        }
+        Set<UUID> claimed = new HashSet<>(jdbcTemplate.query(CLAIM_SQL, ps -> {
+            Array array = ps.getConnection().createArrayOf("uuid", ids.toArray());
+            ps.setArray(1, array);
+        }, (rs, row) -> rs.getObject(1, UUID.class)));
+        if (claimed.size() == ids.size()) {
+            return events;
+        }
+        List<BaseEvent> remaining = new ArrayList<>(events.size());
+        for (BaseEvent event : events) {
+            if (!event.hasClientEventId() || claimed.remove(event.getEventId())) {
+                remaining.add(event);
+            }
+        }
+        log.debug("Dropped {} events whose ID was stored before", events.size() - remaining.size());
+        return remaining;
+    }
+
+    @Scheduled(initialDelayString = "${ingest.partitions.check-interval:1h}",
+        fixedDelayString = "${ingest.partitions.check-interval:1h}")
+    public void expire() {
+        if (supported) {
+            int deleted = jdbcTemplate.update("DELETE FROM " + NAME + " WHERE claimed_at < ?",
+                EventTable.toOffsetDateTime(Instant.now().minus(properties.idRetention())));
+            log.debug("Expired {} client event IDs", deleted);
+        }
+    }
+}
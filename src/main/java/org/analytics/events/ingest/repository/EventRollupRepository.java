@@ -0,0 +1,76 @@
+package org.analytics.events.ingest.repository;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.analytics.events.ingest.model.EventRollup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * The {@code event_rollups} table: event counts per minute, event type and platform, for dashboards
+ * that would otherwise group the raw {@code events} table.
+ *
+ * <p>Rows are only ever incremented, so every instance adds the counts it gathered since its
+ * last flush and the table holds the total across instances.</p>
+ */
+@Repository
+public class EventRollupRepository {
+
+    static final String NAME = "event_rollups";
+
+    private static final String DDL = "CREATE TABLE IF NOT EXISTS " + NAME + " ("
+        + "bucket_start timestamp(6) with time zone NOT NULL, "
+        + "event_type varchar(255) NOT NULL, "
+        + "platform varchar(255) NOT NULL, "
+        + "event_count bigint NOT NULL, "
+        + "PRIMARY KEY (bucket_start, event_type, platform))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String upsertSql;
+
+    public EventRollupRepository(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.upsertSql = upsertSql(SqlDialect.detect(dataSource));
+    }
+
+    private static String upsertSql(SqlDialect dialect) {
+        if (dialect == SqlDialect.POSTGRESQL) {
+            return "INSERT INTO " + NAME + " (bucket_start, event_type, platform, event_count) VALUES (?, ?, ?, ?)"
+                + " ON CONFLICT (bucket_start, event_type, platform)"
+                + " DO UPDATE SET event_count = " + NAME + ".event_count + EXCLUDED.event_count";
+        }
+        return "MERGE INTO " + NAME + " t USING (VALUES (?, ?, ?, ?)) AS s (bucket_start, event_type, platform, event_count)"
+            + " ON t.bucket_start = s.bucket_start AND t.event_type = s.event_type AND t.platform = s.platform"
+            + " WHEN MATCHED THEN UPDATE SET event_count = t.event_count + s.event_count"
+            + " WHEN NOT MATCHED THEN INSERT (bucket_start, event_type, platform, event_count)"
+            + " VALUES (s.bucket_start, s.event_type, s.platform, s.event_count)";
+    }
+
+    @PostConstruct
+    void createTable() {
+        jdbcTemplate.execute(DDL);
+    }
+
+    /**
+     * Adds each rollup's count to its row, creating the row if needed.
+     */
+    @Transactional
+    public void increment(List<EventRollup> rollups) {
+        if (rollups.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(upsertSql, rollups, rollups.size(), (ps, rollup) -> {
+            ps.setObject(1, OffsetDateTime.ofInstant(rollup.minute(), ZoneOffset.UTC));
+            ps.setString(2, rollup.eventType().name());
+            ps.setString(3, rollup.platform());
+            ps.setLong(4, rollup.count());
+        });
+    }
+}
@@ -0,0 +1,132 @@
+package org.analytics.events.ingest.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.ClientInfo;
+import org.analytics.events.ingest.model.Enrichment;
+import org.analytics.events.ingest.model.EventDataJson;
+import org.analytics.events.ingest.model.Metadata;
+import org.analytics.events.ingest.model.SessionInfo;
+
+/**
+ * Column layout of the {@code events} table as mapped by {@link BaseEvent}, including the
+ * flattened {@link ClientInfo}, {@link SessionInfo}, {@link Metadata} and {@link Enrichment}
+ * embeddables.
+ * Kept in one place so that every bulk path writes exactly what JPA would.
+ */
+final class EventTable {
+
+    static final String NAME = "events";
+
+    static final List<String> COLUMNS = List.of(
+        "event_id", "event_type", "timestamp", "user_hash",
+        "user_agent", "ip_address", "locale", "timezone", "platform",
+        "id", "start_time",
+        "version", "source", "environment",
+        "device_type", "browser", "browser_version", "os", "os_version", "country",
+        "data");
+
+    /**
+     * {@link #COLUMNS} followed by {@code client_profile_id}, written when client profiles are
+     * normalized into {@link ClientProfileRepository}.
+     */
+    static final List<String> PROFILE_COLUMNS = Stream.concat(COLUMNS.stream(),
+        Stream.of(ClientProfileRepository.PROFILE_COLUMN)).toList();
+
+    private EventTable() {
+    }
+
+    /**
+     * @return an insert binding {@link #COLUMNS} in order that skips events whose ID is already
+     *         stored, so retried events are written at most once without reading first.
+     *         On PostgreSQL no conflict target is named, so the same statement works against the
+     *         partitioned table, keyed by {@code (event_id, timestamp)}, and a legacy one keyed by
+     *         {@code event_id}. On the partitioned table events replayed from the spool or SQS keep
+     *         their timestamp and are caught; a client retry gets a new server timestamp and is
+     *         removed from the batch beforehand by {@link EventIdRepository#claim(List)}.
+     */
+    static String insertSql(SqlDialect dialect) {
+        return insertSql(dialect, COLUMNS);
+    }
+
+    /**
+     * @return {@link #insertSql(SqlDialect)} for the given column list
+     */
+    static String insertSql(SqlDialect dialect, List<String> columnList) {
+        String columns = String.join(", ", columnList);
+        String placeholders = String.join(", ", Collections.nCopies(columnList.size(), "?"));
+        if (dialect == SqlDialect.POSTGRESQL) {
+            return "INSERT INTO " + NAME + " (" + columns + ") VALUES (" + placeholders + ")"
+                + " ON CONFLICT DO NOTHING";
+        }
+        String sourceColumns = String.join(", ", columnList.stream().map(column -> "s." + column).toList());
+        return "MERGE INTO " + NAME + " t USING (VALUES (" + placeholders + ")) AS s (" + columns + ")"
+            + " ON t.event_id = s.event_id"
+            + " WHEN NOT MATCHED THEN INSERT (" + columns + ") VALUES (" + sourceColumns + ")";
+    }
+
+    /**
+     * Binds one event in {@link #COLUMNS} order. On PostgreSQL the {@code data} map is sent as a
+     * {@code jsonb} typed object, elsewhere as plain JSON text.
+     */
+    static void bind(PreparedStatement ps, BaseEvent event, SqlDialect dialect) throws SQLException {
+        bind(ps, event, dialect, null);
+    }
+
+    /**
+     * Binds one event in {@link #PROFILE_COLUMNS} order if {@code profiles} is given: an event
+     * with a client profile gets its ID, and its user agent, locale, timezone and platform are left
+     * {@code NULL}.
+     */
+    static void bind(PreparedStatement ps, BaseEvent event, SqlDialect dialect, ClientProfileRepository profiles)
+            throws SQLException {
+        ClientInfo client = event.getClientInfo();
+        Long profileId = profiles == null ? null : profiles.profileId(client);
+        ClientInfo inline = profileId == null ? client : null;
+        SessionInfo session = event.getSession();
+        Metadata metadata = event.getMetadata();
+        Enrichment enrichment = event.getEnrichment();
+        int i = 1;
+        ps.setObject(i++, event.getEventId());
+        ps.setString(i++, event.getEventType().name());
+        ps.setObject(i++, toOffsetDateTime(event.getTimestamp()));
+        ps.setString(i++, event.getUserHash());
+        ps.setString(i++, inline == null ? null : inline.userAgent());
+        ps.setString(i++, client == null ? null : client.ipAddress());
+        ps.setString(i++, inline == null ? null : inline.locale());
+        ps.setString(i++, inline == null ? null : inline.timezone());
+        ps.setString(i++, inline == null ? null : inline.platform());
+        ps.setString(i++, session == null ? null : session.id());
+        ps.setObject(i++, session == null ? null : toOffsetDateTime(session.startTime()), Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setString(i++, metadata == null ? null : metadata.version());
+        ps.setString(i++, metadata == null ? null : metadata.source());
+        ps.setString(i++, metadata == null ? null : metadata.environment());
+        ps.setString(i++, enrichment == null ? null : enrichment.deviceType());
+        ps.setString(i++, enrichment == null ? null : enrichment.browser());
+        ps.setString(i++, enrichment == null ? null : enrichment.browserVersion());
+        ps.setString(i++, enrichment == null ? null : enrichment.os());
+        ps.setString(i++, enrichment == null ? null : enrichment.osVersion());
+        ps.setString(i++, enrichment == null ? null : enrichment.country());
+        if (dialect == SqlDialect.POSTGRESQL) {
+            ps.setObject(i++, EventDataJson.toJsonb(event.getData()));
+        } else {
+            ps.setString(i++, EventDataJson.toJson(event.getData()));
+        }
+        if (profiles != null) {
+            ps.setObject(i, profileId, Types.BIGINT);
+        }
+    }
+
+    static OffsetDateTime toOffsetDateTime(Instant instant) {
+        return instant == null ? null : instant.atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,248 @@
+package org.analytics.events.ingest.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.analytics.events.ingest.config.PartitionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Owns the {@code events} table on PostgreSQL, where it is range-partitioned on {@code timestamp}.
+ *
+ * <p>On startup the partitioned parent table is created if missing, together with a default
+ * partition that catches rows outside every range. After that, and then every
+ * {@link PartitionProperties#checkInterval()}, partitions are created for the current and the next
+ * {@link PartitionProperties#premake()} intervals, and partitions older than the retention are
+ * dropped or detached as a whole instead of deleting rows.</p>
+ *
+ * <p>Rows that arrive for a range without partition, such as late events replayed from the spool,
+ * land in the default partition, and PostgreSQL refuses to create a partition for a range the
+ * default partition has rows in. Such a partition is therefore built as a plain table, the rows
+ * are moved into it, and it is attached, all in one transaction. Rows in the default partition
+ * older than the retention get their partition the same way, so they expire with it.</p>
+ *
+ * <p>Inserts keep targeting {@code events}; PostgreSQL routes every row to its partition. Because
+ * the partition key has to be part of every unique index, the primary key is
+ * {@code (event_id, timestamp)}.</p>
+ *
+ * <p>Does nothing on other databases, where JPA creates a plain table. An existing unpartitioned
+ * {@code events} table is left alone, with a warning, since converting it means rewriting it.</p>
+ */
+@Component
+public class PartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionManager.class);
+
+    private static final String PARENT_DDL = "CREATE TABLE IF NOT EXISTS " + EventTable.NAME + " ("
+        + "event_id uuid NOT NULL, "
+        + "event_type varchar(255) NOT NULL, "
+        + "timestamp timestamp(6) with time zone NOT NULL, "
+        + "user_hash varchar(255), "
+        + "user_agent varchar(255), "
+        + "ip_address varchar(255), "
+        + "locale varchar(255), "
+        + "timezone varchar(255), "
+        + "platform varchar(255), "
+        + "id varchar(255), "
+        + "start_time timestamp(6) with time zone, "
+        + "version varchar(255), "
+        + "source varchar(255), "
+        + "environment varchar(255), "
+        + "device_type varchar(255), "
+        + "browser varchar(255), "
+        + "browser_version varchar(255), "
+        + "os varchar(255), "
+        + "os_version varchar(255), "
+        + "country varchar(255), "
+        + "data jsonb, "
+        + "PRIMARY KEY (event_id, timestamp)"
+        + ") PARTITION BY RANGE (timestamp)";
+    /**
+     * Brings a table created before events were enriched up to date. Nullable columns without
+     * default are a catalog-only change, even on a large table.
+     */
+    private static final String ADD_ENRICHMENT_COLUMNS = "ALTER TABLE " + EventTable.NAME
+        + " ADD COLUMN IF NOT EXISTS device_type varchar(255),"
+        + " ADD COLUMN IF NOT EXISTS browser varchar(255),"
+        + " ADD COLUMN IF NOT EXISTS browser_version varchar(255),"
+        + " ADD COLUMN IF NOT EXISTS os varchar(255),"
+        + " ADD COLUMN IF NOT EXISTS os_version varchar(255),"
+        + " ADD COLUMN IF NOT EXISTS country varchar(255)";
+    private static final String DEFAULT_PARTITION = EventTable.NAME + "_default";
+    private static final String PARTITION_PREFIX = EventTable.NAME + "_p";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PartitionProperties properties;
+    private final boolean supported;
+    private final ChronoUnit unit;
+    private final DateTimeFormatter suffixFormat;
+    private final String truncateUnit;
+    private volatile boolean managed;
+
+    public PartitionManager(JdbcTemplate jdbcTemplate, DataSource dataSource, PartitionProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.supported = SqlDialect.detect(dataSource) == SqlDialect.POSTGRESQL;
+        this.unit = properties.interval() == PartitionProperties.Interval.HOURLY ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        this.suffixFormat = DateTimeFormatter.ofPattern(unit == ChronoUnit.HOURS ? "yyyyMMddHH" : "yyyyMMdd")
+            .withZone(ZoneOffset.UTC);
+        this.truncateUnit = unit == ChronoUnit.HOURS ? "hour" : "day";
+    }
+
+    @PostConstruct
+    void initialize() {
+        if (!supported) {
+            log.info("Table partitioning requires PostgreSQL, keeping a plain {} table", EventTable.NAME);
+            return;
+        }
+        String kind = jdbcTemplate.query("SELECT relkind FROM pg_class WHERE relname = ? AND pg_table_is_visible(oid)",
+            rs -> rs.next() ? rs.getString(1) : null, EventTable.NAME);
+        if (kind != null) {
+            jdbcTemplate.execute(ADD_ENRICHMENT_COLUMNS);
+        }
+        if ("r".equals(kind)) {
+            log.warn("{} exists as an unpartitioned table; partition management is disabled until it is migrated",
+                EventTable.NAME);
+            return;
+        }
+        jdbcTemplate.execute(PARENT_DDL);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION
+            + " PARTITION OF " + EventTable.NAME + " DEFAULT");
+        managed = true;
+        maintain();
+    }
+
+    /**
+     * Creates the upcoming partitions and expires old ones.
+     */
+    @Scheduled(initialDelayString = "${ingest.partitions.check-interval:1h}",
+        fixedDelayString = "${ingest.partitions.check-interval:1h}")
+    public void maintain() {
+        if (!managed) {
+            return;
+        }
+        Instant current = Instant.now().truncatedTo(unit);
+        for (int i = 0; i <= properties.premake(); i++) {
+            createPartition(current.plus(i, unit));
+        }
+        if (!properties.retention().isZero()) {
+            Instant cutoff = Instant.now().minus(properties.retention());
+            partitionExpiredDefaultRows(cutoff);
+            expirePartitions(cutoff);
+        }
+    }
+
+    private void createPartition(Instant start) {
+        Instant end = start.plus(1, unit);
+        String name = partitionName(start);
+        try {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?::text) IS NOT NULL",
+                    Boolean.class, name))) {
+                return;
+            }
+            Boolean stranded = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION
+                + " WHERE timestamp >= ? AND timestamp < ?)", Boolean.class,
+                EventTable.toOffsetDateTime(start), EventTable.toOffsetDateTime(end));
+            if (Boolean.TRUE.equals(stranded)) {
+                jdbcTemplate.execute(movingPartitionSql(name, start, end));
+                log.info("Created partition {} from rows in {}", name, DEFAULT_PARTITION);
+            } else {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + EventTable.NAME
+                    + " FOR VALUES FROM ('" + start + "') TO ('" + end + "')");
+            }
+        } catch (DataAccessException e) {
+            log.error("Could not create partition {}; rows for its range go to {}", name, DEFAULT_PARTITION, e);
+        }
+    }
+
+    /**
+     * @return a block that, as one transaction, moves the rows of a range out of the default
+     *         partition into a new table and attaches that as the partition of the range. The
+     *         default partition is locked against inserts first, so no row for the range can
+     *         arrive between the move and the attach.
+     */
+    static String movingPartitionSql(String name, Instant start, Instant end) {
+        String range = "timestamp >= '" + start + "' AND timestamp < '" + end + "'";
+        return "DO $$ BEGIN "
+            + "LOCK TABLE " + DEFAULT_PARTITION + " IN SHARE ROW EXCLUSIVE MODE; "
+            + "CREATE TABLE " + name + " (LIKE " + EventTable.NAME + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS); "
+            + "WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " WHERE " + range + " RETURNING *)"
+            + " INSERT INTO " + name + " SELECT * FROM moved; "
+            + "ALTER TABLE " + EventTable.NAME + " ATTACH PARTITION " + name
+            + " FOR VALUES FROM ('" + start + "') TO ('" + end + "'); "
+            + "END $$";
+    }
+
+    /**
+     * Gives every range that is entirely older than {@code cutoff} and still has rows in the
+     * default partition its own partition, which {@link #expirePartitions(Instant)} then drops or
+     * detaches like any other.
+     */
+    private void partitionExpiredDefaultRows(Instant cutoff) {
+        List<Instant> starts = jdbcTemplate.query("SELECT DISTINCT date_trunc('" + truncateUnit + "', timestamp, 'UTC')"
+            + " FROM " + DEFAULT_PARTITION + " WHERE timestamp < ?",
+            (rs, row) -> rs.getObject(1, OffsetDateTime.class).toInstant(),
+            EventTable.toOffsetDateTime(cutoff.truncatedTo(unit)));
+        for (Instant start : starts) {
+            createPartition(start);
+        }
+    }
+
+    private void expirePartitions(Instant cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid"
+                + " WHERE i.inhparent = ?::regclass", String.class, EventTable.NAME);
+        for (String partition : partitions) {
+            Instant start = partitionStart(partition);
+            if (start == null || start.plus(1, unit).isAfter(cutoff)) {
+                continue;
+            }
+            if (properties.retentionAction() == PartitionProperties.RetentionAction.DETACH) {
+                jdbcTemplate.execute("ALTER TABLE " + EventTable.NAME + " DETACH PARTITION " + partition);
+                log.info("Detached expired partition {}", partition);
+            } else {
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                log.info("Dropped expired partition {}", partition);
+            }
+        }
+    }
+
+    String partitionName(Instant start) {
+        return PARTITION_PREFIX + suffixFormat.format(start);
+    }
+
+    /**
+     * @return the start of the range covered by a partition of the configured interval, or
+     *         {@code null} for the default partition and anything not named by this manager
+     */
+    Instant partitionStart(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        String suffix = partition.substring(PARTITION_PREFIX.length());
+        try {
+            if (unit == ChronoUnit.HOURS) {
+                return LocalDateTime.parse(suffix, suffixFormat).toInstant(ZoneOffset.UTC);
+            }
+            return LocalDate.parse(suffix, suffixFormat).atStartOfDay().toInstant(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
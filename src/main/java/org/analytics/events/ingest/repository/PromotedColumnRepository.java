@@ -0,0 +1,115 @@
+package org.analytics.events.ingest.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Typed columns of the {@code events} table generated by PostgreSQL from keys of the {@code data}
+ * map, named {@code data_<key>}. Being generated, they need no change to any writer, and a value
+ * of an unexpected type becomes {@code NULL} rather than failing the insert.
+ *
+ * <p>Keys come from clients, so only keys made of letters, digits, {@code _}, {@code .} and
+ * {@code -} are promoted. Different keys can map to the same column name, such as {@code a.b},
+ * {@code a-b} and {@code A_b}; the key a column was generated from is therefore read back from its
+ * generation expression, and adding a column that exists fails instead of being skipped.</p>
+ */
+@Repository
+@ConditionalOnProperty(name = "ingest.schema.promote-columns", havingValue = "true")
+public class PromotedColumnRepository {
+
+    public enum ColumnType {
+        TEXT("text", "string", "data->>'%s'"),
+        NUMERIC("numeric", "number", "(data->>'%s')::numeric"),
+        BOOLEAN("boolean", "boolean", "(data->>'%s')::boolean");
+
+        private final String sqlType;
+        private final String jsonType;
+        private final String extraction;
+
+        ColumnType(String sqlType, String jsonType, String extraction) {
+            this.sqlType = sqlType;
+            this.jsonType = jsonType;
+            this.extraction = extraction;
+        }
+    }
+
+    static final String PREFIX = "data_";
+    private static final Pattern PROMOTABLE_KEY = Pattern.compile("[A-Za-z0-9_.\\-]{1,58}");
+    private static final Pattern GENERATED_KEY = Pattern.compile("data -> '([^']*)'");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean supported;
+
+    public PromotedColumnRepository(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.supported = SqlDialect.detect(dataSource) == SqlDialect.POSTGRESQL;
+    }
+
+    /**
+     * @return whether the database can generate columns from {@code data}; only PostgreSQL can
+     */
+    public boolean isSupported() {
+        return supported;
+    }
+
+    /**
+     * @return the column a key is promoted to, or {@code null} if the key cannot be promoted
+     */
+    public static String columnName(String key) {
+        if (!PROMOTABLE_KEY.matcher(key).matches()) {
+            return null;
+        }
+        return PREFIX + key.toLowerCase().replace('.', '_').replace('-', '_');
+    }
+
+    /**
+     * @return the generated {@code data_} columns that exist, each with the key it is generated
+     *         from, or {@code null} if that cannot be told from its expression
+     */
+    public Map<String, String> promotedColumns() {
+        Map<String, String> columns = new HashMap<>();
+        jdbcTemplate.query("SELECT column_name, generation_expression FROM information_schema.columns WHERE table_name = ?"
+            + " AND table_schema = current_schema() AND is_generated = 'ALWAYS' AND column_name LIKE 'data\\_%'",
+            rs -> {
+                columns.put(rs.getString(1), generatedKey(rs.getString(2)));
+            }, EventTable.NAME);
+        return columns;
+    }
+
+    /**
+     * @return the key read by a generation expression as PostgreSQL reports it, for example
+     *         {@code CASE WHEN (jsonb_typeof((data -> 'page'::text)) = 'string'::text) ...}
+     */
+    static String generatedKey(String expression) {
+        if (expression == null) {
+            return null;
+        }
+        Matcher matcher = GENERATED_KEY.matcher(expression);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Adds the generated column for {@code key}. On a partitioned table this recurses into every
+     * partition and rewrites them, holding an exclusive lock meanwhile.
+     *
+     * @throws IllegalArgumentException if the key cannot be promoted
+     * @throws org.springframework.dao.DataAccessException if the column exists already
+     */
+    public void add(String key, ColumnType type) {
+        String column = columnName(key);
+        if (column == null) {
+            throw new IllegalArgumentException("Key cannot be promoted: " + key);
+        }
+        jdbcTemplate.execute("ALTER TABLE " + EventTable.NAME + " ADD COLUMN " + column + " " + type.sqlType
+            + " GENERATED ALWAYS AS (CASE WHEN jsonb_typeof(data->'" + key + "') = '" + type.jsonType + "'"
+            + " THEN " + type.extraction.formatted(key) + " END) STORED");
+    }
+}
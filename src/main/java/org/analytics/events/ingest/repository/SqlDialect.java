@@ -0,0 +1,24 @@
+package org.analytics.events.ingest.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+/**
+ * The database flavours the bulk writers distinguish between. PostgreSQL is the production
+ * target; everything else (H2 in the {@code local} profile) gets portable SQL.
+ */
+public enum SqlDialect {
+    POSTGRESQL,
+    GENERIC;
+
+    public static SqlDialect detect(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            return "PostgreSQL".equalsIgnoreCase(product) ? POSTGRESQL : GENERIC;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to detect database dialect", e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.analytics.events.ingest.service;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.analytics.events.ingest.config.SchemaProperties;
+import org.analytics.events.ingest.repository.PromotedColumnRepository;
+import org.analytics.events.ingest.repository.PromotedColumnRepository.ColumnType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns promotion candidates of the {@link DataSchemaTracker} into typed columns, up to
+ * {@link SchemaProperties#maxPromotedColumns()}. Adding a column rewrites every partition of the
+ * table under an exclusive lock, so nothing is promoted unattended: the pending candidates are
+ * reported at {@code /manage/schema} and an operator promotes them one at a time from there.
+ * Columns are never dropped automatically.
+ *
+ * <p>A candidate whose column name is already taken, by an existing column generated from another
+ * key or by a candidate listed before it, is not offered and cannot be promoted; it stays in the
+ * {@code data} column.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "ingest.schema.promote-columns", havingValue = "true")
+public class DataKeyPromoter {
+
+    private static final Logger log = LoggerFactory.getLogger(DataKeyPromoter.class);
+
+    private final DataSchemaTracker tracker;
+    private final PromotedColumnRepository columns;
+    private final SchemaProperties properties;
+
+    public DataKeyPromoter(DataSchemaTracker tracker, PromotedColumnRepository columns, SchemaProperties properties) {
+        this.tracker = tracker;
+        this.columns = columns;
+        this.properties = properties;
+        if (!columns.isSupported()) {
+            log.info("Promoting data keys to columns requires PostgreSQL, keys stay in the data column");
+        }
+    }
+
+    public boolean isSupported() {
+        return columns.isSupported();
+    }
+
+    /**
+     * @return the generated {@code data_} columns that exist, with the key each is generated from
+     */
+    public Map<String, String> promotedColumns() {
+        return columns.isSupported() ? columns.promotedColumns() : Map.of();
+    }
+
+    /**
+     * @return the candidates that are not promoted yet, by key, with the column each would become;
+     *         empty once {@link SchemaProperties#maxPromotedColumns()} columns exist
+     */
+    public Map<String, String> pending() {
+        Map<String, String> pending = new LinkedHashMap<>();
+        if (!columns.isSupported()) {
+            return pending;
+        }
+        Map<String, String> existing = columns.promotedColumns();
+        Set<String> taken = new HashSet<>(existing.keySet());
+        int free = properties.maxPromotedColumns() - existing.size();
+        for (String key : tracker.promotionCandidates().keySet()) {
+            if (pending.size() >= free) {
+                break;
+            }
+            String column = PromotedColumnRepository.columnName(key);
+            if (column == null) {
+                continue;
+            }
+            if (taken.add(column)) {
+                pending.put(key, column);
+            } else if (!key.equals(existing.get(column))) {
+                log.debug("Data key {} is not offered for promotion, its column {} is taken", key, column);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Adds the generated column for a pending candidate. Blocks until the table is rewritten.
+     *
+     * @return the column added
+     * @throws IllegalArgumentException if {@code key} is not a pending candidate, or its column
+     *         name is taken by another key
+     */
+    public String promote(String key) {
+        DataSchemaTracker.ValueType type = tracker.promotionCandidates().get(key);
+        String column = pending().get(key);
+        if (type == null || column == null) {
+            throw new IllegalArgumentException(notPending(key));
+        }
+        log.info("Promoting data key {} to {} column {}, rewriting the events table", key, type, column);
+        columns.add(key, columnType(type));
+        log.info("Promoted data key {} to {} column {}", key, type, column);
+        return column;
+    }
+
+    /**
+     * @return why {@code key} is not pending, naming the key that took its column if there is one
+     */
+    private String notPending(String key) {
+        String column = PromotedColumnRepository.columnName(key);
+        if (column != null) {
+            Map<String, String> existing = columns.promotedColumns();
+            if (existing.containsKey(column) && !key.equals(existing.get(column))) {
+                return "Column " + column + " is already generated from data key " + existing.get(column);
+            }
+            for (Map.Entry<String, String> pending : pending().entrySet()) {
+                if (pending.getValue().equals(column)) {
+                    return "Column " + column + " is taken by data key " + pending.getKey();
+                }
+            }
+        }
+        return "Key is not a pending promotion candidate: " + key;
+    }
+
+    private static ColumnType columnType(DataSchemaTracker.ValueType type) {
+        return switch (type) {
+            case NUMBER -> ColumnType.NUMERIC;
+            case BOOLEAN -> ColumnType.BOOLEAN;
+            default -> ColumnType.TEXT;
+        };
+    }
+}
@@ -0,0 +1,253 @@
+package org.analytics.events.ingest.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.analytics.events.ingest.config.SchemaProperties;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.EventType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Infers the shape of the {@code data} map per {@link EventType} from a sample of accepted
+ * events: how often each key occurs and which JSON types its values have.
+ *
+ * <p>The summary is kept compact: only a fraction of events is inspected, each type tracks a
+ * bounded number of keys, and each key holds one {@link LongAdder} per value type. Recording
+ * therefore costs nothing for most events and a few uncontended increments for the sampled ones.</p>
+ *
+ * <p>The tracked keys of a type are chosen by the Space-Saving algorithm: once the limit is
+ * reached, a new key replaces the key with the lowest estimated count and takes over that count as
+ * its possible overestimate. Any key occurring in more than {@code 1 / maxKeysPerType} of the
+ * sampled events is therefore tracked, however many one-off keys came first. Frequencies are
+ * reported from the occurrences counted since the key was last admitted, so they never
+ * overstate.</p>
+ */
+@Component
+public class DataSchemaTracker {
+
+    /**
+     * JSON type of a value, as far as a column type is concerned.
+     */
+    public enum ValueType {
+        STRING, NUMBER, BOOLEAN, OBJECT, ARRAY, NULL;
+
+        static ValueType of(Object value) {
+            return switch (value) {
+                case null -> NULL;
+                case String _ -> STRING;
+                case Number _ -> NUMBER;
+                case Boolean _ -> BOOLEAN;
+                case Map<?, ?> _ -> OBJECT;
+                case Collection<?> _ -> ARRAY;
+                default -> STRING;
+            };
+        }
+
+        /**
+         * @return whether values of this type can live in a typed column
+         */
+        public boolean isScalar() {
+            return this == STRING || this == NUMBER || this == BOOLEAN;
+        }
+    }
+
+    /**
+     * @param key the key in the {@code data} map
+     * @param samples sampled events containing the key
+     * @param frequency share of sampled events of the type containing the key
+     * @param type the most common value type
+     * @param typeConsistency share of values having {@code type}
+     */
+    public record KeySchema(String key, long samples, double frequency, ValueType type, double typeConsistency) {}
+
+    /**
+     * @param sampledEvents events of the type inspected so far
+     * @param untrackedKeys occurrences counted for keys that were evicted again
+     * @param keys tracked keys, most frequent first
+     */
+    public record TypeSchema(long sampledEvents, long untrackedKeys, List<KeySchema> keys) {}
+
+    private static final EventType[] TYPES = EventType.values();
+    private static final ValueType[] VALUE_TYPES = ValueType.values();
+
+    private final SchemaProperties properties;
+    private final TypeStats[] stats = new TypeStats[TYPES.length];
+
+    public DataSchemaTracker(SchemaProperties properties) {
+        this.properties = properties;
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new TypeStats();
+        }
+    }
+
+    /**
+     * Samples a batch the pipeline has accepted.
+     */
+    public void record(List<BaseEvent> events) {
+        if (!properties.enabled()) {
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (BaseEvent event : events) {
+            if (random.nextDouble() < properties.sampleRate()) {
+                record(stats[event.getEventType().ordinal()], event.getData());
+            }
+        }
+    }
+
+    private void record(TypeStats type, Map<String, Object> data) {
+        type.sampled.increment();
+        if (data == null) {
+            return;
+        }
+        data.forEach((key, value) -> {
+            KeyStats keyStats = type.keys.get(key);
+            if (keyStats == null) {
+                keyStats = admit(type, key);
+            }
+            keyStats.types[ValueType.of(value).ordinal()].increment();
+        });
+    }
+
+    /**
+     * Starts tracking {@code key}, evicting the key with the lowest estimated count if the type
+     * tracks the maximum already. Only new keys take the lock, and with it the linear scan for
+     * the minimum; keys already tracked are counted without it.
+     */
+    private KeyStats admit(TypeStats type, String key) {
+        synchronized (type) {
+            KeyStats keyStats = type.keys.get(key);
+            if (keyStats != null) {
+                return keyStats;
+            }
+            long overestimate = 0;
+            if (type.keys.size() >= properties.maxKeysPerType()) {
+                Map.Entry<String, KeyStats> least = null;
+                for (Map.Entry<String, KeyStats> entry : type.keys.entrySet()) {
+                    if (least == null || entry.getValue().estimate() < least.getValue().estimate()) {
+                        least = entry;
+                    }
+                }
+                type.keys.remove(least.getKey());
+                overestimate = least.getValue().estimate();
+                type.untracked.add(least.getValue().count());
+            }
+            keyStats = new KeyStats(overestimate);
+            type.keys.put(key, keyStats);
+            return keyStats;
+        }
+    }
+
+    /**
+     * @return the inferred schema of every event type seen so far
+     */
+    public Map<EventType, TypeSchema> schema() {
+        Map<EventType, TypeSchema> schema = new LinkedHashMap<>();
+        for (EventType type : TYPES) {
+            TypeSchema typeSchema = schema(type);
+            if (typeSchema.sampledEvents() > 0) {
+                schema.put(type, typeSchema);
+            }
+        }
+        return schema;
+    }
+
+    public TypeSchema schema(EventType type) {
+        TypeStats typeStats = stats[type.ordinal()];
+        long sampled = typeStats.sampled.sum();
+        List<KeySchema> keys = new ArrayList<>(typeStats.keys.size());
+        typeStats.keys.forEach((key, keyStats) -> keys.add(keyStats.toSchema(key, sampled)));
+        keys.sort(Comparator.comparingLong(KeySchema::samples).reversed().thenComparing(KeySchema::key));
+        return new TypeSchema(sampled, typeStats.untracked.sum(), keys);
+    }
+
+    /**
+     * @return keys that qualify for a typed column in at least one event type, with their value
+     *         type; keys whose dominant type differs between event types are left out
+     */
+    public Map<String, ValueType> promotionCandidates() {
+        Map<String, ValueType> candidates = new LinkedHashMap<>();
+        List<String> conflicting = new ArrayList<>();
+        for (EventType type : TYPES) {
+            TypeSchema typeSchema = schema(type);
+            if (typeSchema.sampledEvents() < properties.minSamples()) {
+                continue;
+            }
+            for (KeySchema key : typeSchema.keys()) {
+                if (key.frequency() >= properties.minFrequency()
+                        && key.typeConsistency() >= properties.minTypeConsistency()
+                        && key.type().isScalar()) {
+                    ValueType previous = candidates.putIfAbsent(key.key(), key.type());
+                    if (previous != null && previous != key.type()) {
+                        conflicting.add(key.key());
+                    }
+                }
+            }
+        }
+        conflicting.forEach(candidates::remove);
+        return candidates;
+    }
+
+    private static final class TypeStats {
+        private final LongAdder sampled = new LongAdder();
+        private final LongAdder untracked = new LongAdder();
+        private final Map<String, KeyStats> keys = new ConcurrentHashMap<>();
+    }
+
+    private static final class KeyStats {
+
+        private final LongAdder[] types = new LongAdder[VALUE_TYPES.length];
+        private final long overestimate;
+
+        KeyStats(long overestimate) {
+            this.overestimate = overestimate;
+            for (int i = 0; i < types.length; i++) {
+                types[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * @return occurrences counted since the key was admitted
+         */
+        long count() {
+            long count = 0;
+            for (LongAdder type : types) {
+                count += type.sum();
+            }
+            return count;
+        }
+
+        /**
+         * @return the Space-Saving estimate of all occurrences: never less than the true count,
+         *         and at most {@link #overestimate} more
+         */
+        long estimate() {
+            return overestimate + count();
+        }
+
+        KeySchema toSchema(String key, long sampledEvents) {
+            long total = 0;
+            long dominantCount = -1;
+            ValueType dominant = ValueType.NULL;
+            for (ValueType type : VALUE_TYPES) {
+                long count = types[type.ordinal()].sum();
+                total += count;
+                if (count > dominantCount) {
+                    dominantCount = count;
+                    dominant = type;
+                }
+            }
+            return new KeySchema(key, total,
+                sampledEvents == 0 ? 0 : Math.min(1.0, (double) total / sampledEvents),
+                dominant, total == 0 ? 0 : (double) dominantCount / total);
+        }
+    }
+}
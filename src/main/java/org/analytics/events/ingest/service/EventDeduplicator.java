@@ -0,0 +1,80 @@
+package org.analytics.events.ingest.service;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.analytics.events.ingest.config.DedupProperties;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Drops retried events whose client-chosen ID was accepted recently, before they take up queue
+ * space or a database round trip.
+ *
+ * <p>This is a best-effort filter backed by a {@link RotatingBloomFilter}. An ID that was
+ * forgotten, or two retries racing each other, still reach the database, where the batch writers
+ * drop events whose client-chosen ID is already recorded in
+ * {@link org.analytics.events.ingest.repository.EventIdRepository}. IDs are only remembered once their batch was accepted by the
+ * pipeline. A batch rejected with 503 can therefore be retried without being dropped.</p>
+ */
+@Component
+public class EventDeduplicator {
+
+    private final RotatingBloomFilter filter;
+    private final Counter uniqueEvents;
+    private final Counter duplicateEvents;
+
+    public EventDeduplicator(DedupProperties properties, MeterRegistry registry) {
+        this.filter = properties.enabled()
+            ? new RotatingBloomFilter(properties.expectedEvents(), properties.falsePositiveRate(), properties.window().toNanos())
+            : null;
+        this.uniqueEvents = eventCounter(registry, "unique");
+        this.duplicateEvents = eventCounter(registry, "duplicate");
+        if (filter != null) {
+            Gauge.builder("ingest.dedup.memory", filter, RotatingBloomFilter::memoryBytes)
+                .description("Memory held by the deduplication filter")
+                .baseUnit("bytes")
+                .register(registry);
+            Gauge.builder("ingest.dedup.entries", filter, RotatingBloomFilter::size)
+                .description("Event IDs currently remembered for deduplication")
+                .register(registry);
+            Gauge.builder("ingest.dedup.false.positive.rate", filter, RotatingBloomFilter::expectedFalsePositiveRate)
+                .description("Estimated probability of dropping a new event as a duplicate")
+                .register(registry);
+            Gauge.builder("ingest.dedup.false.positive.rate.target", properties, DedupProperties::falsePositiveRate)
+                .register(registry);
+        }
+    }
+
+    private static Counter eventCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("ingest.dedup.events")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    /**
+     * @return true if an event with this client-chosen ID was probably accepted before
+     */
+    public boolean isDuplicate(UUID eventId) {
+        if (filter != null && filter.mightContain(eventId)) {
+            duplicateEvents.increment();
+            return true;
+        }
+        uniqueEvents.increment();
+        return false;
+    }
+
+    /**
+     * Remembers the IDs of a batch the pipeline has accepted.
+     */
+    public void remember(List<UUID> eventIds) {
+        if (filter != null) {
+            for (UUID eventId : eventIds) {
+                filter.put(eventId);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.analytics.events.ingest.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.analytics.events.ingest.config.EventLogProperties;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs what the ingest endpoints accept: one summary line per batch and a sample of the
+ * individual events.
+ *
+ * <p>Lines are written as {@code key=value} pairs through parameterized messages, so nothing is
+ * formatted on the request thread; formatting and I/O happen on the asynchronous logger's
+ * background thread. Per-event lines are sampled first and then limited by a {@link TokenBucket}
+ * shared by all request threads, so the log volume stays bounded however many events arrive.</p>
+ */
+@Component
+public class EventLog {
+
+    private static final Logger log = LoggerFactory.getLogger(EventLog.class);
+
+    private final double sampleRate;
+    private final int maxPerSecond;
+    private final TokenBucket bucket = new TokenBucket(System.nanoTime());
+
+    public EventLog(EventLogProperties properties) {
+        this.sampleRate = properties.sampleRate();
+        this.maxPerSecond = properties.maxPerSecond();
+    }
+
+    /**
+     * Logs {@code event} at DEBUG if it is sampled and the per-second cap allows it.
+     */
+    public void event(BaseEvent event) {
+        if (isSampled()) {
+            log.debug("event id={} type={}", event.getEventId(), event.getEventType());
+        }
+    }
+
+    private boolean isSampled() {
+        return maxPerSecond > 0
+            && log.isDebugEnabled()
+            && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate)
+            && bucket.tryAcquire(1, maxPerSecond, maxPerSecond, System.nanoTime()) == 0;
+    }
+
+    /**
+     * Logs the summary of one request at INFO.
+     *
+     * @param endpoint the path the batch was posted to
+     * @param accepted whether the batch was handed to the pipeline
+     * @param events events mapped from the request
+     * @param deduplicated retries dropped by the {@link EventDeduplicator}
+     * @param elapsedNanos time since the request started reading the body
+     */
+    public void batch(String endpoint, boolean accepted, int events, int deduplicated, long elapsedNanos) {
+        if (log.isInfoEnabled()) {
+            log.info("batch endpoint={} outcome={} events={} deduplicated={} micros={}", endpoint,
+                accepted ? "accepted" : "rejected", events, deduplicated, elapsedNanos / 1000);
+        }
+    }
+}
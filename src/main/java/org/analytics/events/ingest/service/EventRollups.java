@@ -0,0 +1,216 @@
+package org.analytics.events.ingest.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.analytics.events.ingest.config.RollupProperties;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.ClientInfo;
+import org.analytics.events.ingest.model.EventRollup;
+import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.repository.EventRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Counts accepted events per minute, {@link EventType} and client platform in memory, so that
+ * dashboards can read near-real-time counts without grouping the raw {@code events} table.
+ *
+ * <p>Every counter is a {@link LongAdder}, so request threads counting the same minute do not
+ * contend. Counts only grow; each flush adds what was counted since the previous flush to
+ * {@code event_rollups}. A failed flush is simply retried with the larger difference next time.
+ * Minutes older than {@link RollupProperties#window()} are dropped from memory once flushed.</p>
+ *
+ * <p>Events are counted by their server timestamp when the pipeline accepts their batch. The
+ * in-memory counts are those of this instance; the table holds the totals of all instances.</p>
+ */
+@Component
+public class EventRollups {
+
+    private static final Logger log = LoggerFactory.getLogger(EventRollups.class);
+
+    private static final EventType[] TYPES = EventType.values();
+    private static final String UNKNOWN_PLATFORM = "unknown";
+    private static final String OTHER_PLATFORM = "other";
+    private static final int MAX_PLATFORM_LENGTH = 64;
+
+    private final EventRollupRepository repository;
+    private final boolean enabled;
+    private final long windowMinutes;
+    private final int maxPlatforms;
+    private final Map<String, String> platforms = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, MinuteBucket> buckets = new ConcurrentSkipListMap<>();
+    private final Counter flushFailures;
+    private volatile MinuteBucket latest;
+
+    public EventRollups(RollupProperties properties, EventRollupRepository repository, MeterRegistry registry) {
+        this.repository = repository;
+        this.enabled = properties.enabled();
+        this.windowMinutes = Math.max(1, properties.window().toMinutes());
+        this.maxPlatforms = properties.maxPlatforms();
+        this.flushFailures = Counter.builder("ingest.rollups.flush.failures")
+            .description("Rollup flushes that failed and will be retried")
+            .register(registry);
+        Gauge.builder("ingest.rollups.minutes", buckets, Map::size)
+            .description("Minute buckets held in memory")
+            .register(registry);
+    }
+
+    /**
+     * Counts a batch the pipeline has accepted.
+     */
+    public void record(List<BaseEvent> events) {
+        if (!enabled) {
+            return;
+        }
+        for (BaseEvent event : events) {
+            bucket(event.getTimestamp().getEpochSecond() / 60)
+                .counters(platform(event.getClientInfo()))[event.getEventType().ordinal()]
+                .increment();
+        }
+    }
+
+    private MinuteBucket bucket(long minute) {
+        MinuteBucket bucket = latest;
+        if (bucket != null && bucket.minute == minute) {
+            return bucket;
+        }
+        bucket = buckets.computeIfAbsent(minute, MinuteBucket::new);
+        MinuteBucket current = latest;
+        if (current == null || current.minute < minute) {
+            latest = bucket;
+        }
+        return bucket;
+    }
+
+    /**
+     * Maps the client-supplied platform onto a bounded set of values, so that arbitrary input
+     * cannot grow the number of counters without limit.
+     */
+    private String platform(ClientInfo clientInfo) {
+        String platform = clientInfo == null ? null : clientInfo.platform();
+        if (platform == null || platform.isBlank()) {
+            return UNKNOWN_PLATFORM;
+        }
+        String known = platforms.get(platform);
+        if (known != null) {
+            return known;
+        }
+        if (platform.length() > MAX_PLATFORM_LENGTH || platforms.size() >= maxPlatforms) {
+            return OTHER_PLATFORM;
+        }
+        String previous = platforms.putIfAbsent(platform, platform);
+        return previous == null ? platform : previous;
+    }
+
+    /**
+     * @param since earliest minute to include; older minutes may already have left memory
+     * @param eventType the type to include, or {@code null} for all
+     * @return the counts held in memory by minute, type and platform, oldest first
+     */
+    public List<EventRollup> recent(Instant since, EventType eventType) {
+        List<EventRollup> rollups = new ArrayList<>();
+        for (MinuteBucket bucket : buckets.tailMap(since.getEpochSecond() / 60).values()) {
+            Instant minute = Instant.ofEpochSecond(bucket.minute * 60);
+            bucket.platforms.forEach((platform, counters) -> {
+                for (EventType type : TYPES) {
+                    if (eventType != null && type != eventType) {
+                        continue;
+                    }
+                    long count = counters[type.ordinal()].sum();
+                    if (count > 0) {
+                        rollups.add(new EventRollup(minute, type, platform, count));
+                    }
+                }
+            });
+        }
+        rollups.sort(Comparator.comparing(EventRollup::minute)
+            .thenComparing(EventRollup::eventType)
+            .thenComparing(EventRollup::platform));
+        return rollups;
+    }
+
+    /**
+     * Adds the counts gathered since the last flush to the rollup table, then forgets minutes
+     * that are both flushed and outside the window.
+     */
+    @Scheduled(initialDelayString = "${ingest.rollups.flush-interval:10s}",
+        fixedDelayString = "${ingest.rollups.flush-interval:10s}")
+    public synchronized void flush() {
+        List<EventRollup> deltas = new ArrayList<>();
+        List<Runnable> commits = new ArrayList<>();
+        for (MinuteBucket bucket : buckets.values()) {
+            Instant minute = Instant.ofEpochSecond(bucket.minute * 60);
+            bucket.platforms.forEach((platform, counters) -> {
+                long[] flushed = bucket.flushed.get(platform);
+                for (EventType type : TYPES) {
+                    int i = type.ordinal();
+                    long sum = counters[i].sum();
+                    if (sum > flushed[i]) {
+                        deltas.add(new EventRollup(minute, type, platform, sum - flushed[i]));
+                        commits.add(() -> flushed[i] = sum);
+                    }
+                }
+            });
+        }
+        if (!deltas.isEmpty()) {
+            try {
+                repository.increment(deltas);
+            } catch (DataAccessException e) {
+                flushFailures.increment();
+                log.warn("Could not flush {} event rollups, retrying with the next flush", deltas.size(), e);
+                return;
+            }
+            commits.forEach(Runnable::run);
+        }
+        long oldest = Instant.now().getEpochSecond() / 60 - windowMinutes;
+        buckets.headMap(oldest).clear();
+    }
+
+    @PreDestroy
+    void stop() {
+        flush();
+    }
+
+    /**
+     * One minute's counters per platform, indexed by {@link EventType#ordinal()}, and the sums
+     * already written to the table, touched only by {@link #flush()}.
+     */
+    private static final class MinuteBucket {
+
+        private final long minute;
+        private final Map<String, LongAdder[]> platforms = new ConcurrentHashMap<>();
+        private final Map<String, long[]> flushed = new ConcurrentHashMap<>();
+
+        MinuteBucket(long minute) {
+            this.minute = minute;
+        }
+
+        LongAdder[] counters(String platform) {
+            LongAdder[] counters = platforms.get(platform);
+            return counters != null ? counters : platforms.computeIfAbsent(platform, key -> {
+                flushed.put(key, new long[TYPES.length]);
+                LongAdder[] adders = new LongAdder[TYPES.length];
+                for (int i = 0; i < adders.length; i++) {
+                    adders[i] = new LongAdder();
+                }
+                return adders;
+            });
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.analytics.events.ingest.service;
+
+import java.util.function.Consumer;
+
+import org.analytics.events.ingest.dto.EventBatchDTO;
+import org.analytics.events.ingest.dto.EventRequestDTO;
+
+/**
+ * Receives the events of a request as {@link EventStreamReader} reads them.
+ */
+@FunctionalInterface
+public interface EventSink extends Consumer<EventRequestDTO> {
+
+    /**
+     * Called once, before the first event, if the body is an {@link EventBatchDTO}. Its
+     * {@code events} are left empty; they follow through {@link #accept(Object)}.
+     */
+    default void shared(EventBatchDTO batch) {
+    }
+}
@@ -0,0 +1,200 @@
+package org.analytics.events.ingest.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.analytics.events.ingest.config.IngestLimitsProperties;
+import org.analytics.events.ingest.dto.EventBatchDTO;
+import org.analytics.events.ingest.dto.EventRequestDTO;
+import org.analytics.events.ingest.dto.EventRequestDTO.ClientInfoDTO;
+import org.analytics.events.ingest.dto.EventRequestDTO.MetadataDTO;
+import org.analytics.events.ingest.dto.EventRequestDTO.SessionInfoDTO;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+
+/**
+ * Reads an array of events, or an {@link EventBatchDTO} wrapping one, token by token instead of
+ * binding the whole body to a {@code List<EventRequestDTO>}. The body may be encoded in any
+ * {@link EventWireFormat}; every format shares the configuration of the application's
+ * {@link ObjectMapper}.
+ *
+ * <p>Each array element is bound, validated and handed to the caller before the next one is
+ * read, and the byte and event count limits are enforced while reading. An oversized or
+ * malformed payload is therefore rejected after reading at most one event past the limit,
+ * not after Jackson has materialized the whole request.</p>
+ *
+ * <p>Parse and validation time is recorded per event in {@link IngestMetrics}, as is the event
+ * that fails the request. Events read before it are the caller's to count.</p>
+ */
+@Component
+public class EventStreamReader {
+
+    private static final String NOT_A_BATCH = "Request body must be an array of events or an object with an events array";
+
+    private final Map<EventWireFormat, ObjectMapper> mappers = new EnumMap<>(EventWireFormat.class);
+    private final Validator validator;
+    private final IngestLimitsProperties limits;
+    private final IngestMetrics metrics;
+
+    public EventStreamReader(ObjectMapper objectMapper, Validator validator, IngestLimitsProperties limits,
+            IngestMetrics metrics) {
+        for (EventWireFormat format : EventWireFormat.values()) {
+            mappers.put(format, format == EventWireFormat.JSON ? objectMapper : objectMapper.copyWith(format.newFactory()));
+        }
+        this.validator = validator;
+        this.limits = limits;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Streams the events of an array or {@link EventBatchDTO} body to {@code sink}, enforcing
+     * {@link IngestLimitsProperties#maxBatchPayload()} and {@link IngestLimitsProperties#maxBatchEvents()}.
+     * The format is told apart by the first token.
+     *
+     * @param body the raw request body
+     * @param format the encoding of the body
+     * @param sink receives the shared parts of a batch object, then every valid event in order
+     * @return the number of events read
+     * @throws InvalidBatchException if the body is empty, neither an array nor a batch object, or exceeds a limit
+     * @throws ConstraintViolationException if an event or a shared part fails bean validation
+     * @throws IOException if the body is not well-formed or an event cannot be bound
+     */
+    public int read(InputStream body, EventWireFormat format, EventSink sink)
+            throws IOException {
+        ObjectMapper objectMapper = mappers.get(format);
+        InputStream in = new BoundedInputStream(body, limits.maxBatchPayload().toBytes());
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_ARRAY) {
+                return readEvents(objectMapper, parser, sink);
+            }
+            if (first == JsonToken.START_OBJECT) {
+                return readBatch(objectMapper, parser, sink);
+            }
+            throw new InvalidBatchException(NOT_A_BATCH);
+        } catch (JsonMappingException e) {
+            throw unwrapLimit(e);
+        }
+    }
+
+    /**
+     * Reads the shared parts of a batch object up to its {@code events} array, hands them to the
+     * sink, then reads the events. A shared part after the array fails the request rather than
+     * being ignored, since the events have been read without it.
+     */
+    private int readBatch(ObjectMapper objectMapper, JsonParser parser, EventSink sink) throws IOException {
+        ClientInfoDTO clientInfo = null;
+        SessionInfoDTO session = null;
+        MetadataDTO metadata = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "clientInfo" -> clientInfo = validatePart(objectMapper.readValue(parser, ClientInfoDTO.class));
+                case "session" -> session = validatePart(objectMapper.readValue(parser, SessionInfoDTO.class));
+                case "metadata" -> metadata = validatePart(objectMapper.readValue(parser, MetadataDTO.class));
+                case "events" -> {
+                    if (value != JsonToken.START_ARRAY) {
+                        throw new InvalidBatchException(NOT_A_BATCH);
+                    }
+                    sink.shared(new EventBatchDTO(clientInfo, session, metadata, List.of()));
+                    int count = readEvents(objectMapper, parser, sink);
+                    if (parser.nextToken() != JsonToken.END_OBJECT) {
+                        throw new InvalidBatchException("clientInfo, session and metadata must precede events");
+                    }
+                    return count;
+                }
+                default -> throw new InvalidBatchException(NOT_A_BATCH);
+            }
+        }
+        throw new InvalidBatchException(NOT_A_BATCH);
+    }
+
+    private int readEvents(ObjectMapper objectMapper, JsonParser parser, EventSink sink) throws IOException {
+        int maxEvents = limits.maxBatchEvents();
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                throw new InvalidBatchException(NOT_A_BATCH);
+            }
+            if (++count > maxEvents) {
+                throw InvalidBatchException.tooManyEvents(maxEvents);
+            }
+            long start = System.nanoTime();
+            EventRequestDTO event = parse(objectMapper, parser);
+            long parsed = System.nanoTime();
+            metrics.recordParse(parsed - start);
+            validate(event);
+            metrics.recordValidate(System.nanoTime() - parsed);
+            sink.accept(event);
+        }
+        if (count == 0) {
+            throw new InvalidBatchException("Event list cannot be empty");
+        }
+        return count;
+    }
+
+    private EventRequestDTO parse(ObjectMapper objectMapper, JsonParser parser) throws IOException {
+        try {
+            return objectMapper.readValue(parser, EventRequestDTO.class);
+        } catch (JsonMappingException e) {
+            JsonMappingException unwrapped = unwrapLimit(e);
+            metrics.count(null, IngestMetrics.Outcome.REJECTED);
+            throw unwrapped;
+        } catch (IOException e) {
+            metrics.count(null, IngestMetrics.Outcome.REJECTED);
+            throw e;
+        }
+    }
+
+    /**
+     * Jackson wraps exceptions of the underlying stream met while binding a value, so a body
+     * without {@code Content-Length} that crosses the limit of the {@link BoundedInputStream}
+     * would otherwise surface as a malformed payload.
+     *
+     * @return {@code e} if it was not caused by a limit
+     * @throws InvalidBatchException the limit that was crossed
+     */
+    private static JsonMappingException unwrapLimit(JsonMappingException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof InvalidBatchException limit) {
+                throw limit;
+            }
+        }
+        return e;
+    }
+
+    /**
+     * Validates a shared part of a batch as if it had been sent on every event.
+     */
+    private <T> T validatePart(T part) {
+        if (part != null) {
+            Set<ConstraintViolation<T>> violations = validator.validate(part);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+        }
+        return part;
+    }
+
+    private void validate(EventRequestDTO event) {
+        Set<ConstraintViolation<EventRequestDTO>> violations = validator.validate(event);
+        if (!violations.isEmpty()) {
+            metrics.count(event.eventType(), IngestMetrics.Outcome.REJECTED);
+            throw new ConstraintViolationException(violations);
+        }
+    }
+}
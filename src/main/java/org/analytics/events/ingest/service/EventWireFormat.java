@@ -0,0 +1,53 @@
+package org.analytics.events.ingest.service;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Encodings accepted for {@code /ingest} request bodies. All of them carry the same
+ * array-of-events structure and bind to the same DTOs; the binary ones skip the text
+ * tokenization and number parsing that dominate JSON parse cost.
+ */
+public enum EventWireFormat {
+    JSON(MediaType.APPLICATION_JSON_VALUE),
+    CBOR(MediaType.APPLICATION_CBOR_VALUE),
+    SMILE(EventWireFormat.SMILE_VALUE);
+
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    private final String mediaType;
+
+    EventWireFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    JsonFactory newFactory() {
+        return switch (this) {
+            case JSON -> new JsonFactory();
+            case CBOR -> new CBORFactory();
+            case SMILE -> new SmileFactory();
+        };
+    }
+
+    /**
+     * Resolves the format from a request {@code Content-Type}, defaulting to JSON.
+     */
+    public static EventWireFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            for (EventWireFormat format : values()) {
+                if (mediaType.isCompatibleWith(MediaType.parseMediaType(format.mediaType))) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
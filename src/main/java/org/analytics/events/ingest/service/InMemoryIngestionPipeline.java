@@ -0,0 +1,191 @@
+package org.analytics.events.ingest.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.analytics.events.ingest.config.PipelineProperties;
+import org.analytics.events.ingest.config.WorkerThreads;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.repository.EventBatchSplitter;
+import org.analytics.events.ingest.repository.EventBatchWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind buffer between the HTTP layer and the database, held in memory.
+ * Active in the default {@code ingest.pipeline.mode=memory}.
+ *
+ * <p>Request threads hand over mapped events through {@link #submit(List)}, which never blocks:
+ * either the whole batch fits into the bounded queue or an {@link IngestionBackpressureException}
+ * is thrown. A fixed pool of writer threads drains the queue into the {@link EventBatchWriter}
+ * in micro-batches of at most {@link PipelineProperties#batchSize()} events.</p>
+ *
+ * <p>Capacity is tracked with a {@link Semaphore} rather than a bounded queue so that a batch is
+ * accepted or rejected atomically. Permits are only returned once the events were written,
+ * so the queue depth also accounts for events currently in flight to the database.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "ingest.pipeline.mode", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIngestionPipeline implements IngestionPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryIngestionPipeline.class);
+
+    private final EventBatchWriter eventWriter;
+    private final PipelineProperties properties;
+    private final WorkerThreads workerThreads;
+    private final BlockingQueue<BaseEvent> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Counter acceptedEvents;
+    private final Counter rejectedEvents;
+    private final Counter writtenEvents;
+    private final Counter failedEvents;
+
+    private ExecutorService writers;
+    private volatile boolean running;
+
+    public InMemoryIngestionPipeline(EventBatchWriter eventWriter, PipelineProperties properties,
+            WorkerThreads workerThreads, MeterRegistry registry) {
+        this.eventWriter = eventWriter;
+        this.properties = properties;
+        this.workerThreads = workerThreads;
+        this.capacity = new Semaphore(properties.queueCapacity());
+
+        Gauge.builder("ingest.pipeline.queue.depth", this, InMemoryIngestionPipeline::depth)
+            .description("Events buffered or being written")
+            .register(registry);
+        Gauge.builder("ingest.pipeline.queue.capacity", properties, PipelineProperties::queueCapacity)
+            .register(registry);
+        this.acceptedEvents = eventCounter(registry, "accepted");
+        this.rejectedEvents = eventCounter(registry, "rejected");
+        this.writtenEvents = eventCounter(registry, "written");
+        this.failedEvents = eventCounter(registry, "failed");
+    }
+
+    private static Counter eventCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("ingest.pipeline.events")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writers = Executors.newThreadPerTaskExecutor(workerThreads.factory("ingest-writer-"));
+        for (int i = 0; i < properties.workers(); i++) {
+            writers.execute(this::drainLoop);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writers.shutdown();
+        if (!writers.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Ingestion pipeline stopped with {} events still buffered", depth());
+            writers.shutdownNow();
+        }
+    }
+
+    /**
+     * Buffers a batch of events for asynchronous persistence.
+     *
+     * @param events the events to persist
+     * @throws IngestionBackpressureException if the batch does not fit into the remaining capacity
+     */
+    @Override
+    public void submit(List<BaseEvent> events) {
+        if (!running || !capacity.tryAcquire(events.size())) {
+            rejectedEvents.increment(events.size());
+            throw new IngestionBackpressureException("Ingestion queue is full", properties.retryAfter());
+        }
+        queue.addAll(events);
+        acceptedEvents.increment(events.size());
+    }
+
+    /**
+     * @return number of events accepted but not yet written
+     */
+    @Override
+    public int depth() {
+        return queue.size() + inFlight.get();
+    }
+
+    private void drainLoop() {
+        List<BaseEvent> batch = new ArrayList<>(properties.batchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                if (fill(batch)) {
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private boolean fill(List<BaseEvent> batch) throws InterruptedException {
+        BaseEvent first = queue.poll(properties.lingerTime().toNanos(), TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first);
+        int batchSize = properties.batchSize();
+        long deadline = System.nanoTime() + properties.lingerTime().toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            BaseEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        inFlight.addAndGet(batch.size());
+        return true;
+    }
+
+    /**
+     * Writes a micro-batch; events the database refuses are isolated and dropped, the others are
+     * written. The requests were answered already, so refused events are only counted and logged.
+     */
+    private void write(List<BaseEvent> batch) {
+        try {
+            List<BaseEvent> refused = EventBatchSplitter.write(eventWriter, batch);
+            writtenEvents.increment(batch.size() - refused.size());
+            if (!refused.isEmpty()) {
+                failedEvents.increment(refused.size());
+                log.error("Database refused {} of {} events, dropping them: {}", refused.size(), batch.size(),
+                    refused.stream().map(BaseEvent::getEventId).toList());
+            }
+        } catch (RuntimeException e) {
+            failedEvents.increment(batch.size());
+            log.error("Failed to persist batch of {} events", batch.size(), e);
+        } finally {
+            inFlight.addAndGet(-batch.size());
+            capacity.release(batch.size());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.analytics.events.ingest.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.analytics.events.ingest.model.EventType;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters for the request side of the ingest path: per-event latency of the parse, validate, map
+ * and enrich stages on {@code ingest.stage.duration}, events per request on {@code ingest.batch.size},
+ * and {@code ingest.events} counted by event type and outcome. The write side is metered by
+ * {@link org.analytics.events.ingest.repository.BatchWriteMetrics} under the same names.
+ *
+ * <p>All meters are registered up front, so recording never looks up or allocates a meter.
+ * Events rejected before their type is known are counted with {@code type=unknown}.</p>
+ */
+@Component
+public class IngestMetrics {
+
+    public enum Outcome {
+        ACCEPTED, REJECTED, DEDUPLICATED
+    }
+
+    private static final EventType[] TYPES = EventType.values();
+
+    private final Timer parseTimer;
+    private final Timer validateTimer;
+    private final Timer mapTimer;
+    private final Timer enrichTimer;
+    private final DistributionSummary batchSize;
+    private final Counter[][] eventCounters = new Counter[Outcome.values().length][TYPES.length + 1];
+
+    public IngestMetrics(MeterRegistry registry) {
+        this.parseTimer = stageTimer(registry, "parse");
+        this.validateTimer = stageTimer(registry, "validate");
+        this.mapTimer = stageTimer(registry, "map");
+        this.enrichTimer = stageTimer(registry, "enrich");
+        this.batchSize = DistributionSummary.builder("ingest.batch.size")
+            .description("Events per batch")
+            .tag("source", "request")
+            .publishPercentileHistogram()
+            .register(registry);
+        for (Outcome outcome : Outcome.values()) {
+            Counter[] counters = eventCounters[outcome.ordinal()];
+            for (EventType type : TYPES) {
+                counters[type.ordinal()] = eventCounter(registry, type.getValue(), outcome);
+            }
+            counters[TYPES.length] = eventCounter(registry, "unknown", outcome);
+        }
+    }
+
+    private static Timer stageTimer(MeterRegistry registry, String stage) {
+        return Timer.builder("ingest.stage.duration")
+            .description("Time spent in each stage of the ingest path")
+            .tag("stage", stage)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private static Counter eventCounter(MeterRegistry registry, String type, Outcome outcome) {
+        return Counter.builder("ingest.events")
+            .description("Events received by type and outcome")
+            .tag("type", type)
+            .tag("outcome", outcome.name().toLowerCase())
+            .register(registry);
+    }
+
+    public void recordParse(long nanos) {
+        parseTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordValidate(long nanos) {
+        validateTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordMap(long nanos) {
+        mapTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordEnrich(long nanos) {
+        enrichTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBatchSize(int events) {
+        batchSize.record(events);
+    }
+
+    /**
+     * @param type the event type, or {@code null} if it is not known
+     */
+    public void count(EventType type, Outcome outcome) {
+        eventCounters[outcome.ordinal()][slot(type)].increment();
+    }
+
+    /**
+     * Counts the events of a whole request at once.
+     *
+     * @param perType event counts indexed by {@link #slot(EventType)}, as sized by {@link #newTypeCounts()}
+     */
+    public void count(int[] perType, Outcome outcome) {
+        Counter[] counters = eventCounters[outcome.ordinal()];
+        for (int i = 0; i < counters.length; i++) {
+            if (perType[i] > 0) {
+                counters[i].increment(perType[i]);
+            }
+        }
+    }
+
+    public static int[] newTypeCounts() {
+        return new int[TYPES.length + 1];
+    }
+
+    /**
+     * @return the index of {@code type} in per-type counts; unknown types share the last slot
+     */
+    public static int slot(EventType type) {
+        return type == null ? TYPES.length : type.ordinal();
+    }
+}
@@ -0,0 +1,21 @@
+package org.analytics.events.ingest.service;
+
+import java.time.Duration;
+
+/**
+ * Thrown when the ingestion pipeline cannot buffer a batch without exceeding its capacity.
+ * The batch is rejected as a whole; clients are expected to retry after {@link #getRetryAfter()}.
+ */
+public class IngestionBackpressureException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public IngestionBackpressureException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
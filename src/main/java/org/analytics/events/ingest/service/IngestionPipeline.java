@@ -0,0 +1,25 @@
+package org.analytics.events.ingest.service;
+
+import java.util.List;
+
+import org.analytics.events.ingest.model.BaseEvent;
+
+/**
+ * Hands accepted events over from the request thread to asynchronous persistence.
+ * The implementation is chosen with {@code ingest.pipeline.mode}.
+ */
+public interface IngestionPipeline {
+
+    /**
+     * Accepts a batch of events for persistence without waiting on the database.
+     *
+     * @param events the events to persist
+     * @throws IngestionBackpressureException if the batch cannot be accepted right now
+     */
+    void submit(List<BaseEvent> events);
+
+    /**
+     * @return number of events accepted by this node but not yet handed off for good
+     */
+    int depth();
+}
@@ -0,0 +1,30 @@
+package org.analytics.events.ingest.service;
+
+/**
+ * Thrown when an ingestion request violates a batch-level rule, such as being empty or exceeding
+ * the payload size or event count limits. The message is returned to the client as-is.
+ */
+public class InvalidBatchException extends RuntimeException {
+
+    public InvalidBatchException(String message) {
+        super(message);
+    }
+
+    public static InvalidBatchException payloadTooLarge(long maxBytes) {
+        return new InvalidBatchException("Payload size cannot exceed " + formatSize(maxBytes));
+    }
+
+    public static InvalidBatchException tooManyEvents(int maxEvents) {
+        return new InvalidBatchException("Batch size cannot exceed " + maxEvents + " events");
+    }
+
+    private static String formatSize(long bytes) {
+        if (bytes % (1024 * 1024) == 0) {
+            return bytes / (1024 * 1024) + "MB";
+        }
+        if (bytes % 1024 == 0) {
+            return bytes / 1024 + "KB";
+        }
+        return bytes + " bytes";
+    }
+}
@@ -0,0 +1,228 @@
+package org.analytics.events.ingest.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import org.analytics.events.ingest.config.IngestLimitsProperties;
+import org.analytics.events.ingest.dto.BulkIngestResponseDTO;
+import org.analytics.events.ingest.dto.BulkIngestResponseDTO.LineRejection;
+import org.analytics.events.ingest.dto.EventRequestDTO;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Reads newline-delimited JSON bodies, optionally gzip-encoded, one line at a time.
+ *
+ * <p>Unlike the JSON array format a bad line does not fail the request: it is reported in the
+ * response with its line number and the remaining lines are still ingested. Lines are bound
+ * straight from a reusable byte buffer, so no intermediate {@code String} is created per line.
+ * Limits on the wire size, the inflated size, the line length and the number of events come from
+ * {@link IngestLimitsProperties}; exceeding the size or event limits fails the whole request.</p>
+ *
+ * <p>Rejected lines are counted in {@link IngestMetrics} as they are found; valid lines are the
+ * caller's to count once it knows whether their batch was accepted.</p>
+ */
+@Component
+public class NdjsonEventReader {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private final ObjectReader eventReader;
+    private final Validator validator;
+    private final IngestLimitsProperties limits;
+    private final IngestMetrics metrics;
+
+    public NdjsonEventReader(ObjectMapper objectMapper, Validator validator, IngestLimitsProperties limits,
+            IngestMetrics metrics) {
+        this.eventReader = objectMapper.readerFor(EventRequestDTO.class);
+        this.validator = validator;
+        this.limits = limits;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Streams the valid events of an NDJSON body to {@code sink}.
+     *
+     * @param body the raw request body
+     * @param gzipEncoded whether the body was sent with {@code Content-Encoding: gzip}
+     * @param sink receives every valid event in order
+     * @return accepted and rejected line counts with the reason for each rejected line
+     * @throws InvalidBatchException if the body is empty or exceeds a size or event count limit
+     * @throws IOException if the body cannot be read or inflated
+     */
+    public BulkIngestResponseDTO read(InputStream body, boolean gzipEncoded, Consumer<EventRequestDTO> sink)
+            throws IOException {
+        InputStream in = new BoundedInputStream(body, limits.maxBulkPayload().toBytes());
+        if (gzipEncoded) {
+            in = new BoundedInputStream(new GZIPInputStream(in, CHUNK_SIZE), limits.maxBulkDecompressed().toBytes());
+        }
+        LineReader lines = new LineReader(in, (int) limits.maxLineLength().toBytes());
+        int maxEvents = limits.maxBulkEvents();
+        int lineNumber = 0;
+        int accepted = 0;
+        List<LineRejection> rejections = new ArrayList<>();
+        while (lines.next()) {
+            lineNumber++;
+            if (lines.isBlank()) {
+                continue;
+            }
+            if (accepted + rejections.size() >= maxEvents) {
+                throw InvalidBatchException.tooManyEvents(maxEvents);
+            }
+            String error = lines.overflowed()
+                ? "Line exceeds " + limits.maxLineLength().toBytes() + " bytes"
+                : accept(lines, sink);
+            if (error == null) {
+                accepted++;
+            } else {
+                if (lines.overflowed()) {
+                    metrics.count(null, IngestMetrics.Outcome.REJECTED);
+                }
+                rejections.add(new LineRejection(lineNumber, error));
+            }
+        }
+        if (accepted + rejections.size() == 0) {
+            throw new InvalidBatchException("Event list cannot be empty");
+        }
+        return new BulkIngestResponseDTO(accepted, rejections.size(), rejections);
+    }
+
+    private String accept(LineReader line, Consumer<EventRequestDTO> sink) throws IOException {
+        EventRequestDTO event;
+        long start = System.nanoTime();
+        try {
+            event = eventReader.readValue(line.buffer(), 0, line.length());
+        } catch (InvalidFormatException e) {
+            metrics.count(null, IngestMetrics.Outcome.REJECTED);
+            return e.getPath().isEmpty() || e.getPath().get(0).getFieldName() == null
+                ? "Invalid value"
+                : "Invalid value for " + e.getPath().get(0).getFieldName();
+        } catch (JsonProcessingException e) {
+            metrics.count(null, IngestMetrics.Outcome.REJECTED);
+            return "Malformed JSON";
+        }
+        if (event == null) {
+            metrics.count(null, IngestMetrics.Outcome.REJECTED);
+            return "Event cannot be null";
+        }
+        long parsed = System.nanoTime();
+        metrics.recordParse(parsed - start);
+        Set<ConstraintViolation<EventRequestDTO>> violations = validator.validate(event);
+        metrics.recordValidate(System.nanoTime() - parsed);
+        if (!violations.isEmpty()) {
+            metrics.count(event.eventType(), IngestMetrics.Outcome.REJECTED);
+            return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+        }
+        sink.accept(event);
+        return null;
+    }
+
+    /**
+     * Splits a stream on {@code '\n'} into a reusable buffer. Lines longer than the limit are
+     * consumed to their end but only flagged as overflowed, never buffered in full.
+     */
+    private static final class LineReader {
+
+        private final InputStream in;
+        private final int maxLength;
+        private final byte[] chunk = new byte[CHUNK_SIZE];
+        private int chunkPos;
+        private int chunkLimit;
+        private boolean eof;
+
+        private byte[] buffer = new byte[512];
+        private int length;
+        private boolean overflowed;
+
+        LineReader(InputStream in, int maxLength) {
+            this.in = in;
+            this.maxLength = maxLength;
+        }
+
+        boolean next() throws IOException {
+            length = 0;
+            overflowed = false;
+            boolean sawAny = false;
+            while (true) {
+                if (chunkPos == chunkLimit) {
+                    if (eof || !fillChunk()) {
+                        return sawAny;
+                    }
+                }
+                byte b = chunk[chunkPos++];
+                sawAny = true;
+                if (b == '\n') {
+                    if (length > 0 && buffer[length - 1] == '\r') {
+                        length--;
+                    }
+                    return true;
+                }
+                append(b);
+            }
+        }
+
+        private boolean fillChunk() throws IOException {
+            int n = in.read(chunk, 0, chunk.length);
+            if (n <= 0) {
+                eof = true;
+                return false;
+            }
+            chunkPos = 0;
+            chunkLimit = n;
+            return true;
+        }
+
+        private void append(byte b) {
+            if (length == maxLength) {
+                overflowed = true;
+                return;
+            }
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, maxLength));
+            }
+            buffer[length++] = b;
+        }
+
+        boolean isBlank() {
+            if (overflowed) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                byte b = buffer[i];
+                if (b != ' ' && b != '\t' && b != '\r') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean overflowed() {
+            return overflowed;
+        }
+
+        byte[] buffer() {
+            return buffer;
+        }
+
+        int length() {
+            return length;
+        }
+    }
+}
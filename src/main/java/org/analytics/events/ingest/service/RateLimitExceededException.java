@@ -0,0 +1,21 @@
+package org.analytics.events.ingest.service;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a client, or the service as a whole, exceeds its allowed event rate.
+ * Clients are expected to retry after {@link #getRetryAfter()}.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,262 @@
+package org.analytics.events.ingest.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.analytics.events.ingest.config.PipelineProperties;
+import org.analytics.events.ingest.config.RateLimitProperties;
+import org.analytics.events.ingest.repository.BatchWriteMetrics;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Limits the rate of ingested events per {@code userHash}, per client IP and, optionally, in total.
+ *
+ * <p>Each client key has a {@link TokenBucket} in a {@link ConcurrentHashMap}, so the request
+ * path takes no locks. Buckets that have been full for {@link RateLimitProperties#idleTimeout()}
+ * are evicted in the background.</p>
+ *
+ * <p>All rates are multiplied by an adaptive factor that drops below 1 once the
+ * {@link IngestionPipeline} fills up past {@link RateLimitProperties#shedQueueRatio()} or database
+ * writes get slower than {@link RateLimitProperties#latencyTarget()}. The factor is recomputed in
+ * the background, and request threads only read it.</p>
+ */
+@Component
+public class RateLimiter {
+
+    private static final String UNKNOWN_IP = "";
+
+    private final RateLimitProperties properties;
+    private final PipelineProperties pipelineProperties;
+    private final IngestionPipeline pipeline;
+    private final BatchWriteMetrics writeMetrics;
+
+    private final ConcurrentMap<String, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TokenBucket> ipBuckets = new ConcurrentHashMap<>();
+    private final TokenBucket globalBucket = new TokenBucket(System.nanoTime());
+    private volatile double rateFactor = 1.0;
+
+    private final Counter userRejections;
+    private final Counter ipRejections;
+    private final Counter globalRejections;
+
+    public RateLimiter(RateLimitProperties properties, PipelineProperties pipelineProperties, IngestionPipeline pipeline,
+            BatchWriteMetrics writeMetrics, MeterRegistry registry) {
+        this.properties = properties;
+        this.pipelineProperties = pipelineProperties;
+        this.pipeline = pipeline;
+        this.writeMetrics = writeMetrics;
+
+        Gauge.builder("ingest.ratelimit.factor", this, RateLimiter::rateFactor)
+            .description("Adaptive factor applied to all rate limits")
+            .register(registry);
+        Gauge.builder("ingest.ratelimit.buckets", this, RateLimiter::trackedBuckets)
+            .description("Client token buckets currently tracked")
+            .register(registry);
+        this.userRejections = rejectionCounter(registry, "user");
+        this.ipRejections = rejectionCounter(registry, "ip");
+        this.globalRejections = rejectionCounter(registry, "global");
+    }
+
+    private static Counter rejectionCounter(MeterRegistry registry, String scope) {
+        return Counter.builder("ingest.ratelimit.rejected")
+            .tag("scope", scope)
+            .register(registry);
+    }
+
+    /**
+     * Takes the events of one request from every bucket they count against, the per-user and
+     * per-IP buckets before the global one. If a bucket rejects the request, whatever was taken
+     * from the others is given back, so a client held back by its own limit does not use up the
+     * global budget of everyone else.
+     *
+     * @throws RateLimitExceededException if any of the buckets is exhausted
+     */
+    public void acquire(Usage usage) {
+        if (!properties.enabled() || usage.events == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        double factor = rateFactor;
+        double userRate = properties.userRate() * factor;
+        double ipRate = properties.ipRate() * factor;
+        int userCharged = 0;
+        int ipCharged = 0;
+        try {
+            for (Map.Entry<String, Integer> user : usage.perUser.entrySet()) {
+                long wait = bucket(userBuckets, user.getKey(), now)
+                    .tryAcquire(user.getValue(), userRate, properties.userBurst(), now);
+                if (wait > 0) {
+                    userRejections.increment();
+                    throw rejected("Rate limit exceeded for user", wait);
+                }
+                userCharged++;
+            }
+            for (Map.Entry<String, Integer> ip : usage.perIp.entrySet()) {
+                long wait = bucket(ipBuckets, ip.getKey(), now)
+                    .tryAcquire(ip.getValue(), ipRate, properties.ipBurst(), now);
+                if (wait > 0) {
+                    ipRejections.increment();
+                    throw rejected("Rate limit exceeded for client address", wait);
+                }
+                ipCharged++;
+            }
+            if (properties.globalRate() > 0) {
+                long wait = globalBucket.tryAcquire(usage.events, properties.globalRate() * factor,
+                    properties.globalBurst(), now);
+                if (wait > 0) {
+                    globalRejections.increment();
+                    throw rejected("Ingestion rate limit exceeded", wait);
+                }
+            }
+        } catch (RateLimitExceededException e) {
+            release(userBuckets, usage.perUser, userCharged, userRate);
+            release(ipBuckets, usage.perIp, ipCharged, ipRate);
+            throw e;
+        }
+    }
+
+    /**
+     * Checks, without taking anything, whether the client address of a request has tokens left,
+     * so that a client already over its limit is turned away before its body is read.
+     *
+     * @throws RateLimitExceededException if the address or the global bucket is exhausted
+     */
+    public void checkAddress(String ipAddress) {
+        if (!properties.enabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        double factor = rateFactor;
+        check(ipBuckets.get(ipAddress == null ? UNKNOWN_IP : ipAddress), 1, properties.ipRate() * factor,
+            properties.ipBurst(), now, ipRejections, "Rate limit exceeded for client address");
+        checkGlobal(1, factor, now);
+    }
+
+    /**
+     * Checks, without taking anything, whether the events of a request counted so far would
+     * still be admitted by {@link #acquire}. Called for every event while the body is read, so
+     * a request over its limit stops being parsed at the first event too many. Only the buckets
+     * of the last event added are looked at; the earlier ones have been checked before.
+     *
+     * @throws RateLimitExceededException if any of those buckets is exhausted
+     */
+    public void check(Usage usage) {
+        if (!properties.enabled() || usage.events == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        double factor = rateFactor;
+        check(userBuckets.get(usage.lastUser), usage.perUser.get(usage.lastUser), properties.userRate() * factor,
+            properties.userBurst(), now, userRejections, "Rate limit exceeded for user");
+        check(ipBuckets.get(usage.lastIp), usage.perIp.get(usage.lastIp), properties.ipRate() * factor,
+            properties.ipBurst(), now, ipRejections, "Rate limit exceeded for client address");
+        checkGlobal(usage.events, factor, now);
+    }
+
+    /**
+     * A bucket not tracked yet is full, and a full bucket admits any number of events.
+     */
+    private static void check(TokenBucket bucket, int permits, double rate, int burst, long now, Counter rejections,
+            String message) {
+        if (bucket == null) {
+            return;
+        }
+        long wait = bucket.waitFor(permits, rate, burst, now);
+        if (wait > 0) {
+            rejections.increment();
+            throw rejected(message, wait);
+        }
+    }
+
+    private void checkGlobal(int permits, double factor, long now) {
+        if (properties.globalRate() > 0) {
+            check(globalBucket, permits, properties.globalRate() * factor, properties.globalBurst(), now,
+                globalRejections, "Ingestion rate limit exceeded");
+        }
+    }
+
+    /**
+     * Gives back the first {@code charged} entries of {@code perKey}, in the order they were taken.
+     */
+    private static void release(ConcurrentMap<String, TokenBucket> buckets, Map<String, Integer> perKey, int charged,
+            double rate) {
+        for (Map.Entry<String, Integer> entry : perKey.entrySet()) {
+            if (charged-- == 0) {
+                return;
+            }
+            TokenBucket bucket = buckets.get(entry.getKey());
+            if (bucket != null) {
+                bucket.release(entry.getValue(), rate);
+            }
+        }
+    }
+
+    private static TokenBucket bucket(ConcurrentMap<String, TokenBucket> buckets, String key, long now) {
+        TokenBucket bucket = buckets.get(key);
+        return bucket != null ? bucket : buckets.computeIfAbsent(key, k -> new TokenBucket(now));
+    }
+
+    private static RateLimitExceededException rejected(String message, long waitNanos) {
+        return new RateLimitExceededException(message, Duration.ofNanos(waitNanos));
+    }
+
+    double rateFactor() {
+        return rateFactor;
+    }
+
+    /**
+     * Lowers all rates in proportion to how far queue depth and write latency exceed their
+     * thresholds, and restores them as soon as both are back below.
+     */
+    @Scheduled(fixedDelay = 250)
+    void updateRateFactor() {
+        double queueRatio = (double) pipeline.depth() / pipelineProperties.queueCapacity();
+        double queueFactor = queueRatio <= properties.shedQueueRatio()
+            ? 1.0
+            : 1.0 - (queueRatio - properties.shedQueueRatio()) / (1.0 - properties.shedQueueRatio());
+        long latency = writeMetrics.average().toNanos();
+        long target = properties.latencyTarget().toNanos();
+        double latencyFactor = latency <= target ? 1.0 : (double) target / latency;
+        rateFactor = Math.max(properties.minRateFactor(), Math.min(queueFactor, latencyFactor));
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    void evictIdleBuckets() {
+        long now = System.nanoTime();
+        long idle = properties.idleTimeout().toNanos();
+        userBuckets.values().removeIf(bucket -> bucket.isIdle(now, idle));
+        ipBuckets.values().removeIf(bucket -> bucket.isIdle(now, idle));
+    }
+
+    int trackedBuckets() {
+        return userBuckets.size() + ipBuckets.size();
+    }
+
+    /**
+     * The events of one request, counted per user and per client IP.
+     */
+    public static final class Usage {
+
+        private final Map<String, Integer> perUser = new HashMap<>();
+        private final Map<String, Integer> perIp = new HashMap<>();
+        private int events;
+        private String lastUser;
+        private String lastIp;
+
+        public void add(String userHash, String ipAddress) {
+            events++;
+            lastUser = userHash;
+            lastIp = ipAddress == null ? UNKNOWN_IP : ipAddress;
+            perUser.merge(lastUser, 1, Integer::sum);
+            perIp.merge(lastIp, 1, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.analytics.events.ingest.service;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A lock-free Bloom filter over UUIDs that forgets old entries by rotating two generations.
+ *
+ * <p>Lookups check both generations, inserts go into the current one. Once the current one
+ * holds {@code capacity} entries or is older than {@code maxAgeNanos}, it becomes the previous
+ * generation and the old previous one is dropped. Both generations are swapped with a single
+ * compare-and-set, so concurrent lookups see either the old pair or the new one.</p>
+ */
+final class RotatingBloomFilter {
+
+    private final int capacity;
+    private final long maxAgeNanos;
+    private final int numBits;
+    private final int numHashes;
+    private final AtomicReference<Generations> generations;
+
+    RotatingBloomFilter(int capacity, double falsePositiveRate, long maxAgeNanos) {
+        if (capacity <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter sizing: " + capacity + " entries at " + falsePositiveRate);
+        }
+        this.capacity = capacity;
+        this.maxAgeNanos = maxAgeNanos;
+        long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.toIntExact(Math.max(Long.SIZE, (bits + Long.SIZE - 1) / Long.SIZE * Long.SIZE));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / capacity * Math.log(2)));
+        this.generations = new AtomicReference<>(new Generations(newFilter(), newFilter()));
+    }
+
+    private Filter newFilter() {
+        return new Filter(numBits / Long.SIZE, System.nanoTime());
+    }
+
+    boolean mightContain(UUID id) {
+        Generations current = generations.get();
+        long h1 = h1(id);
+        long h2 = h2(id);
+        return current.active().mightContain(h1, h2) || current.previous().mightContain(h1, h2);
+    }
+
+    void put(UUID id) {
+        Generations current = generations.get();
+        Filter active = current.active();
+        if (active.count.get() >= capacity || System.nanoTime() - active.createdNanos >= maxAgeNanos) {
+            Generations rotated = new Generations(newFilter(), active);
+            current = generations.compareAndSet(current, rotated) ? rotated : generations.get();
+        }
+        current.active().put(h1(id), h2(id));
+    }
+
+    /**
+     * @return bytes held by the bit arrays of both generations
+     */
+    long memoryBytes() {
+        return 2L * numBits / Byte.SIZE;
+    }
+
+    /**
+     * @return approximate number of IDs remembered across both generations
+     */
+    long size() {
+        Generations current = generations.get();
+        return current.active().count.get() + current.previous().count.get();
+    }
+
+    /**
+     * @return estimated probability that an unseen ID is reported as seen, given the current fill
+     */
+    double expectedFalsePositiveRate() {
+        Generations current = generations.get();
+        double active = fillProbability(current.active().count.get());
+        double previous = fillProbability(current.previous().count.get());
+        return 1 - (1 - active) * (1 - previous);
+    }
+
+    private double fillProbability(int entries) {
+        return Math.pow(1 - Math.exp(-(double) numHashes * entries / numBits), numHashes);
+    }
+
+    private long index(long h1, long h2, int i) {
+        return Long.remainderUnsigned(h1 + i * h2, numBits);
+    }
+
+    private static long h1(UUID id) {
+        return mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+    }
+
+    private static long h2(UUID id) {
+        return mix(id.getLeastSignificantBits() + 0x9E3779B97F4A7C15L) | 1;
+    }
+
+    /**
+     * MurmurHash3's 64-bit finalizer; client IDs such as time-ordered UUIDs are far from uniform.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    private record Generations(Filter active, Filter previous) {}
+
+    private final class Filter {
+
+        private final AtomicLongArray words;
+        private final long createdNanos;
+        private final AtomicInteger count = new AtomicInteger();
+
+        Filter(int words, long createdNanos) {
+            this.words = new AtomicLongArray(words);
+            this.createdNanos = createdNanos;
+        }
+
+        boolean mightContain(long h1, long h2) {
+            for (int i = 0; i < numHashes; i++) {
+                long bit = index(h1, h2, i);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(long h1, long h2) {
+            for (int i = 0; i < numHashes; i++) {
+                long bit = index(h1, h2, i);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                if ((words.get(word) & mask) == 0) {
+                    words.accumulateAndGet(word, mask, (current, set) -> current | set);
+                }
+            }
+            count.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package org.analytics.events.ingest.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.analytics.events.ingest.config.PipelineProperties;
+import org.analytics.events.ingest.config.SpoolProperties;
+import org.analytics.events.ingest.config.WorkerThreads;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.EventMessageCodec;
+import org.analytics.events.ingest.repository.EventBatchWriter;
+import org.analytics.events.ingest.spool.SpoolReplayer;
+import org.analytics.events.ingest.spool.SpoolWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Buffers accepted events in a local write-ahead log so that they survive a crash or restart of
+ * this node. Active with {@code ingest.pipeline.mode=spool}.
+ *
+ * <p>{@link #submit(List)} appends the encoded batch to the memory-mapped {@link SpoolWriter}
+ * and returns once the group commit covering it has been forced to disk, so a 202 response
+ * means the batch is on local disk. A single replay thread drains the log into the
+ * {@link EventBatchWriter} and deletes segments once they were written; events the database
+ * refuses are quarantined by the {@link SpoolReplayer} instead of blocking the log.</p>
+ *
+ * <p>When the unreplayed segments reach {@link SpoolProperties#maxDiskUsage()}, or the batch
+ * cannot be appended, it is rejected with an {@link IngestionBackpressureException}. Once
+ * appended, a batch is replayed whatever the client is told, so it is never rejected after that:
+ * a batch that does not become durable within {@link SpoolProperties#commitTimeout()} is accepted
+ * all the same, and counted in {@code ingest.spool.commit.timeouts}. Rejecting it would make the
+ * client retry events that are stored anyway, under new IDs.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "ingest.pipeline.mode", havingValue = "spool")
+public class SpoolIngestionPipeline implements IngestionPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(SpoolIngestionPipeline.class);
+
+    private final EventBatchWriter eventWriter;
+    private final SpoolProperties properties;
+    private final PipelineProperties pipelineProperties;
+    private final WorkerThreads workerThreads;
+    private final long maxSegments;
+    private final AtomicLong pending = new AtomicLong();
+
+    private final Timer commitLatency;
+    private final Counter commitTimeouts;
+    private final Counter acceptedEvents;
+    private final Counter rejectedEvents;
+    private final Counter writtenEvents;
+    private final Counter quarantinedEvents;
+    private final Counter failedBatches;
+
+    private SpoolWriter writer;
+    private SpoolReplayer replayer;
+    private Thread replayThread;
+    private volatile boolean running;
+
+    public SpoolIngestionPipeline(EventBatchWriter eventWriter, SpoolProperties properties,
+            PipelineProperties pipelineProperties, WorkerThreads workerThreads, MeterRegistry registry) {
+        this.eventWriter = eventWriter;
+        this.properties = properties;
+        this.pipelineProperties = pipelineProperties;
+        this.workerThreads = workerThreads;
+        this.maxSegments = Math.max(1, properties.maxDiskUsage().toBytes() / properties.segmentSize().toBytes());
+
+        Gauge.builder("ingest.spool.depth", this, SpoolIngestionPipeline::depth)
+            .description("Events spooled to disk but not yet written to the database")
+            .register(registry);
+        Gauge.builder("ingest.spool.segments", this, SpoolIngestionPipeline::segmentsOnDisk)
+            .description("Spool segment files not yet fully replayed")
+            .register(registry);
+        this.commitLatency = Timer.builder("ingest.spool.commit.latency")
+            .description("Time for an appended batch to be forced to disk")
+            .register(registry);
+        this.commitTimeouts = Counter.builder("ingest.spool.commit.timeouts")
+            .description("Batches accepted before the group commit covering them was forced to disk")
+            .register(registry);
+        this.acceptedEvents = eventCounter(registry, "accepted");
+        this.rejectedEvents = eventCounter(registry, "rejected");
+        this.writtenEvents = eventCounter(registry, "written");
+        this.quarantinedEvents = eventCounter(registry, "quarantined");
+        this.failedBatches = Counter.builder("ingest.spool.replay.failures").register(registry);
+    }
+
+    private static Counter eventCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("ingest.spool.events")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        writer = new SpoolWriter(properties.directory(), Math.toIntExact(properties.segmentSize().toBytes()),
+            properties.groupCommitWindow());
+        replayer = new SpoolReplayer(writer, eventWriter, pipelineProperties.batchSize());
+        running = true;
+        replayThread = workerThreads.factory("ingest-spool-replayer-").newThread(this::replayLoop);
+        replayThread.start();
+        log.info("Spooling accepted events to {}", properties.directory().toAbsolutePath());
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        running = false;
+        replayThread.join(TimeUnit.SECONDS.toMillis(30));
+        writer.close();
+        replayer.close();
+        if (depth() > 0) {
+            log.info("{} spooled events will be replayed on the next start", depth());
+        }
+    }
+
+    /**
+     * Appends a batch of events to the local spool and waits until it is durable, or until the
+     * commit timeout passed.
+     *
+     * @param events the events to persist
+     * @throws IngestionBackpressureException if the spool is full or the batch could not be appended
+     */
+    @Override
+    public void submit(List<BaseEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (!running || segmentsOnDisk() >= maxSegments) {
+            reject(events, "Ingestion spool is full");
+        }
+        byte[] record = EventMessageCodec.encodeBatch(events);
+        long start = System.nanoTime();
+        long ticket;
+        try {
+            ticket = writer.append(record);
+        } catch (IllegalArgumentException e) {
+            rejectedEvents.increment(events.size());
+            throw InvalidBatchException.payloadTooLarge(properties.segmentSize().toBytes());
+        } catch (IOException e) {
+            log.error("Failed to append {} events to the spool", events.size(), e);
+            reject(events, "Ingestion spool is unavailable");
+            return;
+        }
+        pending.addAndGet(events.size());
+        acceptedEvents.increment(events.size());
+        try {
+            if (!writer.awaitDurable(ticket, properties.commitTimeout())) {
+                commitTimeouts.increment();
+                log.warn("{} spooled events were not forced to disk within {}, accepting them anyway",
+                    events.size(), properties.commitTimeout());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commitLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void reject(List<BaseEvent> events, String reason) {
+        rejectedEvents.increment(events.size());
+        throw new IngestionBackpressureException(reason, pipelineProperties.retryAfter());
+    }
+
+    /**
+     * @return number of events spooled by this process but not yet written; events replayed from
+     *         a previous run are not counted
+     */
+    @Override
+    public int depth() {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, pending.get()));
+    }
+
+    private long segmentsOnDisk() {
+        return writer == null ? 0 : writer.activeSequence() - replayer.oldestSequence() + 1;
+    }
+
+    private void replayLoop() {
+        while (running) {
+            SpoolReplayer.Replayed replayed;
+            try {
+                replayed = replayer.replayOnce();
+            } catch (IOException | RuntimeException e) {
+                failedBatches.increment();
+                log.error("Failed to replay spooled events, retrying in {}", properties.replayInterval(), e);
+                replayed = new SpoolReplayer.Replayed(0, 0);
+            }
+            if (replayed.total() > 0) {
+                pending.addAndGet(-replayed.total());
+                writtenEvents.increment(replayed.written());
+                quarantinedEvents.increment(replayed.quarantined());
+            } else if (!pause()) {
+                return;
+            }
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.replayInterval());
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+}
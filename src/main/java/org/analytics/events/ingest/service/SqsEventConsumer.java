@@ -0,0 +1,189 @@
+package org.analytics.events.ingest.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.analytics.events.ingest.config.SqsProperties;
+import org.analytics.events.ingest.config.WorkerThreads;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.EventMessageCodec;
+import org.analytics.events.ingest.repository.EventBatchSplitter;
+import org.analytics.events.ingest.repository.EventBatchWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+
+/**
+ * Long-polls the ingestion queue and writes what it receives to the database, one
+ * {@link EventBatchWriter} call per receive. Messages are deleted only after the write succeeded;
+ * a failed write leaves them to be redelivered once their visibility timeout expires.
+ *
+ * <p>Messages are decoded one by one, and a batch the database refuses is written again in halves
+ * by the {@link EventBatchSplitter}, so a poison message does not hold up the others received with
+ * it. A message that cannot be decoded, or holds an event the database refuses, is not deleted:
+ * the queue is expected to have a redrive policy that moves it to a dead-letter queue after a few
+ * receives. Redelivering its other events is harmless, as they keep their IDs.</p>
+ *
+ * <p>Consumer lag, the time between SQS accepting a message and this consumer receiving it, is
+ * recorded from the {@code SentTimestamp} attribute.</p>
+ */
+@Service
+@ConditionalOnExpression("'${ingest.pipeline.mode:memory}' == 'sqs' and ${ingest.sqs.consumer-enabled:true}")
+public class SqsEventConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(SqsEventConsumer.class);
+
+    private final SqsClient sqsClient;
+    private final EventBatchWriter eventWriter;
+    private final SqsProperties properties;
+    private final WorkerThreads workerThreads;
+    private final Timer consumerLag;
+    private final Counter consumedEvents;
+    private final Counter failedEvents;
+
+    private ExecutorService consumers;
+    private volatile boolean running;
+
+    public SqsEventConsumer(SqsClient sqsClient, EventBatchWriter eventWriter, SqsProperties properties,
+            WorkerThreads workerThreads, MeterRegistry registry) {
+        this.sqsClient = sqsClient;
+        this.eventWriter = eventWriter;
+        this.properties = properties;
+        this.workerThreads = workerThreads;
+        this.consumerLag = Timer.builder("ingest.sqs.consumer.lag")
+            .description("Time from SQS accepting a message to it being received for persistence")
+            .register(registry);
+        this.consumedEvents = Counter.builder("ingest.sqs.consumer.events").tag("outcome", "written").register(registry);
+        this.failedEvents = Counter.builder("ingest.sqs.consumer.events").tag("outcome", "failed").register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        consumers = Executors.newThreadPerTaskExecutor(workerThreads.factory("ingest-sqs-consumer-"));
+        for (int i = 0; i < properties.consumerThreads(); i++) {
+            consumers.execute(this::pollLoop);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        consumers.shutdown();
+        if (!consumers.awaitTermination(properties.waitTime().toSeconds() + 5, TimeUnit.SECONDS)) {
+            consumers.shutdownNow();
+        }
+    }
+
+    private void pollLoop() {
+        while (running) {
+            try {
+                pollOnce();
+            } catch (RuntimeException e) {
+                log.warn("Polling the ingestion queue failed", e);
+                sleepQuietly(Duration.ofSeconds(1));
+            }
+        }
+    }
+
+    /**
+     * Receives up to ten messages, writes their events in one batch and deletes the messages that
+     * were written completely.
+     *
+     * @return number of events written
+     */
+    int pollOnce() {
+        List<Message> messages = sqsClient.receiveMessage(ReceiveMessageRequest.builder()
+            .queueUrl(properties.queueUrl())
+            .maxNumberOfMessages(SqsIngestionPipeline.MAX_ENTRIES_PER_REQUEST)
+            .waitTimeSeconds((int) properties.waitTime().toSeconds())
+            .messageSystemAttributeNames(MessageSystemAttributeName.SENT_TIMESTAMP)
+            .build()).messages();
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        Map<Message, List<BaseEvent>> decoded = new LinkedHashMap<>();
+        List<BaseEvent> events = new ArrayList<>();
+        for (Message message : messages) {
+            String sentTimestamp = message.attributes().get(MessageSystemAttributeName.SENT_TIMESTAMP);
+            if (sentTimestamp != null) {
+                consumerLag.record(Duration.ofMillis(Math.max(0, now - Long.parseLong(sentTimestamp))));
+            }
+            try {
+                List<BaseEvent> messageEvents = EventMessageCodec.decodeBatch(message.body());
+                decoded.put(message, messageEvents);
+                events.addAll(messageEvents);
+            } catch (RuntimeException e) {
+                log.error("Cannot decode queue message {}, leaving it to the redrive policy", message.messageId(), e);
+            }
+        }
+
+        Set<BaseEvent> refused = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (!events.isEmpty()) {
+            try {
+                refused.addAll(EventBatchSplitter.write(eventWriter, events));
+            } catch (RuntimeException e) {
+                failedEvents.increment(events.size());
+                log.error("Failed to persist {} events from {} queue messages", events.size(), messages.size(), e);
+                return 0;
+            }
+        }
+        consumedEvents.increment(events.size() - refused.size());
+        if (!refused.isEmpty()) {
+            failedEvents.increment(refused.size());
+        }
+
+        List<DeleteMessageBatchRequestEntry> deletes = new ArrayList<>(decoded.size());
+        for (Map.Entry<Message, List<BaseEvent>> entry : decoded.entrySet()) {
+            Message message = entry.getKey();
+            if (entry.getValue().stream().anyMatch(refused::contains)) {
+                log.error("Database refused events of queue message {}, leaving it to the redrive policy",
+                    message.messageId());
+                continue;
+            }
+            deletes.add(DeleteMessageBatchRequestEntry.builder()
+                .id(Integer.toString(deletes.size()))
+                .receiptHandle(message.receiptHandle())
+                .build());
+        }
+        if (!deletes.isEmpty()) {
+            sqsClient.deleteMessageBatch(DeleteMessageBatchRequest.builder()
+                .queueUrl(properties.queueUrl())
+                .entries(deletes)
+                .build());
+        }
+        return events.size() - refused.size();
+    }
+
+    private static void sleepQuietly(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.analytics.events.ingest.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.analytics.events.ingest.config.PipelineProperties;
+import org.analytics.events.ingest.config.SqsProperties;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.EventMessageCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+
+/**
+ * Publishes accepted events to SQS instead of buffering them in memory, decoupling request
+ * latency from the database entirely. {@link SqsEventConsumer} writes them to the database.
+ * Active with {@code ingest.pipeline.mode=sqs}.
+ *
+ * <p>Events are packed into as few {@code SendMessageBatch} calls as possible: each message
+ * body is a JSON array of events, and each call carries at most ten messages whose bodies add up
+ * to no more than {@link SqsProperties#maxRequestSize()}. A batch is only acknowledged to the
+ * client once every message of it was accepted by SQS.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "ingest.pipeline.mode", havingValue = "sqs")
+public class SqsIngestionPipeline implements IngestionPipeline {
+
+    static final int MAX_ENTRIES_PER_REQUEST = 10;
+
+    private static final Logger log = LoggerFactory.getLogger(SqsIngestionPipeline.class);
+
+    private final SqsClient sqsClient;
+    private final SqsProperties properties;
+    private final PipelineProperties pipelineProperties;
+    private final Timer publishLatency;
+    private final Counter publishedEvents;
+    private final Counter rejectedEvents;
+
+    public SqsIngestionPipeline(SqsClient sqsClient, SqsProperties properties, PipelineProperties pipelineProperties,
+            MeterRegistry registry) {
+        this.sqsClient = sqsClient;
+        this.properties = properties;
+        this.pipelineProperties = pipelineProperties;
+        this.publishLatency = Timer.builder("ingest.sqs.publish.latency")
+            .description("Time to publish one ingestion batch to SQS")
+            .register(registry);
+        this.publishedEvents = Counter.builder("ingest.sqs.events").tag("outcome", "published").register(registry);
+        this.rejectedEvents = Counter.builder("ingest.sqs.events").tag("outcome", "rejected").register(registry);
+    }
+
+    @Override
+    public void submit(List<BaseEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            publishLatency.record(() -> {
+                for (SendMessageBatchRequest request : pack(events)) {
+                    send(request);
+                }
+            });
+            publishedEvents.increment(events.size());
+        } catch (SdkException e) {
+            rejectedEvents.increment(events.size());
+            log.warn("Publishing {} events to SQS failed", events.size(), e);
+            throw new IngestionBackpressureException("Event queue is unavailable", pipelineProperties.retryAfter());
+        }
+    }
+
+    /**
+     * The events stay on the queue, not on this node.
+     */
+    @Override
+    public int depth() {
+        return 0;
+    }
+
+    List<SendMessageBatchRequest> pack(List<BaseEvent> events) {
+        long maxBytes = properties.maxRequestSize().toBytes();
+        List<SendMessageBatchRequest> requests = new ArrayList<>();
+        List<SendMessageBatchRequestEntry> entries = new ArrayList<>(MAX_ENTRIES_PER_REQUEST);
+        List<String> body = new ArrayList<>();
+        long requestBytes = 0;
+        long bodyBytes = 2; // enclosing brackets
+
+        for (BaseEvent event : events) {
+            String encoded = EventMessageCodec.encode(event);
+            long eventBytes = encoded.getBytes(StandardCharsets.UTF_8).length + 1; // separating comma
+            if (!body.isEmpty() && requestBytes + bodyBytes + eventBytes > maxBytes) {
+                entries.add(entry(entries.size(), body));
+                requestBytes += bodyBytes;
+                body = new ArrayList<>();
+                bodyBytes = 2;
+            }
+            if (!entries.isEmpty() && (entries.size() == MAX_ENTRIES_PER_REQUEST
+                    || requestBytes + bodyBytes + eventBytes > maxBytes)) {
+                requests.add(request(entries));
+                entries = new ArrayList<>(MAX_ENTRIES_PER_REQUEST);
+                requestBytes = 0;
+            }
+            body.add(encoded);
+            bodyBytes += eventBytes;
+        }
+        entries.add(entry(entries.size(), body));
+        requests.add(request(entries));
+        return requests;
+    }
+
+    private SendMessageBatchRequestEntry entry(int index, List<String> body) {
+        return SendMessageBatchRequestEntry.builder()
+            .id(Integer.toString(index))
+            .messageBody(EventMessageCodec.joinBatch(body))
+            .build();
+    }
+
+    private SendMessageBatchRequest request(List<SendMessageBatchRequestEntry> entries) {
+        return SendMessageBatchRequest.builder()
+            .queueUrl(properties.queueUrl())
+            .entries(entries)
+            .build();
+    }
+
+    private void send(SendMessageBatchRequest request) {
+        SendMessageBatchResponse response = sqsClient.sendMessageBatch(request);
+        if (response.hasFailed() && !response.failed().isEmpty()) {
+            // Retry only the failed entries once; anything still failing fails the whole batch.
+            List<SendMessageBatchRequestEntry> retry = request.entries().stream()
+                .filter(entry -> response.failed().stream().anyMatch(failed -> failed.id().equals(entry.id())))
+                .toList();
+            SendMessageBatchResponse retried = sqsClient.sendMessageBatch(request.toBuilder().entries(retry).build());
+            if (retried.hasFailed() && !retried.failed().isEmpty()) {
+                throw SdkException.builder()
+                    .message("SQS rejected " + retried.failed().size() + " messages: " + retried.failed().get(0).message())
+                    .build();
+            }
+        }
+    }
+}
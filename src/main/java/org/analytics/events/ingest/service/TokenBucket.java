@@ -0,0 +1,70 @@
+package org.analytics.events.ingest.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket, kept as a single theoretical arrival time (the generic cell rate
+ * algorithm): the bucket is full when that time is not after now, and every permit pushes it
+ * one emission interval further. Acquiring is one compare-and-set.
+ *
+ * <p>The rate is passed on every call so that all buckets follow the adaptive rate factor at once.
+ * A request needs {@code min(permits, burst)} tokens to be available and is then charged all of
+ * its permits, so a bulk upload larger than the burst is accepted from a full bucket and paid back
+ * by waiting.</p>
+ */
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(long nowNanos) {
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return zero if the permits were acquired, otherwise the nanoseconds until they would be
+     */
+    long tryAcquire(int permits, double ratePerSecond, int burst, long nowNanos) {
+        long interval = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        long tolerance = interval * burst;
+        long required = interval * Math.min(permits, burst);
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long base = Math.max(arrival, nowNanos);
+            long wait = base + required - nowNanos - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, base + interval * permits)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Looks at the bucket without taking anything from it.
+     *
+     * @return zero if {@link #tryAcquire} would currently grant the permits, otherwise the
+     *         nanoseconds until it would
+     */
+    long waitFor(int permits, double ratePerSecond, int burst, long nowNanos) {
+        long interval = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        long base = Math.max(theoreticalArrival.get(), nowNanos);
+        return Math.max(0, base + interval * (Math.min(permits, burst) - burst) - nowNanos);
+    }
+
+    /**
+     * Gives back permits taken by {@link #tryAcquire} for a request that was rejected elsewhere.
+     */
+    void release(int permits, double ratePerSecond) {
+        long interval = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        theoreticalArrival.addAndGet(-interval * permits);
+    }
+
+    /**
+     * @return true if the bucket has been full for at least {@code idleNanos}; evicting it then
+     *         loses nothing, since a new bucket starts out full
+     */
+    boolean isIdle(long nowNanos, long idleNanos) {
+        return theoreticalArrival.get() + idleNanos <= nowNanos;
+    }
+}
@@ -0,0 +1,11 @@
+package org.analytics.events.ingest.spool;
+
+/**
+ * A byte offset within a numbered spool segment.
+ */
+record SpoolPosition(long segment, int offset) {
+
+    boolean isBefore(SpoolPosition other) {
+        return segment < other.segment || (segment == other.segment && offset < other.offset);
+    }
+}
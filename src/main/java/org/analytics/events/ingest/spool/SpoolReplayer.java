@@ -0,0 +1,201 @@
+package org.analytics.events.ingest.spool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.EventMessageCodec;
+import org.analytics.events.ingest.repository.EventBatchSplitter;
+import org.analytics.events.ingest.repository.EventBatchWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drains durable spool records into the database and deletes segments once they were written.
+ *
+ * <p>Progress is kept in a small checkpoint file holding the position after the last record
+ * that was written successfully. The checkpoint is only advanced after
+ * {@link EventBatchWriter#write(List)} returned, so after a crash the records since the last
+ * checkpoint are replayed again: delivery is at least once.</p>
+ *
+ * <p>A batch the database refuses is written again in halves by the {@link EventBatchSplitter}.
+ * The events it refuses on their own, such as a value longer than its column, are moved to a file
+ * in the {@code quarantine} directory of the spool and the checkpoint advances past them, so that
+ * they cannot hold up the records behind them. A record that cannot be decoded is moved there as
+ * well. When the database is unavailable, nothing is quarantined and the records are retried.</p>
+ *
+ * <p>Not thread-safe; meant to be driven by a single replay thread.</p>
+ */
+public final class SpoolReplayer implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(SpoolReplayer.class);
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String QUARANTINE = "quarantine";
+
+    private final SpoolWriter writer;
+    private final EventBatchWriter eventWriter;
+    private final int batchSize;
+    private final Path checkpointFile;
+
+    private volatile SpoolPosition checkpoint;
+    private SpoolSegment reading;
+
+    public SpoolReplayer(SpoolWriter writer, EventBatchWriter eventWriter, int batchSize) throws IOException {
+        this.writer = writer;
+        this.eventWriter = eventWriter;
+        this.batchSize = batchSize;
+        this.checkpointFile = writer.directory().resolve(CHECKPOINT);
+        this.checkpoint = loadCheckpoint();
+    }
+
+    private SpoolPosition loadCheckpoint() throws IOException {
+        long oldest = nextSequence(-1);
+        if (Files.exists(checkpointFile)) {
+            ByteBuffer saved = ByteBuffer.wrap(Files.readAllBytes(checkpointFile));
+            SpoolPosition position = new SpoolPosition(saved.getLong(), saved.getInt());
+            if (position.segment() >= oldest) {
+                return position;
+            }
+        }
+        return new SpoolPosition(oldest, 0);
+    }
+
+    /**
+     * Events taken off the log by one {@link #replayOnce()}.
+     *
+     * @param written events written to the database
+     * @param quarantined events the database refused, moved to the quarantine directory
+     */
+    public record Replayed(int written, int quarantined) {
+
+        public int total() {
+            return written + quarantined;
+        }
+    }
+
+    /**
+     * Writes the next durable records, up to roughly one batch of events, and advances the checkpoint.
+     *
+     * @return the events taken off the log; none if the log is drained
+     * @throws RuntimeException if the database is unavailable; the records are retried on the next call
+     */
+    public Replayed replayOnce() throws IOException {
+        SpoolPosition durable = writer.durablePosition();
+        SpoolPosition position = checkpoint;
+        List<BaseEvent> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize && position.isBefore(durable)) {
+            byte[] record = segment(position.segment()).readRecord(position.offset());
+            if (record == null) {
+                if (position.segment() == durable.segment()) {
+                    log.error("Unreadable spool record at {}; waiting for it to become valid", position);
+                    break;
+                }
+                position = new SpoolPosition(nextSequence(position.segment()), 0);
+                continue;
+            }
+            try {
+                batch.addAll(EventMessageCodec.decodeBatch(record, 0, record.length));
+            } catch (RuntimeException e) {
+                log.error("Undecodable spool record at {}", position, e);
+                quarantine(position, ".bin", record);
+            }
+            position = new SpoolPosition(position.segment(), position.offset() + SpoolSegment.HEADER_BYTES + record.length);
+        }
+        List<BaseEvent> refused = batch.isEmpty() ? List.of() : EventBatchSplitter.write(eventWriter, batch);
+        if (!refused.isEmpty()) {
+            quarantine(checkpoint, ".json", EventMessageCodec.encodeBatch(refused));
+            log.error("Database refused {} spooled events, moved them to the {} directory", refused.size(), QUARANTINE);
+        }
+        if (!position.equals(checkpoint)) {
+            saveCheckpoint(position);
+            deleteSegmentsBefore(position.segment());
+            checkpoint = position;
+        }
+        return new Replayed(batch.size() - refused.size(), refused.size());
+    }
+
+    /**
+     * Keeps content taken off the log in a file named after the position it was read from, so that
+     * a replay repeated after a crash overwrites the file rather than adding a copy.
+     */
+    private void quarantine(SpoolPosition position, String suffix, byte[] content) throws IOException {
+        Path directory = writer.directory().resolve(QUARANTINE);
+        Files.createDirectories(directory);
+        Path file = directory.resolve(position.segment() + "-" + position.offset() + suffix);
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(content));
+            channel.force(true);
+        }
+    }
+
+    /**
+     * @return the oldest segment that still holds records to replay
+     */
+    public long oldestSequence() {
+        return checkpoint.segment();
+    }
+
+    private SpoolSegment segment(long sequence) throws IOException {
+        if (reading == null || reading.sequence() != sequence) {
+            if (reading != null) {
+                reading.close();
+            }
+            reading = SpoolSegment.openForReading(writer.directory(), sequence);
+        }
+        return reading;
+    }
+
+    /**
+     * @return the lowest segment sequence on disk above {@code after}, or the active segment if there is none
+     */
+    private long nextSequence(long after) throws IOException {
+        try (Stream<Path> files = Files.list(writer.directory())) {
+            return files.mapToLong(SpoolSegment::parseSequence)
+                .filter(sequence -> sequence > after)
+                .min()
+                .orElse(writer.activeSequence());
+        }
+    }
+
+    private void saveCheckpoint(SpoolPosition position) throws IOException {
+        Path temp = checkpointFile.resolveSibling(CHECKPOINT + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES + Integer.BYTES)
+                .putLong(position.segment())
+                .putInt(position.offset())
+                .flip());
+            channel.force(true);
+        }
+        Files.move(temp, checkpointFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void deleteSegmentsBefore(long sequence) throws IOException {
+        try (Stream<Path> files = Files.list(writer.directory())) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                long fileSequence = SpoolSegment.parseSequence(file);
+                if (fileSequence >= 0 && fileSequence < sequence) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reading != null) {
+            reading.close();
+            reading = null;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.analytics.events.ingest.spool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * One fixed-size, memory-mapped spool file.
+ *
+ * <p>Records are laid out as {@code [length:int][crc32c:int][payload]}. The length is written
+ * last, and unused space in a mapped file reads as zeros, so a zero or implausible length, or a
+ * checksum mismatch, marks the end of the valid records. This covers both a segment that was
+ * sealed early and a record torn by a crash.</p>
+ */
+final class SpoolSegment implements Closeable {
+
+    static final int HEADER_BYTES = 8;
+    private static final String SUFFIX = ".seg";
+
+    private final long sequence;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    private volatile int writePosition;
+    private int flushedPosition;
+
+    private SpoolSegment(long sequence, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity();
+    }
+
+    static SpoolSegment create(Path directory, long sequence, int size) throws IOException {
+        Path path = directory.resolve(fileName(sequence));
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new SpoolSegment(sequence, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    static SpoolSegment openForReading(Path directory, long sequence) throws IOException {
+        Path path = directory.resolve(fileName(sequence));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        return new SpoolSegment(sequence, path, channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+
+    static String fileName(long sequence) {
+        return String.format("%020d%s", sequence, SUFFIX);
+    }
+
+    /**
+     * @return the segment sequence encoded in a spool file name, or -1 if it is not a segment
+     */
+    static long parseSequence(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    /**
+     * Appends one record. Only called by the single appending thread holding the writer's lock.
+     *
+     * @return false if the record does not fit into the remaining space
+     */
+    boolean tryAppend(byte[] payload) {
+        int position = writePosition;
+        if ((long) position + HEADER_BYTES + payload.length > capacity) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        buffer.put(position + HEADER_BYTES, payload);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putInt(position, payload.length);
+        writePosition = position + HEADER_BYTES + payload.length;
+        return true;
+    }
+
+    /**
+     * Forces everything written since the previous call to disk. Only called by the flusher thread.
+     */
+    void force(int upTo) {
+        if (upTo > flushedPosition) {
+            buffer.force(flushedPosition, upTo - flushedPosition);
+            flushedPosition = upTo;
+        }
+    }
+
+    /**
+     * @return the payload of the record starting at {@code position}, or {@code null} if there is
+     *         no complete, intact record there
+     */
+    byte[] readRecord(int position) {
+        if ((long) position + HEADER_BYTES > capacity) {
+            return null;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || (long) position + HEADER_BYTES + length > capacity) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(position + HEADER_BYTES, payload);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue() == buffer.getInt(position + 4) ? payload : null;
+    }
+
+    /**
+     * Closes the file channel. The mapping itself is released by the garbage collector.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,233 @@
+package org.analytics.events.ingest.spool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Appends records to a rotating sequence of memory-mapped segments and makes them durable with
+ * group commit.
+ *
+ * <p>{@link #append(byte[])} only copies the record into the active mapping and returns a ticket.
+ * A single flusher thread waits for the group commit window to collect further appends, then
+ * forces every dirty range to disk with one call per segment and releases all callers waiting in
+ * {@link #awaitDurable(long, Duration)} up to that point. Under load one fsync therefore covers
+ * many requests.</p>
+ *
+ * <p>A new writer always starts a fresh segment after the highest one found on disk; older
+ * segments are left to the {@link SpoolReplayer}.</p>
+ */
+public final class SpoolWriter implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(SpoolWriter.class);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long groupCommitWindowNanos;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private SpoolSegment active;
+    private final List<SpoolSegment> sealedUnflushed = new ArrayList<>();
+    private volatile long appendedRecords;
+
+    /**
+     * Held for a whole flush, so that the flusher and {@link #close()} never flush at the same time.
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private boolean closed;
+
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durableAdvanced = durableLock.newCondition();
+    private volatile long durableRecords;
+    private volatile SpoolPosition durablePosition;
+
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public SpoolWriter(Path directory, int segmentSize, Duration groupCommitWindow) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.groupCommitWindowNanos = groupCommitWindow.toNanos();
+        Files.createDirectories(directory);
+        this.active = SpoolSegment.create(directory, highestSequence(directory) + 1, segmentSize);
+        this.durablePosition = new SpoolPosition(active.sequence(), 0);
+        this.flusher = Thread.ofPlatform().name("ingest-spool-flusher").daemon().start(this::flushLoop);
+    }
+
+    static long highestSequence(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(SpoolSegment::parseSequence).max().orElse(0);
+        }
+    }
+
+    /**
+     * Appends one record to the log. The record is not durable until
+     * {@link #awaitDurable(long, Duration)} returns {@code true} for the returned ticket.
+     *
+     * @return the ticket of the record
+     * @throws IllegalArgumentException if the record is larger than a segment
+     */
+    public long append(byte[] payload) throws IOException {
+        long ticket;
+        appendLock.lock();
+        try {
+            if (!active.tryAppend(payload)) {
+                rotate();
+                if (!active.tryAppend(payload)) {
+                    throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds the spool segment size");
+                }
+            }
+            ticket = ++appendedRecords;
+        } finally {
+            appendLock.unlock();
+        }
+        LockSupport.unpark(flusher);
+        return ticket;
+    }
+
+    private void rotate() throws IOException {
+        sealedUnflushed.add(active);
+        active = SpoolSegment.create(directory, active.sequence() + 1, segmentSize);
+    }
+
+    /**
+     * Waits until the record with the given ticket has been forced to disk.
+     *
+     * @return false if it did not become durable within the timeout
+     */
+    public boolean awaitDurable(long ticket, Duration timeout) throws InterruptedException {
+        if (durableRecords >= ticket) {
+            return true;
+        }
+        long remaining = timeout.toNanos();
+        durableLock.lock();
+        try {
+            while (durableRecords < ticket) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = durableAdvanced.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * @return the position up to which records are durable; the replayer never reads past it
+     */
+    SpoolPosition durablePosition() {
+        return durablePosition;
+    }
+
+    long activeSequence() {
+        return durablePosition.segment();
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    private void flushLoop() {
+        while (running) {
+            if (appendedRecords == durableRecords) {
+                LockSupport.park(this);
+                continue;
+            }
+            if (groupCommitWindowNanos > 0) {
+                LockSupport.parkNanos(this, groupCommitWindowNanos);
+            }
+            try {
+                flush();
+            } catch (UncheckedIOException | IOException e) {
+                log.error("Failed to force spool segment to disk", e);
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        }
+    }
+
+    /**
+     * Forces all appended records to disk and publishes them as durable. A sealed segment stays
+     * due until it was forced, so a failed flush is repeated in full by the next one and nothing
+     * is published past the segment that failed.
+     */
+    void flush() throws IOException {
+        flushLock.lock();
+        try {
+            if (!closed) {
+                forceAndPublish();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void forceAndPublish() throws IOException {
+        long target;
+        SpoolSegment segment;
+        int position;
+        List<SpoolSegment> sealed;
+        appendLock.lock();
+        try {
+            target = appendedRecords;
+            segment = active;
+            position = active.writePosition();
+            sealed = new ArrayList<>(sealedUnflushed);
+        } finally {
+            appendLock.unlock();
+        }
+        for (SpoolSegment sealedSegment : sealed) {
+            sealedSegment.force(sealedSegment.writePosition());
+            appendLock.lock();
+            try {
+                sealedUnflushed.remove(sealedSegment);
+            } finally {
+                appendLock.unlock();
+            }
+            sealedSegment.close();
+        }
+        segment.force(position);
+
+        durablePosition = new SpoolPosition(segment.sequence(), position);
+        durableLock.lock();
+        try {
+            durableRecords = target;
+            durableAdvanced.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushLock.lock();
+        try {
+            forceAndPublish();
+            closed = true;
+            active.close();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+}
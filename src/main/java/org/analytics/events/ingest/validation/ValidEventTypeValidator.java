@@ -12,11 +12,6 @@ public class ValidEventTypeValidator implements ConstraintValidator<ValidEventTy
         if (value == null) {
             return true; // null values are handled by @NotNull or @NotEmpty
         }
-        try {
-            EventType.fromValue(value);
-            return true;
-        } catch (IllegalArgumentException e) {
-            return false;
-        }
+        return EventType.lookup(value) != null;
     }
 }
@@ -2,19 +2,32 @@ package org.analytics.events.ingest.validation;
 
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
-import java.util.regex.Pattern;
 
 public class ValidHashValidator implements ConstraintValidator<ValidHash, String> {
 
-    // Pattern for 32-character hexadecimal string (MD5 hash format)
-    private static final Pattern HASH_PATTERN = Pattern.compile("^[a-fA-F0-9]{32}$");
+    // 32-character hexadecimal string (MD5 hash format)
+    private static final int HASH_LENGTH = 32;
 
     @Override
     public boolean isValid(String userHash, ConstraintValidatorContext context) {
-        if (userHash == null || userHash.trim().isEmpty()) {
+        return isValidHash(userHash);
+    }
+
+    /**
+     * Checks the hash format with a plain character scan. This runs for every ingested event,
+     * so it avoids the regex matcher and any other allocation.
+     */
+    public static boolean isValidHash(String userHash) {
+        if (userHash == null || userHash.length() != HASH_LENGTH) {
             return false;
         }
-
-        return HASH_PATTERN.matcher(userHash).matches();
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            char c = userHash.charAt(i);
+            boolean hex = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+            if (!hex) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -2,30 +2,91 @@ package org.analytics.events.ingest.controller;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.mockito.ArgumentCaptor;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.analytics.events.ingest.config.ClientProfileProperties;
+import org.analytics.events.ingest.config.DedupProperties;
+import org.analytics.events.ingest.config.EnrichmentProperties;
+import org.analytics.events.ingest.config.EventLogProperties;
+import org.analytics.events.ingest.config.IngestLimitsProperties;
 import org.analytics.events.ingest.dto.EventRequestDTO;
+import org.analytics.events.ingest.enrichment.EventEnricher;
+import org.analytics.events.ingest.mapper.ClientInfoInterner;
+import org.analytics.events.ingest.mapper.EventMapper;
+import org.analytics.events.ingest.model.BaseEvent;
 import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.service.DataSchemaTracker;
+import org.analytics.events.ingest.service.EventDeduplicator;
+import org.analytics.events.ingest.service.EventLog;
+import org.analytics.events.ingest.service.EventRollups;
+import org.analytics.events.ingest.service.EventStreamReader;
+import org.analytics.events.ingest.service.IngestMetrics;
+import org.analytics.events.ingest.service.IngestionBackpressureException;
+import org.analytics.events.ingest.service.IngestionPipeline;
+import org.analytics.events.ingest.service.NdjsonEventReader;
+import org.analytics.events.ingest.service.RateLimitExceededException;
+import org.analytics.events.ingest.service.RateLimiter;
 
 @WebMvcTest(IngestEventController.class)
+@Import({ EventMapper.class, ClientInfoInterner.class, EventStreamReader.class, NdjsonEventReader.class, EventDeduplicator.class,
+                IngestMetrics.class, EventLog.class, EventEnricher.class, SimpleMeterRegistry.class })
+@EnableConfigurationProperties({ IngestLimitsProperties.class, DedupProperties.class, EventLogProperties.class,
+                ClientProfileProperties.class, EnrichmentProperties.class })
 @DisplayName("App analytics ingestion requests")
 public class IngestEventControllerTests {
 
         @Autowired
         private MockMvc mockMvc;
 
+        @MockitoBean
+        private IngestionPipeline ingestionPipeline;
+
+        @MockitoBean
+        private RateLimiter rateLimiter;
+
+        @MockitoBean
+        private EventRollups eventRollups;
+
+        @MockitoBean
+        private DataSchemaTracker dataSchemaTracker;
+
         @Nested
         @DisplayName("Given an empty request")
         class EmptyPayloadTests {
@@ -43,6 +104,35 @@ public class IngestEventControllerTests {
                 }
         }
 
+        @Nested
+        @DisplayName("Given a malformed request body")
+        class MalformedPayloadTests {
+
+                @Test
+                @DisplayName("""
+                                When the request body is a single event instead of an array,
+                                Then return 400 error""")
+                void shouldReturn400ForNonArrayPayload() throws Exception {
+                        mockMvc.perform(post("/ingest")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("{\"eventType\": \"PAGE_VIEW\"}"))
+                                        .andExpect(status().isBadRequest())
+                                        .andExpect(content().string(
+                                                        "Request body must be an array of events or an object with an events array"));
+                }
+
+                @Test
+                @DisplayName("""
+                                When the request body is truncated JSON,
+                                Then return 400 error""")
+                void shouldReturn400ForTruncatedPayload() throws Exception {
+                        mockMvc.perform(post("/ingest")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("[{\"eventType\": \"PAGE_VIEW\", \"userHash\": "))
+                                        .andExpect(status().isBadRequest());
+                }
+        }
+
         @Nested
         @DisplayName("Given a request with valid content")
         class ValidPayloadTests {
@@ -61,24 +151,24 @@ public class IngestEventControllerTests {
                 @DisplayName("""
                                 Given a single valid event,
                                 When the event is sent to the ingest endpoint,
-                                Then it should return a 200 OK response with a success message""")
-                void shouldReturn200ForSingleValidEvent() throws Exception {
+                                Then it should return a 202 Accepted response with a success message""")
+                void shouldReturn202ForSingleValidEvent() throws Exception {
                         List<EventRequestDTO> events = Collections.singletonList(createValidEvent());
                         String payload = objectMapper.writeValueAsString(events);
 
                         mockMvc.perform(post("/ingest")
                                         .contentType(MediaType.APPLICATION_JSON)
                                         .content(payload))
-                                        .andExpect(status().isOk())
-                                        .andExpect(content().string("Events ingested successfully: 1"));
+                                        .andExpect(status().isAccepted())
+                                        .andExpect(content().string("Events accepted: 1"));
                 }
 
                 @Test
                 @DisplayName("""
                                 Given multiple valid events,
                                 When the events are sent to the ingest endpoint,
-                                Then it should return a 200 OK response with a success message""")
-                void shouldReturn200ForMultipleValidEvents() throws Exception {
+                                Then it should return a 202 Accepted response with a success message""")
+                void shouldReturn202ForMultipleValidEvents() throws Exception {
                         List<EventRequestDTO> events = List.of(
                                         createValidEvent(),
                                         new EventRequestDTO(
@@ -92,8 +182,331 @@ public class IngestEventControllerTests {
                         mockMvc.perform(post("/ingest")
                                         .contentType(MediaType.APPLICATION_JSON)
                                         .content(payload))
-                                        .andExpect(status().isOk())
-                                        .andExpect(content().string("Events ingested successfully: 2"));
+                                        .andExpect(status().isAccepted())
+                                        .andExpect(content().string("Events accepted: 2"));
+                }
+
+                @Test
+                @DisplayName("""
+                                Given events using both the value and the name form of the event type,
+                                When the events are sent to the ingest endpoint,
+                                Then it should return a 202 Accepted response with a success message""")
+                void shouldAcceptEventTypeValueAndNameForms() throws Exception {
+                        String payload = """
+                                        [
+                                            {"eventType": "pageView", "userHash": "e9c0494b2b14ca2b48258c05dd6c4c14", "data": {}},
+                                            {"eventType": "PAGE_VIEW", "userHash": "e9c0494b2b14ca2b48258c05dd6c4c14", "data": {}}
+                                        ]""";
+
+                        mockMvc.perform(post("/ingest")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(payload))
+                                        .andExpect(status().isAccepted())
+                                        .andExpect(content().string("Events accepted: 2"));
+                }
+
+                @Test
+                @DisplayName("""
+                                Given valid events encoded as CBOR,
+                                When the events are sent to the ingest endpoint with a CBOR content type,
+                                Then it should return a 202 Accepted response with a success message""")
+                void shouldReturn202ForCborEncodedEvents() throws Exception {
+                        byte[] payload = objectMapper.copyWith(new CBORFactory())
+                                        .writeValueAsBytes(List.of(createValidEvent(), createValidEvent()));
+
+                        mockMvc.perform(post("/ingest")
+                                        .contentType(MediaType.APPLICATION_CBOR)
+                                        .content(payload))
+                                        .andExpect(status().isAccepted())
+                                        .andExpect(content().string("Events accepted: 2"));
+                }
+
+                @Test
+                @DisplayName("""
+                                Given the ingestion queue is full,
+                                When valid events are sent to the ingest endpoint,
+                                Then it should return a 503 Service Unavailable response with a Retry-After header""")
+                void shouldReturn503WhenPipelineIsFull() throws Exception {
+                        doThrow(new IngestionBackpressureException("Ingestion queue is full", Duration.ofSeconds(5)))
+                                        .when(ingestionPipeline).submit(anyList());
+                        String payload = objectMapper.writeValueAsString(List.of(createValidEvent()));
+
+                        mockMvc.perform(post("/ingest")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(payload))
+                                        .andExpect(status().isServiceUnavailable())
+                                        .andExpect(header().string("Retry-After", "5"));
+                }
+
+                @Test
+                @DisplayName("""
+                                Given a client over its rate limit,
+                                When valid events are sent to the ingest endpoint,
+                                Then it should return a 429 Too Many Requests response with a Retry-After header""")
+                void shouldReturn429WhenRateLimited() throws Exception {
+                        doThrow(new RateLimitExceededException("Rate limit exceeded for user", Duration.ofMillis(1500)))
+                                        .when(rateLimiter).acquire(any());
+                        String payload = objectMapper.writeValueAsString(List.of(createValidEvent()));
+
+                        mockMvc.perform(post("/ingest")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(payload))
+                                        .andExpect(status().isTooManyRequests())
+                                        .andExpect(header().string("Retry-After", "2"));
+                }
+
+                @Test
+                @DisplayName("""
+                                Given a client address over its rate limit,
+                                When valid events are sent to the ingest endpoint,
+                                Then it should return 429 without reading the events""")
+                void shouldReturn429BeforeReadingBody() throws Exception {
+                        doThrow(new RateLimitExceededException("Rate limit exceeded for client address",
+                                        Duration.ofSeconds(1))).when(rateLimiter).checkAddress(any());
+                        String payload = objectMapper.writeValueAsString(List.of(createValidEvent()));
+
+                        mockMvc.perform(post("/ingest")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(payload))
+                                        .andExpect(status().isTooManyRequests());
+
+                        verify(rateLimiter, never()).check(any());
+                        verify(ingestionPipeline, never()).submit(anyList());
+                }
+
+                @Test
+                @DisplayName("""
+                                Given a client that goes over its rate limit in the middle of a request,
+                                When the events are read,
+                                Then reading stops at that event and the request is rejected with 429""")
+                void shouldStopReadingWhenRateLimited() throws Exception {
+                        doNothing().doThrow(new RateLimitExceededException("Rate limit exceeded for user",
+                                        Duration.ofSeconds(1))).when(rateLimiter).check(any());
+                        String payload = objectMapper.writeValueAsString(
+                                        List.of(createValidEvent(), createValidEvent(), createValidEvent()));
+
+                        mockMvc.perform(post("/ingest")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(payload))
+                                        .andExpect(status().isTooManyRequests());
+
+                        verify(rateLimiter, times(2)).check(any());
+                        verify(rateLimiter, never()).acquire(any());
+                }
+        }
+
+        @Nested
+        @DisplayName("Given events carrying a client-chosen ID")
+        class IdempotentRetryTests {
+
+                private String payload(String idempotencyKey) {
+                        return """
+                                        [{"eventType": "PAGE_VIEW", "userHash": "e9c0494b2b14ca2b48258c05dd6c4c14",
+                                          "data": {}, "idempotencyKey": "%s"}]""".formatted(idempotencyKey);
+                }
+
+                @SuppressWarnings("unchecked")
+                private List<BaseEvent> lastSubmitted() {
+                        ArgumentCaptor<List<BaseEvent>> captor = ArgumentCaptor.forClass(List.class);
+                        verify(ingestionPipeline).submit(captor.capture());
+                        clearInvocations(ingestionPipeline);
+                        return captor.getValue();
+                }
+
+                @Test
+                @DisplayName("""
+                                When the same event is sent twice,
+                                Then both requests are accepted and the retry is not persisted again""")
+                void shouldDropRetriedEvent() throws Exception {
+                        String payload = payload(UUID.randomUUID().toString());
+
+                        mockMvc.perform(post("/ingest").contentType(MediaType.APPLICATION_JSON).content(payload))
+                                        .andExpect(status().isAccepted());
+                        List<BaseEvent> first = lastSubmitted();
+                        mockMvc.perform(post("/ingest").contentType(MediaType.APPLICATION_JSON).content(payload))
+                                        .andExpect(status().isAccepted())
+                                        .andExpect(content().string("Events accepted: 1"));
+
+                        assertEquals(1, first.size());
+                        assertTrue(first.get(0).hasClientEventId());
+                        assertEquals(0, lastSubmitted().size());
+                }
+
+                @Test
+                @DisplayName("""
+                                When a batch rejected with 503 is retried,
+                                Then the retry is persisted""")
+                void shouldNotRememberRejectedBatch() throws Exception {
+                        String payload = payload(UUID.randomUUID().toString());
+                        doThrow(new IngestionBackpressureException("Ingestion queue is full", Duration.ofSeconds(5)))
+                                        .when(ingestionPipeline).submit(anyList());
+                        mockMvc.perform(post("/ingest").contentType(MediaType.APPLICATION_JSON).content(payload))
+                                        .andExpect(status().isServiceUnavailable());
+                        clearInvocations(ingestionPipeline);
+
+                        doNothing().when(ingestionPipeline).submit(anyList());
+                        mockMvc.perform(post("/ingest").contentType(MediaType.APPLICATION_JSON).content(payload))
+                                        .andExpect(status().isAccepted());
+
+                        assertEquals(1, lastSubmitted().size());
+                }
+        }
+
+        @Nested
+        @DisplayName("Given a batch object with shared client info, session and metadata")
+        class SharedBatchTests {
+
+                @SuppressWarnings("unchecked")
+                private List<BaseEvent> submitted() {
+                        ArgumentCaptor<List<BaseEvent>> captor = ArgumentCaptor.forClass(List.class);
+                        verify(ingestionPipeline).submit(captor.capture());
+                        clearInvocations(ingestionPipeline);
+                        return captor.getValue();
+                }
+
+                @Test
+                @DisplayName("""
+                                When events leave out the shared parts,
+                                Then every event references the same instances""")
+                void shouldShareBatchParts() throws Exception {
+                        String payload = """
+                                        {"clientInfo": {"userAgent": "Mozilla/5.0", "ipAddress": "203.0.113.42", "platform": "ios"},
+                                         "session": {"id": "s-1", "startTime": "2025-01-01T00:00:00Z"},
+                                         "metadata": {"version": "2.1.0", "source": "sdk", "environment": "production"},
+                                         "events": [
+                                           {"eventType": "PAGE_VIEW", "userHash": "e9c0494b2b14ca2b48258c05dd6c4c14", "data": {}},
+                                           {"eventType": "USER_ACTION", "userHash": "e9c0494b2b14ca2b48258c05dd6c4c14", "data": {}}
+                                         ]}""";
+
+                        mockMvc.perform(post("/ingest").contentType(MediaType.APPLICATION_JSON).content(payload))
+                                        .andExpect(status().isAccepted())
+                                        .andExpect(content().string("Events accepted: 2"));
+
+                        List<BaseEvent> events = submitted();
+                        assertEquals("ios", events.get(0).getClientInfo().platform());
+                        assertEquals("s-1", events.get(0).getSession().id());
+                        assertEquals("sdk", events.get(0).getMetadata().source());
+                        assertSame(events.get(0).getClientInfo(), events.get(1).getClientInfo());
+                        assertSame(events.get(0).getSession(), events.get(1).getSession());
+                        assertSame(events.get(0).getMetadata(), events.get(1).getMetadata());
+                }
+
+                @Test
+                @DisplayName("""
+                                When an event sets its own client info,
+                                Then it replaces the shared one for that event only""")
+                void shouldLetEventOverrideBatchParts() throws Exception {
+                        String payload = """
+                                        {"clientInfo": {"platform": "ios"},
+                                         "events": [
+                                           {"eventType": "PAGE_VIEW", "userHash": "e9c0494b2b14ca2b48258c05dd6c4c14", "data": {},
+                                            "clientInfo": {"platform": "web"}},
+                                           {"eventType": "PAGE_VIEW", "userHash": "e9c0494b2b14ca2b48258c05dd6c4c14", "data": {}}
+                                         ]}""";
+
+                        mockMvc.perform(post("/ingest").contentType(MediaType.APPLICATION_JSON).content(payload))
+                                        .andExpect(status().isAccepted());
+
+                        List<BaseEvent> events = submitted();
+                        assertEquals("web", events.get(0).getClientInfo().platform());
+                        assertEquals("ios", events.get(1).getClientInfo().platform());
+                }
+
+                @Test
+                @DisplayName("""
+                                When a shared part follows the events,
+                                Then return 400 error""")
+                void shouldRejectSharedPartsAfterEvents() throws Exception {
+                        String payload = """
+                                        {"events": [{"eventType": "PAGE_VIEW", "userHash": "e9c0494b2b14ca2b48258c05dd6c4c14", "data": {}}],
+                                         "clientInfo": {"platform": "ios"}}""";
+
+                        mockMvc.perform(post("/ingest").contentType(MediaType.APPLICATION_JSON).content(payload))
+                                        .andExpect(status().isBadRequest())
+                                        .andExpect(content().string("clientInfo, session and metadata must precede events"));
+                }
+
+                @Test
+                @DisplayName("""
+                                When a shared part holds a value longer than its column,
+                                Then return 400 error and submit nothing""")
+                void shouldValidateSharedParts() throws Exception {
+                        String payload = """
+                                        {"clientInfo": {"userAgent": "%s"},
+                                         "events": [{"eventType": "PAGE_VIEW", "userHash": "e9c0494b2b14ca2b48258c05dd6c4c14", "data": {}}]}"""
+                                        .formatted("a".repeat(256));
+
+                        mockMvc.perform(post("/ingest").contentType(MediaType.APPLICATION_JSON).content(payload))
+                                        .andExpect(status().isBadRequest())
+                                        .andExpect(jsonPath("$['userAgent']").value("User agent cannot exceed 255 characters"));
+                        verify(ingestionPipeline, never()).submit(anyList());
+                }
+
+                @Test
+                @DisplayName("""
+                                When an event holds a metadata value longer than its column,
+                                Then return 400 error and submit nothing""")
+                void shouldValidateEventParts() throws Exception {
+                        String payload = """
+                                        [{"eventType": "PAGE_VIEW", "userHash": "e9c0494b2b14ca2b48258c05dd6c4c14", "data": {},
+                                          "metadata": {"source": "%s"}}]""".formatted("a".repeat(256));
+
+                        mockMvc.perform(post("/ingest").contentType(MediaType.APPLICATION_JSON).content(payload))
+                                        .andExpect(status().isBadRequest())
+                                        .andExpect(jsonPath("$['metadata.source']").value("Source cannot exceed 255 characters"));
+                        verify(ingestionPipeline, never()).submit(anyList());
+                }
+        }
+
+        @Nested
+        @DisplayName("Given ingest metrics")
+        class IngestMetricsTests {
+
+                @Autowired
+                private MeterRegistry meterRegistry;
+
+                private double events(String type, String outcome) {
+                        return meterRegistry.get("ingest.events").tag("type", type).tag("outcome", outcome)
+                                        .counter().count();
+                }
+
+                @Test
+                @DisplayName("""
+                                When a batch is accepted,
+                                Then its events are counted as accepted by type and every stage is timed""")
+                void shouldCountAcceptedEventsByType() throws Exception {
+                        double pageViews = events("pageView", "accepted");
+                        double searches = events("search", "accepted");
+                        String payload = """
+                                        [{"eventType": "PAGE_VIEW", "userHash": "e9c0494b2b14ca2b48258c05dd6c4c14", "data": {}},
+                                         {"eventType": "PAGE_VIEW", "userHash": "e9c0494b2b14ca2b48258c05dd6c4c14", "data": {}},
+                                         {"eventType": "SEARCH", "userHash": "e9c0494b2b14ca2b48258c05dd6c4c14", "data": {}}]""";
+
+                        mockMvc.perform(post("/ingest").contentType(MediaType.APPLICATION_JSON).content(payload))
+                                        .andExpect(status().isAccepted());
+
+                        assertEquals(pageViews + 2, events("pageView", "accepted"));
+                        assertEquals(searches + 1, events("search", "accepted"));
+                        for (String stage : List.of("parse", "validate", "map")) {
+                                assertTrue(meterRegistry.get("ingest.stage.duration").tag("stage", stage).timer().count() > 0);
+                        }
+                }
+
+                @Test
+                @DisplayName("""
+                                When the pipeline rejects a batch,
+                                Then its events are counted as rejected""")
+                void shouldCountRejectedBatch() throws Exception {
+                        double rejected = events("error", "rejected");
+                        doThrow(new IngestionBackpressureException("Ingestion queue is full", Duration.ofSeconds(5)))
+                                        .when(ingestionPipeline).submit(anyList());
+                        String payload = """
+                                        [{"eventType": "ERROR", "userHash": "e9c0494b2b14ca2b48258c05dd6c4c14", "data": {}}]""";
+
+                        mockMvc.perform(post("/ingest").contentType(MediaType.APPLICATION_JSON).content(payload))
+                                        .andExpect(status().isServiceUnavailable());
+
+                        assertEquals(rejected + 1, events("error", "rejected"));
                 }
         }
 
@@ -348,4 +761,91 @@ public class IngestEventControllerTests {
                                         .andExpect(content().string("Payload size cannot exceed 50KB"));
                 }
         }
+
+        @Nested
+        @DisplayName("Given an NDJSON bulk request")
+        class BulkPayloadTests {
+
+                private static final String VALID_LINE = """
+                                {"eventType":"PAGE_VIEW","userHash":"e9c0494b2b14ca2b48258c05dd6c4c14","data":{"page":"/home"}}""";
+
+                private static final String INVALID_HASH_LINE = """
+                                {"eventType":"PAGE_VIEW","userHash":"invalid-hash-format","data":{"page":"/home"}}""";
+
+                @Autowired
+                private MeterRegistry meterRegistry;
+
+                @Test
+                @DisplayName("""
+                                Given valid and invalid lines,
+                                When the body is sent to the bulk endpoint,
+                                Then the valid lines are accepted and the invalid ones reported by line number""")
+                void shouldAcceptValidLinesAndReportInvalidOnes() throws Exception {
+                        String payload = VALID_LINE + "\n" + INVALID_HASH_LINE + "\n\n" + VALID_LINE + "\n";
+
+                        mockMvc.perform(post("/ingest/bulk")
+                                        .contentType(MediaType.APPLICATION_NDJSON)
+                                        .content(payload))
+                                        .andExpect(status().isAccepted())
+                                        .andExpect(jsonPath("$.accepted").value(2))
+                                        .andExpect(jsonPath("$.rejected").value(1))
+                                        .andExpect(jsonPath("$.rejections[0].line").value(2));
+                }
+
+                @Test
+                @DisplayName("""
+                                Given a gzip-encoded body,
+                                When the body is sent to the bulk endpoint,
+                                Then it is inflated and ingested""")
+                void shouldAcceptGzipEncodedBody() throws Exception {
+                        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                                gzip.write((VALID_LINE + "\n" + VALID_LINE).getBytes(StandardCharsets.UTF_8));
+                        }
+
+                        mockMvc.perform(post("/ingest/bulk")
+                                        .contentType(MediaType.APPLICATION_NDJSON)
+                                        .header("Content-Encoding", "gzip")
+                                        .content(compressed.toByteArray()))
+                                        .andExpect(status().isAccepted())
+                                        .andExpect(jsonPath("$.accepted").value(2))
+                                        .andExpect(jsonPath("$.rejected").value(0));
+                }
+
+                @Test
+                @DisplayName("""
+                                Given only invalid lines,
+                                When the body is sent to the bulk endpoint,
+                                Then it should return a 400 Bad Request error with the line results""")
+                void shouldReturn400WhenNoLineIsValid() throws Exception {
+                        mockMvc.perform(post("/ingest/bulk")
+                                        .contentType(MediaType.APPLICATION_NDJSON)
+                                        .content(INVALID_HASH_LINE + "\n{not json\n"))
+                                        .andExpect(status().isBadRequest())
+                                        .andExpect(jsonPath("$.rejected").value(2))
+                                        .andExpect(jsonPath("$.rejections[1].error").value("Malformed JSON"));
+                }
+
+                @Test
+                @DisplayName("""
+                                Given a line holding only JSON null,
+                                When the body is sent to the bulk endpoint,
+                                Then the line is reported as rejected and counted as a rejected event""")
+                void shouldRejectNullLine() throws Exception {
+                        double rejected = meterRegistry.get("ingest.events").tag("type", "unknown").tag("outcome", "rejected")
+                                        .counter().count();
+
+                        mockMvc.perform(post("/ingest/bulk")
+                                        .contentType(MediaType.APPLICATION_NDJSON)
+                                        .content(VALID_LINE + "\nnull\n"))
+                                        .andExpect(status().isAccepted())
+                                        .andExpect(jsonPath("$.accepted").value(1))
+                                        .andExpect(jsonPath("$.rejected").value(1))
+                                        .andExpect(jsonPath("$.rejections[0].line").value(2))
+                                        .andExpect(jsonPath("$.rejections[0].error").value("Event cannot be null"));
+
+                        assertEquals(rejected + 1, meterRegistry.get("ingest.events").tag("type", "unknown")
+                                        .tag("outcome", "rejected").counter().count());
+                }
+        }
 }
@@ -0,0 +1,106 @@
+package org.analytics.events.ingest.enrichment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import org.analytics.events.ingest.config.EnrichmentProperties;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.ClientInfo;
+import org.analytics.events.ingest.model.Enrichment;
+import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.service.IngestMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Event enrichment")
+public class EventEnricherTests {
+
+        private static final String IPHONE_SAFARI = "Mozilla/5.0 (iPhone; CPU iPhone OS 17_4 like Mac OS X) "
+                        + "AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4 Mobile/15E148 Safari/604.1";
+        private static final String WINDOWS_EDGE = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
+                        + "(KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36 Edg/124.0.2478.51";
+
+        @TempDir
+        Path directory;
+
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        private EventEnricher enricher(Set<EventType> skipTypes, Path geoipDatabase) throws IOException {
+                return new EventEnricher(new EnrichmentProperties(true, skipTypes, 100, geoipDatabase),
+                                new IngestMetrics(registry), registry);
+        }
+
+        private static BaseEvent event(EventType type, String userAgent, String ipAddress) {
+                return BaseEvent.builder()
+                                .eventType(type)
+                                .userHash("e9c0494b2b14ca2b48258c05dd6c4c14")
+                                .clientInfo(new ClientInfo(userAgent, ipAddress, "en-US", "UTC", "web"))
+                                .data(Map.of())
+                                .build();
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a GeoIP database with IPv4 and IPv6 ranges,
+                        When events are enriched,
+                        Then device, browser, OS and country are attached""")
+        void shouldEnrichFromUserAgentAndAddress() throws IOException {
+                Path csv = directory.resolve("countries.csv");
+                Files.writeString(csv, """
+                                start_ip,end_ip,country_code
+                                203.0.113.0,203.0.113.255,AU
+                                "2001:db8::","2001:db8::ffff",de
+                                198.51.100.0,198.51.100.127,US
+                                """);
+                EventEnricher enricher = enricher(Set.of(), csv);
+
+                Enrichment iphone = enricher.enrich(event(EventType.PAGE_VIEW, IPHONE_SAFARI, "203.0.113.42")).getEnrichment();
+                Enrichment windows = enricher.enrich(event(EventType.PAGE_VIEW, WINDOWS_EDGE, "2001:db8::1")).getEnrichment();
+                Enrichment unknown = enricher.enrich(event(EventType.PAGE_VIEW, WINDOWS_EDGE, "198.51.100.200")).getEnrichment();
+
+                assertEquals(new Enrichment("mobile", "Safari", "17", "iOS", "17.4", "AU"), iphone);
+                assertEquals(new Enrichment("desktop", "Edge", "124", "Windows", "10", "DE"), windows);
+                assertNull(unknown.country());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given events of one user agent from different addresses,
+                        When they are enriched,
+                        Then the user agent is parsed once and the stage is timed""")
+        void shouldCacheByUserAgent() throws IOException {
+                EventEnricher enricher = enricher(Set.of(), null);
+
+                BaseEvent first = enricher.enrich(event(EventType.PAGE_VIEW, IPHONE_SAFARI, "203.0.113.42"));
+                BaseEvent second = enricher.enrich(event(EventType.USER_ACTION, IPHONE_SAFARI, "198.51.100.7"));
+
+                assertEquals(first.getEnrichment(), second.getEnrichment());
+                assertNull(first.getEnrichment().country());
+                assertEquals(1, registry.get("cache.gets").tag("cache", "enrichment.user_agents").tag("result", "hit")
+                                .functionCounter().count());
+                assertEquals(2, registry.get("ingest.stage.duration").tag("stage", "enrich").timer().count());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a skipped event type,
+                        When an event of that type is enriched,
+                        Then it is returned unchanged""")
+        void shouldSkipConfiguredTypes() throws IOException {
+                EventEnricher enricher = enricher(Set.of(EventType.PERFORMANCE), null);
+                BaseEvent event = event(EventType.PERFORMANCE, IPHONE_SAFARI, "203.0.113.42");
+
+                assertSame(event, enricher.enrich(event));
+                assertNull(event.getEnrichment());
+        }
+}
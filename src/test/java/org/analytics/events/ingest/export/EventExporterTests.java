@@ -0,0 +1,144 @@
+package org.analytics.events.ingest.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.analytics.events.ingest.config.ExportProperties;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.ClientInfo;
+import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.repository.EventExportRepository;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.LocalInputFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Parquet export of closed windows")
+public class EventExporterTests {
+
+        private static final Instant DAY = Instant.now().truncatedTo(ChronoUnit.DAYS).minus(3, ChronoUnit.DAYS);
+
+        @TempDir
+        private Path directory;
+
+        private final EventExportRepository repository = mock(EventExportRepository.class);
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @SuppressWarnings("unchecked")
+        private EventExporter exporter() {
+                ExportProperties properties = new ExportProperties(true, Duration.ofDays(1), Duration.ofMinutes(15),
+                                Duration.ofMinutes(5), directory, List.of("page"), DataSize.ofMegabytes(1), null);
+                return new EventExporter(repository, properties, mock(ObjectProvider.class), registry);
+        }
+
+        private static BaseEvent event(EventType type, Instant timestamp) {
+                return BaseEvent.builder()
+                                .eventType(type)
+                                .timestamp(timestamp)
+                                .userHash("e9c0494b2b14ca2b48258c05dd6c4c14")
+                                .clientInfo(new ClientInfo("Mozilla/5.0", "203.0.113.42", "en-US", "UTC", "ios"))
+                                .data(Map.of("page", "/home", "scrollDepth", 0.75))
+                                .build();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void windowContains(Instant from, List<BaseEvent> events) {
+                when(repository.readWindow(eq(from), eq(from.plus(1, ChronoUnit.DAYS)), any())).thenAnswer(invocation -> {
+                        events.forEach(invocation.getArgument(2, Consumer.class));
+                        return (long) events.size();
+                });
+        }
+
+        private static long rowCount(Path file) throws IOException {
+                try (ParquetFileReader reader = ParquetFileReader.open(new LocalInputFile(file))) {
+                        assertTrue(reader.getFileMetaData().getSchema().containsField("data_page"));
+                        return reader.getRecordCount();
+                }
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a watermark three days back,
+                        When closed windows are exported,
+                        Then each closed day gets one file per event type and the watermark advances past it""")
+        void shouldExportClosedWindowsByDateAndType() throws IOException {
+                Instant nextDay = DAY.plus(1, ChronoUnit.DAYS);
+                when(repository.watermark(EventExporter.EXPORTER)).thenReturn(DAY);
+                windowContains(DAY, List.of(event(EventType.PAGE_VIEW, DAY.plusSeconds(10)),
+                                event(EventType.PAGE_VIEW, DAY.plusSeconds(20)), event(EventType.SEARCH, DAY.plusSeconds(5))));
+                windowContains(nextDay, List.of(event(EventType.ERROR, nextDay.plusSeconds(1))));
+
+                exporter().exportClosedWindows();
+
+                String date = DAY.toString().substring(0, 10);
+                String name = "events-" + date.replace("-", "") + "T000000Z.parquet";
+                assertEquals(2, rowCount(directory.resolve("date=" + date + "/event_type=PAGE_VIEW/" + name)));
+                assertEquals(1, rowCount(directory.resolve("date=" + date + "/event_type=SEARCH/" + name)));
+                verify(repository).advanceWatermark(EventExporter.EXPORTER, nextDay);
+                verify(repository).advanceWatermark(EventExporter.EXPORTER, nextDay.plus(1, ChronoUnit.DAYS));
+                verify(repository, never()).advanceWatermark(EventExporter.EXPORTER, Instant.now().truncatedTo(ChronoUnit.DAYS)
+                                .plus(1, ChronoUnit.DAYS));
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a window whose export fails,
+                        When closed windows are exported,
+                        Then the watermark stays and no partial file is left behind""")
+        void shouldKeepWatermarkOnFailure() throws IOException {
+                when(repository.watermark(EventExporter.EXPORTER)).thenReturn(DAY);
+                when(repository.readWindow(eq(DAY), any(), any())).thenAnswer(invocation -> {
+                        Consumer<BaseEvent> sink = invocation.getArgument(2);
+                        sink.accept(event(EventType.PAGE_VIEW, DAY.plusSeconds(10)));
+                        throw new IllegalStateException("connection lost");
+                });
+
+                exporter().exportClosedWindows();
+
+                verify(repository, never()).advanceWatermark(any(), any());
+                try (var files = Files.walk(directory)) {
+                        assertFalse(files.anyMatch(file -> file.toString().endsWith(".parquet")));
+                }
+        }
+
+        @Test
+        @DisplayName("""
+                        Given events persisted into a window after it was exported,
+                        When the next run starts,
+                        Then they are counted as late events and the window is not exported again""")
+        void shouldCountEventsPersistedAfterExport() {
+                Instant nextDay = DAY.plus(1, ChronoUnit.DAYS);
+                when(repository.watermark(EventExporter.EXPORTER)).thenReturn(DAY, Instant.now().truncatedTo(ChronoUnit.DAYS));
+                windowContains(DAY, List.of(event(EventType.PAGE_VIEW, DAY.plusSeconds(10))));
+                when(repository.countWindow(DAY, nextDay)).thenReturn(3L);
+                EventExporter exporter = exporter();
+
+                exporter.exportClosedWindows();
+                exporter.exportClosedWindows();
+
+                assertEquals(2, registry.get("ingest.export.late.events").counter().count());
+                verify(repository).readWindow(eq(DAY), eq(nextDay), any());
+        }
+}
@@ -0,0 +1,83 @@
+package org.analytics.events.ingest.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.analytics.events.ingest.config.ClientProfileProperties;
+import org.analytics.events.ingest.model.ClientInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Sharing of repeated client infos")
+public class ClientInfoInternerTests {
+
+        private static final String USER_AGENT = "Mozilla/5.0 (iPhone; CPU iPhone OS 17_4 like Mac OS X)";
+
+        @Test
+        @DisplayName("""
+                        Given a client info seen before,
+                        When the same values arrive again as new strings,
+                        Then the instance mapped first is returned""")
+        void shouldReturnSharedInstance() {
+                ClientInfoInterner interner = new ClientInfoInterner(new ClientProfileProperties(100, false),
+                                new SimpleMeterRegistry());
+
+                ClientInfo first = interner.intern(new String(USER_AGENT), "203.0.113.42", "en-US", "UTC", "ios");
+                ClientInfo second = interner.intern(new String(USER_AGENT), "203.0.113.42", "en-US", "UTC", "ios");
+
+                assertSame(first, second);
+        }
+
+        @Test
+        @DisplayName("""
+                        Given two clients that differ only by IP address,
+                        When both are mapped,
+                        Then they are distinct but share their user agent string""")
+        void shouldShareStringsAcrossAddresses() {
+                ClientInfoInterner interner = new ClientInfoInterner(new ClientProfileProperties(100, false),
+                                new SimpleMeterRegistry());
+
+                ClientInfo first = interner.intern(new String(USER_AGENT), "203.0.113.42", "en-US", "UTC", "ios");
+                ClientInfo second = interner.intern(new String(USER_AGENT), "198.51.100.7", "en-US", "UTC", "ios");
+
+                assertNotSame(first, second);
+                assertSame(first.userAgent(), second.userAgent());
+                assertEquals("198.51.100.7", second.ipAddress());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given many clients that differ only by IP address,
+                        When they are mapped,
+                        Then they take a single cache entry""")
+        void shouldKeyByProfile() {
+                ClientInfoInterner interner = new ClientInfoInterner(new ClientProfileProperties(10, false),
+                                new SimpleMeterRegistry());
+
+                for (int i = 0; i < 25; i++) {
+                        interner.intern(USER_AGENT, "203.0.113." + i, "en-US", "UTC", "ios");
+                }
+
+                assertEquals(1, interner.size());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a full cache,
+                        When more client profiles arrive,
+                        Then some are evicted instead of the cache growing""")
+        void shouldStayBounded() {
+                ClientInfoInterner interner = new ClientInfoInterner(new ClientProfileProperties(10, false),
+                                new SimpleMeterRegistry());
+
+                for (int i = 0; i < 25; i++) {
+                        interner.intern(USER_AGENT + " build/" + i, "203.0.113.42", "en-US", "UTC", "ios");
+                }
+
+                assertTrue(interner.size() <= 10);
+        }
+}
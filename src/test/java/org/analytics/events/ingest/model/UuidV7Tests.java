@@ -0,0 +1,61 @@
+package org.analytics.events.ingest.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Time-ordered event IDs")
+public class UuidV7Tests {
+
+        @Test
+        @DisplayName("""
+                        Given a generated ID,
+                        When its fields are read,
+                        Then it is an RFC 9562 version 7 UUID carrying the current time""")
+        void shouldEncodeVersionVariantAndTime() {
+                long before = System.currentTimeMillis();
+                UUID id = UuidV7.next();
+                long after = System.currentTimeMillis();
+
+                assertEquals(7, id.version());
+                assertEquals(2, id.variant());
+                long millis = UuidV7.timestampOf(id).toEpochMilli();
+                assertTrue(millis >= before && millis <= after);
+        }
+
+        @Test
+        @DisplayName("""
+                        Given many IDs generated within the same millisecond,
+                        When they are compared,
+                        Then they are strictly increasing""")
+        void shouldIncreaseWithinOneMillisecond() {
+                UUID previous = UuidV7.next();
+                for (int i = 0; i < 10_000; i++) {
+                        UUID next = UuidV7.next();
+                        assertTrue(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()) > 0);
+                        previous = next;
+                }
+        }
+
+        @Test
+        @DisplayName("""
+                        Given more IDs in one millisecond than the counter holds,
+                        When the counter overflows,
+                        Then the timestamp advances instead of going backwards""")
+        void shouldCarryCounterOverflowIntoTimestamp() {
+                long now = Instant.parse("2030-01-01T00:00:00Z").toEpochMilli();
+                AtomicLong lastState = new AtomicLong();
+                long state = 0;
+                for (int i = 0; i < 5000; i++) {
+                        state = UuidV7.nextState(lastState, now);
+                }
+
+                assertTrue(UuidV7.timestampOf(UuidV7.fromState(state)).toEpochMilli() > now);
+        }
+}
@@ -0,0 +1,147 @@
+package org.analytics.events.ingest.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.analytics.events.ingest.config.DedupProperties;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.ClientInfo;
+import org.analytics.events.ingest.model.Enrichment;
+import org.analytics.events.ingest.model.EventDataJson;
+import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.model.Metadata;
+import org.analytics.events.ingest.model.SessionInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * COPY itself needs PostgreSQL; on H2 the writer hands batches to its {@link JdbcEventBatchWriter}
+ * fallback, and the CSV records it would stream are checked as text.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@DisplayName("COPY event writes")
+public class CopyEventBatchWriterTests {
+
+        private static final Instant TIMESTAMP = Instant.parse("2026-03-14T09:26:53.589793Z");
+        private static final Instant SESSION_START = Instant.parse("2026-03-14T09:01:07.000001Z");
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private DataSource dataSource;
+
+        @Autowired
+        private EventRepository eventRepository;
+
+        private CopyEventBatchWriter writer;
+
+        @BeforeEach
+        @SuppressWarnings("unchecked")
+        void setUp() {
+                DedupProperties dedupProperties = new DedupProperties(true, 1000, 0.001, Duration.ofHours(1),
+                                Duration.ofDays(7));
+                BatchWriteMetrics writeMetrics = new BatchWriteMetrics(new SimpleMeterRegistry());
+                ObjectProvider<ClientProfileRepository> noProfiles = mock(ObjectProvider.class);
+                EventIdRepository eventIds = new EventIdRepository(jdbcTemplate, dataSource, dedupProperties);
+                writer = new CopyEventBatchWriter(dataSource,
+                                new JdbcEventBatchWriter(jdbcTemplate, dataSource, writeMetrics, noProfiles, eventIds),
+                                writeMetrics, noProfiles, eventIds);
+        }
+
+        private static BaseEvent event(UUID eventId, EventType eventType) {
+                return BaseEvent.builder()
+                                .eventId(eventId)
+                                .clientEventId(true)
+                                .eventType(eventType)
+                                .timestamp(TIMESTAMP)
+                                .userHash("e9c0494b2b14ca2b48258c05dd6c4c14")
+                                .clientInfo(new ClientInfo("Mozilla/5.0 \"compatible\"", "203.0.113.42", "en-US",
+                                                "Europe/Berlin", "web"))
+                                .session(new SessionInfo("session-7", SESSION_START))
+                                .metadata(new Metadata("2.4.1", "web-sdk", "production"))
+                                .enrichment(new Enrichment("desktop", "Firefox", "128.0", "Linux", "x86_64", "DE"))
+                                .addData("page", "/say \"hi\", twice")
+                                .build();
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a batch with an event ID repeated in it and in a later batch,
+                        When both batches are written,
+                        Then every other event is stored and the repeated one only once""")
+        void shouldStoreEventsAndSkipRepeats() {
+                UUID eventId = UUID.randomUUID();
+                BaseEvent other = event(UUID.randomUUID(), EventType.SEARCH);
+
+                writer.write(List.of(event(eventId, EventType.PAGE_VIEW), other, event(eventId, EventType.USER_ACTION)));
+                writer.write(List.of(event(eventId, EventType.ERROR)));
+
+                assertEquals(2, eventRepository.count());
+                BaseEvent stored = eventRepository.findById(eventId).orElseThrow();
+                assertEquals(EventType.PAGE_VIEW, stored.getEventType());
+                assertEquals(other.getClientInfo(), stored.getClientInfo());
+                assertEquals(Map.of("page", "/say \"hi\", twice"), stored.getData());
+                assertEquals(EventType.SEARCH, eventRepository.findById(other.getEventId()).orElseThrow().getEventType());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a fully populated event,
+                        When it is rendered for COPY,
+                        Then every value is quoted with its quotes doubled, in column order""")
+        void shouldRenderQuotedCsvRecord() throws IOException {
+                BaseEvent event = event(UUID.randomUUID(), EventType.PAGE_VIEW);
+                StringWriter out = new StringWriter();
+
+                writer.writeRow(out, event);
+
+                String json = EventDataJson.toJson(event.getData());
+                assertEquals(event.getEventId() + ",\"PAGE_VIEW\",2026-03-14T09:26:53.589793Z,"
+                                + "\"e9c0494b2b14ca2b48258c05dd6c4c14\",\"Mozilla/5.0 \"\"compatible\"\"\","
+                                + "\"203.0.113.42\",\"en-US\",\"Europe/Berlin\",\"web\","
+                                + "\"session-7\",2026-03-14T09:01:07.000001Z,"
+                                + "\"2.4.1\",\"web-sdk\",\"production\","
+                                + "\"desktop\",\"Firefox\",\"128.0\",\"Linux\",\"x86_64\",\"DE\","
+                                + "\"" + json.replace("\"", "\"\"") + "\"\n", out.toString());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given an event without user hash or embeddables,
+                        When it is rendered for COPY,
+                        Then the missing values are left unquoted, which COPY reads as NULL""")
+        void shouldRenderMissingValuesAsNull() throws IOException {
+                BaseEvent event = BaseEvent.builder()
+                                .eventType(EventType.ERROR)
+                                .timestamp(TIMESTAMP)
+                                .build();
+                StringWriter out = new StringWriter();
+
+                writer.writeRow(out, event);
+
+                assertEquals(event.getEventId() + ",\"ERROR\",2026-03-14T09:26:53.589793Z,"
+                                + ",".repeat(17) + "\"{}\"\n", out.toString());
+        }
+}
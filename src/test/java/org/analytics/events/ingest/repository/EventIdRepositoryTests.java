@@ -0,0 +1,122 @@
+package org.analytics.events.ingest.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.analytics.events.ingest.config.DedupProperties;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.EventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * The claim statement itself needs PostgreSQL; it is stubbed here with the IDs it would return,
+ * which leaves the filtering of the batch to be checked.
+ */
+@DisplayName("Claiming client event IDs")
+public class EventIdRepositoryTests {
+
+        private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        private EventIdRepository eventIds;
+
+        @BeforeEach
+        void setUp() throws SQLException {
+                DataSource dataSource = mock(DataSource.class, RETURNS_DEEP_STUBS);
+                when(dataSource.getConnection().getMetaData().getDatabaseProductName()).thenReturn("PostgreSQL");
+                eventIds = new EventIdRepository(jdbcTemplate, dataSource,
+                                new DedupProperties(true, 1000, 0.001, Duration.ofHours(1), Duration.ofDays(7)));
+        }
+
+        @SuppressWarnings("unchecked")
+        private void claimed(UUID... ids) {
+                when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+                                .thenReturn(List.of(ids));
+        }
+
+        private static BaseEvent clientEvent(UUID eventId) {
+                return BaseEvent.builder()
+                                .eventId(eventId)
+                                .clientEventId(true)
+                                .eventType(EventType.PAGE_VIEW)
+                                .build();
+        }
+
+        private static BaseEvent serverEvent() {
+                return BaseEvent.builder()
+                                .eventType(EventType.PAGE_VIEW)
+                                .build();
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a batch whose client event IDs are all new,
+                        When they are claimed,
+                        Then the batch is returned as it is""")
+        void shouldKeepBatchWhenAllClaimed() {
+                UUID first = UUID.randomUUID();
+                UUID second = UUID.randomUUID();
+                List<BaseEvent> events = List.of(clientEvent(first), serverEvent(), clientEvent(second));
+                claimed(first, second);
+
+                assertSame(events, eventIds.claim(events));
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a batch with a client event ID stored before,
+                        When the IDs are claimed,
+                        Then that event is left out and events with server IDs are kept""")
+        void shouldDropEventsStoredBefore() {
+                UUID stored = UUID.randomUUID();
+                UUID fresh = UUID.randomUUID();
+                BaseEvent server = serverEvent();
+                BaseEvent freshEvent = clientEvent(fresh);
+                claimed(fresh);
+
+                assertEquals(List.of(server, freshEvent),
+                                eventIds.claim(List.of(clientEvent(stored), server, freshEvent)));
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a batch repeating a client event ID,
+                        When the IDs are claimed,
+                        Then the ID is claimed once and only its first event is kept""")
+        void shouldKeepFirstOfRepeatsWithinBatch() {
+                UUID repeated = UUID.randomUUID();
+                BaseEvent first = clientEvent(repeated);
+                BaseEvent server = serverEvent();
+                claimed(repeated);
+
+                assertEquals(List.of(first, server), eventIds.claim(List.of(first, server, clientEvent(repeated))));
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a batch without client event IDs,
+                        When it is claimed,
+                        Then the database is not asked and the batch is returned as it is""")
+        void shouldSkipBatchWithoutClientIds() {
+                List<BaseEvent> events = List.of(serverEvent(), serverEvent());
+
+                assertSame(events, eventIds.claim(events));
+                verifyNoInteractions(jdbcTemplate);
+        }
+}
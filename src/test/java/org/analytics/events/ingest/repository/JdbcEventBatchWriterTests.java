@@ -0,0 +1,132 @@
+package org.analytics.events.ingest.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.analytics.events.ingest.config.DedupProperties;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.ClientInfo;
+import org.analytics.events.ingest.model.Enrichment;
+import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.model.Metadata;
+import org.analytics.events.ingest.model.SessionInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@DisplayName("Batched JDBC event writes")
+public class JdbcEventBatchWriterTests {
+
+        private static final Instant TIMESTAMP = Instant.parse("2026-03-14T09:26:53.589793Z");
+        private static final Instant SESSION_START = Instant.parse("2026-03-14T09:01:07.000001Z");
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private DataSource dataSource;
+
+        @Autowired
+        private EventRepository eventRepository;
+
+        private JdbcEventBatchWriter writer;
+
+        @BeforeEach
+        @SuppressWarnings("unchecked")
+        void setUp() {
+                DedupProperties dedupProperties = new DedupProperties(true, 1000, 0.001, Duration.ofHours(1),
+                                Duration.ofDays(7));
+                writer = new JdbcEventBatchWriter(jdbcTemplate, dataSource,
+                                new BatchWriteMetrics(new SimpleMeterRegistry()), mock(ObjectProvider.class),
+                                new EventIdRepository(jdbcTemplate, dataSource, dedupProperties));
+        }
+
+        static BaseEvent fullEvent(UUID eventId, EventType eventType) {
+                return BaseEvent.builder()
+                                .eventId(eventId)
+                                .clientEventId(true)
+                                .eventType(eventType)
+                                .timestamp(TIMESTAMP)
+                                .userHash("e9c0494b2b14ca2b48258c05dd6c4c14")
+                                .clientInfo(new ClientInfo("Mozilla/5.0 (X11; Linux x86_64)", "203.0.113.42", "en-US",
+                                                "Europe/Berlin", "web"))
+                                .session(new SessionInfo("session-7", SESSION_START))
+                                .metadata(new Metadata("2.4.1", "web-sdk", "production"))
+                                .enrichment(new Enrichment("desktop", "Firefox", "128.0", "Linux", "x86_64", "DE"))
+                                .addData("page", "/checkout \"step\" 2")
+                                .addData("items", 3)
+                                .build();
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a batch with one fully populated event and one without any embeddable,
+                        When it is written,
+                        Then every column reads back through JPA as it was written""")
+        void shouldRoundTripEveryColumn() {
+                BaseEvent full = fullEvent(UUID.randomUUID(), EventType.PAGE_VIEW);
+                BaseEvent sparse = BaseEvent.builder()
+                                .eventType(EventType.ERROR)
+                                .timestamp(TIMESTAMP)
+                                .build();
+
+                writer.write(List.of(full, sparse));
+
+                BaseEvent stored = eventRepository.findById(full.getEventId()).orElseThrow();
+                assertEquals(EventType.PAGE_VIEW, stored.getEventType());
+                assertEquals(TIMESTAMP, stored.getTimestamp());
+                assertEquals("e9c0494b2b14ca2b48258c05dd6c4c14", stored.getUserHash());
+                assertEquals(full.getClientInfo(), stored.getClientInfo());
+                assertEquals(full.getSession(), stored.getSession());
+                assertEquals(full.getMetadata(), stored.getMetadata());
+                assertEquals(full.getEnrichment(), stored.getEnrichment());
+                assertEquals(Map.of("page", "/checkout \"step\" 2", "items", 3), stored.getData());
+
+                BaseEvent storedSparse = eventRepository.findById(sparse.getEventId()).orElseThrow();
+                assertEquals(EventType.ERROR, storedSparse.getEventType());
+                assertEquals(TIMESTAMP, storedSparse.getTimestamp());
+                assertNull(storedSparse.getUserHash());
+                assertNull(storedSparse.getClientInfo());
+                assertNull(storedSparse.getSession());
+                assertNull(storedSparse.getMetadata());
+                assertNull(storedSparse.getEnrichment());
+                assertEquals(Map.of(), storedSparse.getData());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given an event ID that repeats within a batch and in a later batch,
+                        When both batches are written,
+                        Then the event is stored once, as first written""")
+        void shouldSkipRepeatedEventIds() {
+                UUID eventId = UUID.randomUUID();
+                BaseEvent other = fullEvent(UUID.randomUUID(), EventType.SEARCH);
+
+                writer.write(List.of(fullEvent(eventId, EventType.PAGE_VIEW), other,
+                                fullEvent(eventId, EventType.USER_ACTION)));
+                writer.write(List.of(fullEvent(eventId, EventType.ERROR)));
+
+                assertEquals(2, eventRepository.count());
+                assertEquals(EventType.PAGE_VIEW, eventRepository.findById(eventId).orElseThrow().getEventType());
+        }
+}
@@ -0,0 +1,87 @@
+package org.analytics.events.ingest.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.sql.DataSource;
+
+import org.analytics.events.ingest.config.PartitionProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@DisplayName("Partitions of the events table")
+public class PartitionManagerTests {
+
+        private static PartitionManager partitionManager(PartitionProperties.Interval interval) throws SQLException {
+                DataSource dataSource = mock(DataSource.class, RETURNS_DEEP_STUBS);
+                when(dataSource.getConnection().getMetaData().getDatabaseProductName()).thenReturn("PostgreSQL");
+                return new PartitionManager(mock(JdbcTemplate.class), dataSource, new PartitionProperties(interval, 7,
+                                Duration.ofDays(90), PartitionProperties.RetentionAction.DROP, Duration.ofHours(1)));
+        }
+
+        @Test
+        @DisplayName("""
+                        Given daily partitions,
+                        When a partition is named and its name parsed back,
+                        Then the name carries the UTC day and parses to its start""")
+        void shouldNameDailyPartitions() throws SQLException {
+                PartitionManager partitions = partitionManager(PartitionProperties.Interval.DAILY);
+                Instant start = Instant.parse("2026-03-14T00:00:00Z");
+
+                assertEquals("events_p20260314", partitions.partitionName(start));
+                assertEquals(start, partitions.partitionStart("events_p20260314"));
+        }
+
+        @Test
+        @DisplayName("""
+                        Given hourly partitions,
+                        When a partition is named and its name parsed back,
+                        Then the name carries the UTC hour and parses to its start""")
+        void shouldNameHourlyPartitions() throws SQLException {
+                PartitionManager partitions = partitionManager(PartitionProperties.Interval.HOURLY);
+                Instant start = Instant.parse("2026-03-14T23:00:00Z");
+
+                assertEquals("events_p2026031423", partitions.partitionName(start));
+                assertEquals(start, partitions.partitionStart("events_p2026031423"));
+        }
+
+        @Test
+        @DisplayName("""
+                        Given tables attached to events that this manager did not name,
+                        When their start is parsed,
+                        Then there is none, so retention never touches them""")
+        void shouldNotParseForeignPartitions() throws SQLException {
+                PartitionManager partitions = partitionManager(PartitionProperties.Interval.DAILY);
+
+                assertNull(partitions.partitionStart("events_default"));
+                assertNull(partitions.partitionStart("events_p2026031423"));
+                assertNull(partitions.partitionStart("events_p2026-03-14"));
+                assertNull(partitions.partitionStart("events_archive"));
+        }
+
+        @Test
+        @DisplayName("""
+                        Given rows for a range in the default partition,
+                        When the partition of that range is built,
+                        Then the rows are moved and the table attached in one block, with inserts to the default held off""")
+        void shouldMoveDefaultRowsInOneBlock() {
+                String sql = PartitionManager.movingPartitionSql("events_p20260314",
+                                Instant.parse("2026-03-14T00:00:00Z"), Instant.parse("2026-03-15T00:00:00Z"));
+
+                assertTrue(sql.startsWith("DO $$ BEGIN LOCK TABLE events_default IN SHARE ROW EXCLUSIVE MODE; "));
+                assertTrue(sql.contains("DELETE FROM events_default WHERE timestamp >= '2026-03-14T00:00:00Z'"
+                                + " AND timestamp < '2026-03-15T00:00:00Z' RETURNING *"));
+                assertTrue(sql.contains("ATTACH PARTITION events_p20260314"
+                                + " FOR VALUES FROM ('2026-03-14T00:00:00Z') TO ('2026-03-15T00:00:00Z')"));
+                assertTrue(sql.endsWith("END $$"));
+        }
+}
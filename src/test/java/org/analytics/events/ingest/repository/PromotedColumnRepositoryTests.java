@@ -0,0 +1,36 @@
+package org.analytics.events.ingest.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Generated columns for data keys")
+public class PromotedColumnRepositoryTests {
+
+        @Test
+        @DisplayName("""
+                        Given keys differing only by case, dots or dashes,
+                        When their column names are derived,
+                        Then they collide, and keys with other characters get none""")
+        void shouldDeriveColumnNames() {
+                assertEquals("data_a_b", PromotedColumnRepository.columnName("a.b"));
+                assertEquals("data_a_b", PromotedColumnRepository.columnName("a-b"));
+                assertEquals("data_a_b", PromotedColumnRepository.columnName("A_b"));
+                assertNull(PromotedColumnRepository.columnName("a'b"));
+        }
+
+        @Test
+        @DisplayName("""
+                        Given the generation expression PostgreSQL reports for a promoted column,
+                        When the key is read back from it,
+                        Then it is the key the column was generated from""")
+        void shouldReadKeyFromGenerationExpression() {
+                assertEquals("a-b", PromotedColumnRepository.generatedKey(
+                                "CASE WHEN (jsonb_typeof((data -> 'a-b'::text)) = 'number'::text)"
+                                                + " THEN ((data ->> 'a-b'::text))::numeric ELSE NULL::numeric END"));
+                assertNull(PromotedColumnRepository.generatedKey("(data ->> 'page'::text)"));
+                assertNull(PromotedColumnRepository.generatedKey(null));
+        }
+}
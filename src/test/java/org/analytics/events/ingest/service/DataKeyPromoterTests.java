@@ -0,0 +1,78 @@
+package org.analytics.events.ingest.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.analytics.events.ingest.config.SchemaProperties;
+import org.analytics.events.ingest.repository.PromotedColumnRepository;
+import org.analytics.events.ingest.repository.PromotedColumnRepository.ColumnType;
+import org.analytics.events.ingest.service.DataSchemaTracker.ValueType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Promotion of data keys to columns")
+public class DataKeyPromoterTests {
+
+        private final DataSchemaTracker tracker = mock(DataSchemaTracker.class);
+        private final PromotedColumnRepository columns = mock(PromotedColumnRepository.class);
+        private DataKeyPromoter promoter;
+
+        @BeforeEach
+        void setUp() {
+                when(columns.isSupported()).thenReturn(true);
+                promoter = new DataKeyPromoter(tracker, columns,
+                                new SchemaProperties(true, 1.0, 256, 10, 0.5, 0.9, true, 16));
+        }
+
+        private void candidates(String... keys) {
+                Map<String, ValueType> candidates = new LinkedHashMap<>();
+                for (String key : keys) {
+                        candidates.put(key, ValueType.STRING);
+                }
+                when(tracker.promotionCandidates()).thenReturn(candidates);
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a column generated from one key,
+                        When another key mapping to the same column name is a candidate,
+                        Then it is not offered and its promotion is rejected""")
+        void shouldRejectKeyCollidingWithExistingColumn() {
+                when(columns.promotedColumns()).thenReturn(Map.of("data_a_b", "a.b"));
+                candidates("a-b", "a.b", "query");
+
+                assertEquals(Map.of("query", "data_query"), promoter.pending());
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                                () -> promoter.promote("a-b"));
+                assertEquals("Column data_a_b is already generated from data key a.b", exception.getMessage());
+                verify(columns, never()).add(anyString(), any(ColumnType.class));
+        }
+
+        @Test
+        @DisplayName("""
+                        Given two candidates mapping to the same column name,
+                        When they are promoted,
+                        Then only the first is offered and the second is rejected""")
+        void shouldRejectCollidingCandidates() {
+                when(columns.promotedColumns()).thenReturn(Map.of());
+                candidates("A_b", "a.b");
+
+                assertEquals(Map.of("A_b", "data_a_b"), promoter.pending());
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                                () -> promoter.promote("a.b"));
+                assertEquals("Column data_a_b is taken by data key A_b", exception.getMessage());
+
+                assertEquals("data_a_b", promoter.promote("A_b"));
+                verify(columns).add("A_b", ColumnType.TEXT);
+        }
+}
@@ -0,0 +1,86 @@
+package org.analytics.events.ingest.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.analytics.events.ingest.config.SchemaProperties;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.service.DataSchemaTracker.KeySchema;
+import org.analytics.events.ingest.service.DataSchemaTracker.ValueType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Schema inference of the data map")
+public class DataSchemaTrackerTests {
+
+        private final DataSchemaTracker tracker = new DataSchemaTracker(
+                        new SchemaProperties(true, 1.0, 3, 10, 0.5, 0.9, false, 16));
+
+        private static BaseEvent event(EventType type, Map<String, Object> data) {
+                return BaseEvent.builder()
+                                .eventType(type)
+                                .userHash("e9c0494b2b14ca2b48258c05dd6c4c14")
+                                .data(data)
+                                .build();
+        }
+
+        private void record(int times, EventType type, Map<String, Object> data) {
+                List<BaseEvent> events = new ArrayList<>();
+                for (int i = 0; i < times; i++) {
+                        events.add(event(type, data));
+                }
+                tracker.record(events);
+        }
+
+        @Test
+        @DisplayName("""
+                        Given sampled events of one type,
+                        When the schema is read,
+                        Then every key has its frequency and dominant value type""")
+        void shouldInferKeyFrequencyAndType() {
+                record(6, EventType.PAGE_VIEW, Map.of("page", "/home", "duration", 1200));
+                record(4, EventType.PAGE_VIEW, Map.of("page", "/cart", "duration", "slow"));
+
+                DataSchemaTracker.TypeSchema schema = tracker.schema(EventType.PAGE_VIEW);
+
+                assertEquals(10, schema.sampledEvents());
+                assertEquals(List.of(
+                                new KeySchema("duration", 10, 1.0, ValueType.NUMBER, 0.6),
+                                new KeySchema("page", 10, 1.0, ValueType.STRING, 1.0)),
+                                schema.keys());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given keys that are frequent, rare, inconsistently typed or beyond the tracked maximum,
+                        When promotion candidates are read,
+                        Then only the frequent consistently typed scalar key qualifies""")
+        void shouldPromoteOnlyHotConsistentKeys() {
+                record(8, EventType.SEARCH, Map.of("query", "shoes", "results", Map.of("count", 3)));
+                record(1, EventType.SEARCH, Map.of("query", "hats", "filter", "red"));
+                record(1, EventType.SEARCH, Map.of("query", "bags", "page", 2));
+
+                assertEquals(Map.of("query", ValueType.STRING), tracker.promotionCandidates());
+                assertEquals(1, tracker.schema(EventType.SEARCH).untrackedKeys());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given the tracked keys of a type taken up by one-off keys,
+                        When a frequent key arrives after them,
+                        Then it replaces a one-off key and qualifies for promotion""")
+        void shouldTrackHeavyHittersArrivingLate() {
+                record(1, EventType.SEARCH, Map.of("ref_a", "x"));
+                record(1, EventType.SEARCH, Map.of("ref_b", "x"));
+                record(1, EventType.SEARCH, Map.of("ref_c", "x"));
+                record(10, EventType.SEARCH, Map.of("query", "shoes"));
+
+                assertEquals(Map.of("query", ValueType.STRING), tracker.promotionCandidates());
+                assertEquals(3, tracker.schema(EventType.SEARCH).keys().size());
+                assertEquals(1, tracker.schema(EventType.SEARCH).untrackedKeys());
+        }
+}
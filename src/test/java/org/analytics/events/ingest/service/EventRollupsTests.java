@@ -0,0 +1,112 @@
+package org.analytics.events.ingest.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import org.analytics.events.ingest.config.RollupProperties;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.ClientInfo;
+import org.analytics.events.ingest.model.EventRollup;
+import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.repository.EventRollupRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Per-minute event rollups")
+public class EventRollupsTests {
+
+        private static final Instant MINUTE = Instant.now().truncatedTo(ChronoUnit.MINUTES);
+
+        private final EventRollupRepository repository = mock(EventRollupRepository.class);
+        private final EventRollups rollups = new EventRollups(
+                        new RollupProperties(true, Duration.ofSeconds(10), Duration.ofHours(2), 2),
+                        repository, new SimpleMeterRegistry());
+
+        private static BaseEvent event(EventType type, String platform) {
+                return BaseEvent.builder()
+                                .eventType(type)
+                                .userHash("e9c0494b2b14ca2b48258c05dd6c4c14")
+                                .timestamp(MINUTE.plusSeconds(30))
+                                .clientInfo(new ClientInfo("Mozilla/5.0", "203.0.113.42", "en-US", "UTC", platform))
+                                .data(Map.of())
+                                .build();
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<EventRollup> flushed() {
+                ArgumentCaptor<List<EventRollup>> captor = ArgumentCaptor.forClass(List.class);
+                verify(repository).increment(captor.capture());
+                return captor.getValue();
+        }
+
+        @Test
+        @DisplayName("""
+                        Given accepted events of several types and platforms,
+                        When recent rollups are read,
+                        Then they are counted per minute, type and platform, capping the number of platforms""")
+        void shouldCountPerTypeAndPlatform() {
+                rollups.record(List.of(event(EventType.PAGE_VIEW, "ios"), event(EventType.PAGE_VIEW, "ios"),
+                                event(EventType.SEARCH, "android"), event(EventType.SEARCH, "web"),
+                                event(EventType.SEARCH, null)));
+
+                assertEquals(List.of(
+                                new EventRollup(MINUTE, EventType.PAGE_VIEW, "ios", 2),
+                                new EventRollup(MINUTE, EventType.SEARCH, "android", 1),
+                                new EventRollup(MINUTE, EventType.SEARCH, "other", 1),
+                                new EventRollup(MINUTE, EventType.SEARCH, "unknown", 1)),
+                                rollups.recent(MINUTE, null));
+                assertEquals(1, rollups.recent(MINUTE, EventType.PAGE_VIEW).size());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given counts that were already flushed,
+                        When more events arrive and the rollups are flushed again,
+                        Then only the new counts are added to the table""")
+        void shouldFlushOnlyNewCounts() {
+                rollups.record(List.of(event(EventType.PAGE_VIEW, "ios"), event(EventType.PAGE_VIEW, "ios")));
+                rollups.flush();
+                assertEquals(List.of(new EventRollup(MINUTE, EventType.PAGE_VIEW, "ios", 2)), flushed());
+
+                rollups.record(List.of(event(EventType.PAGE_VIEW, "ios")));
+                clearInvocations(repository);
+                rollups.flush();
+
+                assertEquals(List.of(new EventRollup(MINUTE, EventType.PAGE_VIEW, "ios", 1)), flushed());
+                assertEquals(3, rollups.recent(MINUTE, null).getFirst().count());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a flush that failed,
+                        When the rollups are flushed again,
+                        Then the counts of the failed flush are included""")
+        void shouldRetryFailedFlush() {
+                rollups.record(List.of(event(EventType.ERROR, "web")));
+                doThrow(new QueryTimeoutException("timeout")).when(repository).increment(anyList());
+                rollups.flush();
+
+                rollups.record(List.of(event(EventType.ERROR, "web")));
+                reset(repository);
+                rollups.flush();
+
+                assertEquals(List.of(new EventRollup(MINUTE, EventType.ERROR, "web", 2)), flushed());
+                verify(repository, times(1)).increment(anyList());
+        }
+}
@@ -0,0 +1,47 @@
+package org.analytics.events.ingest.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.analytics.events.ingest.config.IngestLimitsProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+@DisplayName("Streaming event batch reader")
+public class EventStreamReaderTests {
+
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        private final IngestLimitsProperties limits = new IngestLimitsProperties(100, DataSize.ofKilobytes(50), 10000,
+                        DataSize.ofMegabytes(2), DataSize.ofMegabytes(16), DataSize.ofKilobytes(16));
+        private final EventStreamReader reader = new EventStreamReader(Jackson2ObjectMapperBuilder.json().build(),
+                        validator, limits, new IngestMetrics(registry));
+
+        @Test
+        @DisplayName("""
+                        Given a body without Content-Length that crosses the payload limit inside an event,
+                        When it is read,
+                        Then the payload limit is reported rather than a malformed event, and no event is counted as rejected""")
+        void shouldReportPayloadLimitCrossedWhileBindingEvent() {
+                String payload = """
+                                [{"eventType":"PAGE_VIEW","userHash":"e9c0494b2b14ca2b48258c05dd6c4c14","data":{"large_field":"%s"}}]"""
+                                .formatted("abcdefghij".repeat(6 * 1024));
+
+                InvalidBatchException exception = assertThrows(InvalidBatchException.class, () -> reader.read(
+                                new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)), EventWireFormat.JSON,
+                                event -> {}));
+
+                assertEquals("Payload size cannot exceed 50KB", exception.getMessage());
+                assertEquals(0, registry.get("ingest.events").tag("type", "unknown").tag("outcome", "rejected")
+                                .counter().count());
+        }
+}
@@ -0,0 +1,146 @@
+package org.analytics.events.ingest.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.analytics.events.ingest.config.PipelineProperties;
+import org.analytics.events.ingest.config.WorkerThreads;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.repository.EventBatchWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("In-memory write-behind ingestion pipeline")
+public class InMemoryIngestionPipelineTests {
+
+        private final EventBatchWriter eventWriter = mock(EventBatchWriter.class);
+        private InMemoryIngestionPipeline pipeline;
+
+        private InMemoryIngestionPipeline startPipeline(int capacity) {
+                return startPipeline(capacity, WorkerThreads.platform());
+        }
+
+        private InMemoryIngestionPipeline startPipeline(int capacity, WorkerThreads workerThreads) {
+                PipelineProperties properties = new PipelineProperties(
+                                capacity, 1, 10, Duration.ofMillis(10), Duration.ofSeconds(5));
+                pipeline = new InMemoryIngestionPipeline(eventWriter, properties, workerThreads, new SimpleMeterRegistry());
+                pipeline.start();
+                return pipeline;
+        }
+
+        private static List<BaseEvent> events(int count) {
+                List<BaseEvent> events = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                        events.add(BaseEvent.builder()
+                                        .eventType(EventType.PAGE_VIEW)
+                                        .userHash("e9c0494b2b14ca2b48258c05dd6c4c14")
+                                        .build());
+                }
+                return events;
+        }
+
+        @AfterEach
+        void stopPipeline() throws InterruptedException {
+                pipeline.stop();
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a batch that fits into the queue,
+                        When it is submitted,
+                        Then the writers persist it in the background""")
+        void shouldDrainSubmittedEventsIntoRepository() {
+                startPipeline(100).submit(events(3));
+
+                verify(eventWriter, timeout(1000)).write(anyList());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given writers running on virtual threads,
+                        When a batch is submitted,
+                        Then it is persisted the same way""")
+        void shouldDrainOnVirtualThreads() {
+                startPipeline(100, new WorkerThreads(true)).submit(events(3));
+
+                verify(eventWriter, timeout(1000)).write(anyList());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a batch larger than the remaining capacity,
+                        When it is submitted,
+                        Then it is rejected as a whole""")
+        void shouldRejectBatchExceedingCapacity() {
+                InMemoryIngestionPipeline pipeline = startPipeline(5);
+
+                IngestionBackpressureException exception = assertThrows(IngestionBackpressureException.class,
+                                () -> pipeline.submit(events(6)));
+
+                assertEquals(Duration.ofSeconds(5), exception.getRetryAfter());
+                assertEquals(0, pipeline.depth());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given an empty batch,
+                        When it is submitted,
+                        Then nothing is buffered""")
+        void shouldAcceptEmptyBatch() {
+                InMemoryIngestionPipeline pipeline = startPipeline(5);
+
+                pipeline.submit(Collections.emptyList());
+
+                assertEquals(0, pipeline.depth());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a micro-batch holding an event the database refuses,
+                        When it is written,
+                        Then only that event is dropped and the others are persisted""")
+        void shouldDropOnlyRefusedEvents() throws InterruptedException {
+                List<BaseEvent> events = events(5);
+                BaseEvent refused = events.get(3);
+                List<BaseEvent> written = new CopyOnWriteArrayList<>();
+                CountDownLatch allWritten = new CountDownLatch(1);
+                doAnswer(invocation -> {
+                        List<BaseEvent> batch = invocation.getArgument(0);
+                        if (batch.contains(refused)) {
+                                throw new DataIntegrityViolationException("value too long for type character varying(255)");
+                        }
+                        written.addAll(batch);
+                        if (written.size() == 4) {
+                                allWritten.countDown();
+                        }
+                        return null;
+                }).when(eventWriter).write(anyList());
+
+                startPipeline(100).submit(events);
+
+                assertTrue(allWritten.await(1, TimeUnit.SECONDS));
+                List<BaseEvent> expected = new ArrayList<>(events);
+                expected.remove(refused);
+                assertEquals(expected.size(), written.size());
+                assertTrue(written.containsAll(expected));
+        }
+}
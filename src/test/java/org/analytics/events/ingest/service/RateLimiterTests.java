@@ -0,0 +1,139 @@
+package org.analytics.events.ingest.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.analytics.events.ingest.config.PipelineProperties;
+import org.analytics.events.ingest.config.RateLimitProperties;
+import org.analytics.events.ingest.repository.BatchWriteMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Per-client rate limiting")
+public class RateLimiterTests {
+
+        private static final String USER = "e9c0494b2b14ca2b48258c05dd6c4c14";
+
+        private final IngestionPipeline pipeline = mock(IngestionPipeline.class);
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        private final BatchWriteMetrics writeMetrics = new BatchWriteMetrics(registry);
+
+        private RateLimiter rateLimiter(int userBurst) {
+                RateLimitProperties properties = new RateLimitProperties(true, 1, userBurst, 1000, 1000, 0, 0,
+                                Duration.ofMinutes(10), 0.5, Duration.ofMillis(250), 0.1);
+                PipelineProperties pipelineProperties = new PipelineProperties(
+                                100, 1, 10, Duration.ofMillis(10), Duration.ofSeconds(5));
+                return new RateLimiter(properties, pipelineProperties, pipeline, writeMetrics, registry);
+        }
+
+        private static RateLimiter.Usage usage(String userHash, int events) {
+                RateLimiter.Usage usage = new RateLimiter.Usage();
+                for (int i = 0; i < events; i++) {
+                        usage.add(userHash, "203.0.113.42");
+                }
+                return usage;
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a user that has used up its burst,
+                        When it sends more events,
+                        Then they are rejected with the time until the bucket refills""")
+        void shouldRejectUserOverBurst() {
+                RateLimiter rateLimiter = rateLimiter(10);
+                rateLimiter.acquire(usage(USER, 10));
+
+                RateLimitExceededException exception = assertThrows(RateLimitExceededException.class,
+                                () -> rateLimiter.acquire(usage(USER, 1)));
+
+                assertTrue(exception.getRetryAfter().compareTo(Duration.ofMillis(900)) > 0);
+                rateLimiter.acquire(usage("a1b2c3d4e5f6a7b8c9d0e1f2a3b4c5d6", 10));
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a global limit and a user that has used up its burst,
+                        When that user keeps sending,
+                        Then its rejected requests take nothing from the global budget""")
+        void shouldNotChargeGlobalBucketForRejectedUser() {
+                RateLimitProperties properties = new RateLimitProperties(true, 1, 10, 1000, 1000, 1, 20,
+                                Duration.ofMinutes(10), 0.5, Duration.ofMillis(250), 0.1);
+                PipelineProperties pipelineProperties = new PipelineProperties(
+                                100, 1, 10, Duration.ofMillis(10), Duration.ofSeconds(5));
+                RateLimiter rateLimiter = new RateLimiter(properties, pipelineProperties, pipeline, writeMetrics, registry);
+                rateLimiter.acquire(usage(USER, 10));
+
+                for (int i = 0; i < 50; i++) {
+                        assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquire(usage(USER, 5)));
+                }
+
+                rateLimiter.acquire(usage("a1b2c3d4e5f6a7b8c9d0e1f2a3b4c5d6", 10));
+                assertEquals(0, registry.get("ingest.ratelimit.rejected").tag("scope", "global").counter().count());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a user that has used up its burst,
+                        When its next request is checked while being read,
+                        Then the first event too many is rejected and nothing is charged by the check""")
+        void shouldRejectWhileReadingWithoutCharging() {
+                RateLimiter rateLimiter = rateLimiter(10);
+                RateLimiter.Usage fresh = new RateLimiter.Usage();
+                for (int i = 0; i < 50; i++) {
+                        fresh.add(USER, "203.0.113.42");
+                        rateLimiter.check(fresh);
+                }
+                rateLimiter.acquire(usage(USER, 10));
+
+                RateLimiter.Usage next = new RateLimiter.Usage();
+                next.add(USER, "203.0.113.42");
+                assertThrows(RateLimitExceededException.class, () -> rateLimiter.check(next));
+                rateLimiter.checkAddress("203.0.113.42");
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a client address that has used up its burst,
+                        When it sends another request,
+                        Then it is rejected before the body is read""")
+        void shouldRejectExhaustedAddressBeforeReading() {
+                RateLimitProperties properties = new RateLimitProperties(true, 1000, 1000, 1, 10, 0, 0,
+                                Duration.ofMinutes(10), 0.5, Duration.ofMillis(250), 0.1);
+                PipelineProperties pipelineProperties = new PipelineProperties(
+                                100, 1, 10, Duration.ofMillis(10), Duration.ofSeconds(5));
+                RateLimiter rateLimiter = new RateLimiter(properties, pipelineProperties, pipeline, writeMetrics, registry);
+                rateLimiter.checkAddress("203.0.113.42");
+                rateLimiter.acquire(usage(USER, 10));
+
+                assertThrows(RateLimitExceededException.class, () -> rateLimiter.checkAddress("203.0.113.42"));
+                rateLimiter.checkAddress("198.51.100.7");
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a pipeline filling up,
+                        When the rate factor is updated,
+                        Then all rates are lowered, but not below the configured minimum""")
+        void shouldShedLoadWhenQueueFills() {
+                RateLimiter rateLimiter = rateLimiter(10);
+
+                when(pipeline.depth()).thenReturn(75);
+                rateLimiter.updateRateFactor();
+                assertEquals(0.5, rateLimiter.rateFactor(), 0.001);
+
+                when(pipeline.depth()).thenReturn(100);
+                rateLimiter.updateRateFactor();
+                assertEquals(0.1, rateLimiter.rateFactor(), 0.001);
+
+                when(pipeline.depth()).thenReturn(0);
+                rateLimiter.updateRateFactor();
+                assertEquals(1.0, rateLimiter.rateFactor(), 0.001);
+        }
+}
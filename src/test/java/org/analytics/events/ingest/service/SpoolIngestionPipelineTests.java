@@ -0,0 +1,184 @@
+package org.analytics.events.ingest.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import org.analytics.events.ingest.config.PipelineProperties;
+import org.analytics.events.ingest.config.SpoolProperties;
+import org.analytics.events.ingest.config.WorkerThreads;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.Enrichment;
+import org.analytics.events.ingest.model.EventMessageCodec;
+import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.repository.EventBatchWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Write-ahead spool ingestion pipeline")
+public class SpoolIngestionPipelineTests {
+
+        @TempDir
+        Path directory;
+
+        private final Set<UUID> written = ConcurrentHashMap.newKeySet();
+
+        private SpoolIngestionPipeline startPipeline(EventBatchWriter eventWriter) throws IOException {
+                SpoolProperties properties = new SpoolProperties(directory, DataSize.ofKilobytes(4),
+                                DataSize.ofMegabytes(1), Duration.ofMillis(1), Duration.ofSeconds(5), Duration.ofMillis(10));
+                PipelineProperties pipelineProperties = new PipelineProperties(
+                                100, 1, 10, Duration.ofMillis(10), Duration.ofSeconds(5));
+                SpoolIngestionPipeline pipeline = new SpoolIngestionPipeline(
+                                eventWriter, properties, pipelineProperties, WorkerThreads.platform(), new SimpleMeterRegistry());
+                pipeline.start();
+                return pipeline;
+        }
+
+        private void collect(List<BaseEvent> batch) {
+                batch.forEach(event -> written.add(event.getEventId()));
+        }
+
+        private static List<BaseEvent> events(int count) {
+                List<BaseEvent> events = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                        events.add(BaseEvent.builder()
+                                        .eventType(EventType.PAGE_VIEW)
+                                        .userHash("e9c0494b2b14ca2b48258c05dd6c4c14")
+                                        .build());
+                }
+                return events;
+        }
+
+        private static Set<UUID> ids(List<BaseEvent> events) {
+                Set<UUID> ids = new HashSet<>();
+                events.forEach(event -> ids.add(event.getEventId()));
+                return ids;
+        }
+
+        private long segmentFiles() throws IOException {
+                try (Stream<Path> files = Files.list(directory)) {
+                        return files.filter(file -> file.toString().endsWith(".seg")).count();
+                }
+        }
+
+        private void awaitWritten(int expected) throws InterruptedException {
+                long deadline = System.currentTimeMillis() + 5000;
+                while (written.size() < expected && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(10);
+                }
+        }
+
+        @Test
+        @DisplayName("""
+                        Given batches spanning several segments,
+                        When they are submitted,
+                        Then every event is replayed and consumed segments are deleted""")
+        void shouldReplayAcrossSegmentsAndDeleteThem() throws Exception {
+                SpoolIngestionPipeline pipeline = startPipeline(this::collect);
+                List<BaseEvent> submitted = new ArrayList<>();
+                for (int i = 0; i < 20; i++) {
+                        List<BaseEvent> batch = events(5);
+                        pipeline.submit(batch);
+                        submitted.addAll(batch);
+                }
+
+                awaitWritten(submitted.size());
+                pipeline.stop();
+
+                assertEquals(ids(submitted), written);
+                assertTrue(segmentFiles() <= 2, "consumed segments should have been deleted");
+        }
+
+        @Test
+        @DisplayName("""
+                        Given events spooled while the database was unavailable,
+                        When the service restarts,
+                        Then the spooled events are replayed""")
+        void shouldReplaySpooledEventsAfterRestart() throws Exception {
+                SpoolIngestionPipeline failing = startPipeline(batch -> {
+                        throw new IllegalStateException("database unavailable");
+                });
+                List<BaseEvent> submitted = events(8);
+                failing.submit(submitted);
+                failing.stop();
+                assertTrue(written.isEmpty());
+
+                SpoolIngestionPipeline restarted = startPipeline(this::collect);
+                awaitWritten(submitted.size());
+                restarted.stop();
+
+                assertEquals(ids(submitted), written);
+        }
+
+        @Test
+        @DisplayName("""
+                        Given an enriched event,
+                        When it passes through the spool,
+                        Then it is written with its enrichment""")
+        void shouldKeepEnrichment() throws Exception {
+                List<BaseEvent> received = new CopyOnWriteArrayList<>();
+                SpoolIngestionPipeline pipeline = startPipeline(batch -> {
+                        received.addAll(batch);
+                        collect(batch);
+                });
+                Enrichment enrichment = new Enrichment("mobile", "Safari", "17", "iOS", "17.4", "AU");
+
+                pipeline.submit(List.of(events(1).get(0).withEnrichment(enrichment)));
+                awaitWritten(1);
+                pipeline.stop();
+
+                assertEquals(enrichment, received.get(0).getEnrichment());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a spooled event the database refuses,
+                        When the spool is replayed,
+                        Then the event is quarantined and the events around and behind it are written""")
+        void shouldQuarantineRefusedEvents() throws Exception {
+                List<BaseEvent> first = events(4);
+                BaseEvent refused = first.get(2);
+                SpoolIngestionPipeline pipeline = startPipeline(batch -> {
+                        if (batch.stream().anyMatch(event -> event.getEventId().equals(refused.getEventId()))) {
+                                throw new DataIntegrityViolationException("value too long for type character varying(255)");
+                        }
+                        collect(batch);
+                });
+                List<BaseEvent> second = events(3);
+
+                pipeline.submit(first);
+                pipeline.submit(second);
+                awaitWritten(6);
+                pipeline.stop();
+
+                Set<UUID> expected = ids(first);
+                expected.remove(refused.getEventId());
+                expected.addAll(ids(second));
+                assertEquals(expected, written);
+                List<Path> quarantined;
+                try (Stream<Path> files = Files.list(directory.resolve("quarantine"))) {
+                        quarantined = files.toList();
+                }
+                assertEquals(1, quarantined.size());
+                byte[] content = Files.readAllBytes(quarantined.get(0));
+                assertEquals(refused.getEventId(),
+                                EventMessageCodec.decodeBatch(content, 0, content.length).get(0).getEventId());
+        }
+}
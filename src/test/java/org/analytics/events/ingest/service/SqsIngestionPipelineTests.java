@@ -0,0 +1,235 @@
+package org.analytics.events.ingest.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.analytics.events.ingest.config.PipelineProperties;
+import org.analytics.events.ingest.config.SqsProperties;
+import org.analytics.events.ingest.config.WorkerThreads;
+import org.analytics.events.ingest.model.BaseEvent;
+import org.analytics.events.ingest.model.Enrichment;
+import org.analytics.events.ingest.model.EventMessageCodec;
+import org.analytics.events.ingest.model.EventType;
+import org.analytics.events.ingest.repository.EventBatchWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+
+@DisplayName("SQS-backed ingestion pipeline")
+public class SqsIngestionPipelineTests {
+
+        private static final SqsProperties PROPERTIES = new SqsProperties(
+                        "http://localhost:9324/queue/events", "us-east-1", URI.create("http://localhost:9324"),
+                        DataSize.ofKilobytes(256), true, 1, Duration.ZERO);
+
+        private static final PipelineProperties PIPELINE_PROPERTIES = new PipelineProperties(
+                        1000, 1, 100, Duration.ofMillis(10), Duration.ofSeconds(5));
+
+        private final FakeSqsClient sqsClient = new FakeSqsClient();
+        private final List<BaseEvent> written = new ArrayList<>();
+        private final EventBatchWriter eventWriter = written::addAll;
+
+        private final SqsIngestionPipeline pipeline = new SqsIngestionPipeline(
+                        sqsClient, PROPERTIES, PIPELINE_PROPERTIES, new SimpleMeterRegistry());
+        private final SqsEventConsumer consumer = new SqsEventConsumer(
+                        sqsClient, eventWriter, PROPERTIES, WorkerThreads.platform(), new SimpleMeterRegistry());
+
+        private static List<BaseEvent> events(int count, int dataSize) {
+                List<BaseEvent> events = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                        events.add(BaseEvent.builder()
+                                        .eventType(EventType.PAGE_VIEW)
+                                        .userHash("e9c0494b2b14ca2b48258c05dd6c4c14")
+                                        .addData("payload", "x".repeat(dataSize))
+                                        .build());
+                }
+                return events;
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a large batch of events,
+                        When it is submitted,
+                        Then every SendMessageBatch call stays within ten entries and 256KB""")
+        void shouldPackEventsWithinSqsLimits() {
+                List<BaseEvent> events = events(400, 2000);
+
+                pipeline.submit(events);
+
+                assertTrue(sqsClient.sendCalls.get() > 1);
+                int published = 0;
+                for (SendMessageBatchRequest request : sqsClient.sentRequests) {
+                        assertTrue(request.entries().size() <= 10);
+                        int bytes = request.entries().stream()
+                                        .mapToInt(entry -> entry.messageBody().getBytes(java.nio.charset.StandardCharsets.UTF_8).length)
+                                        .sum();
+                        assertTrue(bytes <= 256 * 1024, "request of " + bytes + " bytes");
+                        for (var entry : request.entries()) {
+                                published += EventMessageCodec.decodeBatch(entry.messageBody()).size();
+                        }
+                }
+                assertEquals(400, published);
+        }
+
+        @Test
+        @DisplayName("""
+                        Given published events,
+                        When the consumer polls the queue,
+                        Then it writes them with their original IDs and deletes the messages""")
+        void shouldConsumePublishedEventsIntoWriter() {
+                List<BaseEvent> events = events(25, 10);
+                pipeline.submit(events);
+
+                int consumed = 0;
+                while (!sqsClient.queue.isEmpty()) {
+                        consumed += consumer.pollOnce();
+                }
+
+                assertEquals(25, consumed);
+                assertEquals(events.get(0).getEventId(), written.get(0).getEventId());
+                assertEquals(events.get(0).getTimestamp(), written.get(0).getTimestamp());
+                assertTrue(sqsClient.inFlight.isEmpty());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given the database write fails,
+                        When the consumer polls the queue,
+                        Then the messages are not deleted""")
+        void shouldKeepMessagesWhenWriteFails() {
+                EventBatchWriter failingWriter = mock(EventBatchWriter.class);
+                doThrow(new IllegalStateException("database down")).when(failingWriter).write(anyList());
+                SqsEventConsumer failingConsumer = new SqsEventConsumer(
+                                sqsClient, failingWriter, PROPERTIES, WorkerThreads.platform(), new SimpleMeterRegistry());
+                pipeline.submit(events(3, 10));
+
+                assertEquals(0, failingConsumer.pollOnce());
+                assertEquals(1, sqsClient.inFlight.size());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given an enriched event,
+                        When it is published and consumed,
+                        Then it is written with its enrichment""")
+        void shouldKeepEnrichment() {
+                Enrichment enrichment = new Enrichment("desktop", "Edge", "124", "Windows", "10", "DE");
+                pipeline.submit(List.of(events(1, 10).get(0).withEnrichment(enrichment)));
+
+                while (!sqsClient.queue.isEmpty()) {
+                        consumer.pollOnce();
+                }
+
+                assertEquals(1, written.size());
+                assertEquals(enrichment, written.get(0).getEnrichment());
+        }
+
+        @Test
+        @DisplayName("""
+                        Given a message that cannot be decoded and one holding an event the database refuses,
+                        When the consumer polls the queue,
+                        Then the other messages are written and deleted and those two are left to the redrive policy""")
+        void shouldLeavePoisonMessagesToRedrivePolicy() {
+                List<BaseEvent> events = events(3, 10);
+                BaseEvent refused = events.get(1);
+                List<BaseEvent> persisted = new ArrayList<>();
+                SqsEventConsumer poisonedConsumer = new SqsEventConsumer(sqsClient, batch -> {
+                        if (batch.stream().anyMatch(event -> event.getEventId().equals(refused.getEventId()))) {
+                                throw new DataIntegrityViolationException("value too long for type character varying(255)");
+                        }
+                        persisted.addAll(batch);
+                }, PROPERTIES, WorkerThreads.platform(), new SimpleMeterRegistry());
+                enqueue("good-1", EventMessageCodec.joinBatch(List.of(EventMessageCodec.encode(events.get(0)))));
+                enqueue("undecodable", "{not json");
+                enqueue("refused", EventMessageCodec.joinBatch(List.of(EventMessageCodec.encode(refused))));
+                enqueue("good-2", EventMessageCodec.joinBatch(List.of(EventMessageCodec.encode(events.get(2)))));
+
+                assertEquals(2, poisonedConsumer.pollOnce());
+
+                assertEquals(Set.of(events.get(0).getEventId(), events.get(2).getEventId()),
+                                persisted.stream().map(BaseEvent::getEventId).collect(Collectors.toSet()));
+                assertEquals(Set.of("rh-undecodable", "rh-refused"), sqsClient.inFlight.keySet());
+        }
+
+        private void enqueue(String messageId, String body) {
+                sqsClient.queue.add(Message.builder().messageId(messageId).body(body).attributes(Map.of()).build());
+        }
+
+        /**
+         * In-process stand-in for SQS: a FIFO of message bodies with receipt handles for in-flight messages.
+         */
+        private static final class FakeSqsClient implements SqsClient {
+
+                final ConcurrentLinkedQueue<Message> queue = new ConcurrentLinkedQueue<>();
+                final Map<String, Message> inFlight = new ConcurrentHashMap<>();
+                final List<SendMessageBatchRequest> sentRequests = new ArrayList<>();
+                final AtomicInteger sendCalls = new AtomicInteger();
+                private final AtomicInteger ids = new AtomicInteger();
+
+                @Override
+                public SendMessageBatchResponse sendMessageBatch(SendMessageBatchRequest request) {
+                        sendCalls.incrementAndGet();
+                        sentRequests.add(request);
+                        request.entries().forEach(entry -> queue.add(Message.builder()
+                                        .messageId(Integer.toString(ids.incrementAndGet()))
+                                        .body(entry.messageBody())
+                                        .attributes(Map.of(MessageSystemAttributeName.SENT_TIMESTAMP,
+                                                        Long.toString(System.currentTimeMillis())))
+                                        .build()));
+                        return SendMessageBatchResponse.builder().build();
+                }
+
+                @Override
+                public ReceiveMessageResponse receiveMessage(ReceiveMessageRequest request) {
+                        List<Message> received = new ArrayList<>();
+                        Message message;
+                        while (received.size() < request.maxNumberOfMessages() && (message = queue.poll()) != null) {
+                                Message delivered = message.toBuilder().receiptHandle("rh-" + message.messageId()).build();
+                                inFlight.put(delivered.receiptHandle(), delivered);
+                                received.add(delivered);
+                        }
+                        return ReceiveMessageResponse.builder().messages(received).build();
+                }
+
+                @Override
+                public DeleteMessageBatchResponse deleteMessageBatch(DeleteMessageBatchRequest request) {
+                        request.entries().forEach(entry -> inFlight.remove(entry.receiptHandle()));
+                        return DeleteMessageBatchResponse.builder().build();
+                }
+
+                @Override
+                public String serviceName() {
+                        return SERVICE_NAME;
+                }
+
+                @Override
+                public void close() {
+                }
+        }
+}
@@ -0,0 +1,39 @@
+package org.analytics.events.ingest.validation;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("User hash validation")
+public class ValidHashValidatorTests {
+
+        private final ValidHashValidator validator = new ValidHashValidator();
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                        "e9c0494b2b14ca2b48258c05dd6c4c14",
+                        "E9C0494B2B14CA2B48258C05DD6C4C14",
+                        "00000000000000000000000000000000" })
+        @DisplayName("Given a 32-character hexadecimal string, Then it is valid")
+        void shouldAcceptHexHashes(String hash) {
+                assertTrue(validator.isValid(hash, null));
+        }
+
+        @ParameterizedTest
+        @NullAndEmptySource
+        @ValueSource(strings = {
+                        "   ",
+                        "invalid-hash-format",
+                        "e9c0494b2b14ca2b48258c05dd6c4c1",
+                        "e9c0494b2b14ca2b48258c05dd6c4c145",
+                        "e9c0494b2b14ca2b48258c05dd6c4c1g",
+                        " e9c0494b2b14ca2b48258c05dd6c4c1" })
+        @DisplayName("Given anything else, Then it is invalid")
+        void shouldRejectNonHexHashes(String hash) {
+                assertFalse(validator.isValid(hash, null));
+        }
+}